@@ -0,0 +1,221 @@
+package hrs;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The ArchivedReservation class is a read-only view of one row of a ReservationArchive. It holds only
+ * the archive and the row number and reads every field from the archive when asked, so a hotel can hand
+ * out millions of them without keeping any reservation data on the heap.
+ *
+ * The archive keeps the total price but not the nightly breakdown. The nights are priced again from the
+ * room, its rate calendar and the rule of the discount code, and scaled so that they add up to the total.
+ */
+public class ArchivedReservation extends Reservation {
+    /**
+     * The archive holding the reservation.
+     */
+    private final ReservationArchive archive;
+
+    /**
+     * The row of the reservation in the archive.
+     */
+    private final int index;
+
+    /**
+     * The constructor that creates a view of a row of an archive.
+     *
+     * @param archive - the archive
+     * @param index - the row
+     */
+    ArchivedReservation(ReservationArchive archive, int index) {
+        this.archive = archive;
+        this.index = index;
+    }
+
+    /**
+     * A getter that gets the booking number the hotel gave the reservation.
+     *
+     * @return the booking number
+     */
+    public long getBookingNumber() {
+        return archive.getBookingNumber(index);
+    }
+
+    /**
+     * A getter that gets the row of the reservation in its archive.
+     *
+     * @return the row
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the type of the room, read from the archive.
+     *
+     * @return the type of the room
+     */
+    public Room.RoomType getRoomType() {
+        return archive.getRoomType(index);
+    }
+
+    /**
+     * A getter that gets the name of the guest, read from the archive.
+     *
+     * @return the name of the guest
+     */
+    public String getGuestName() {
+        return archive.getGuestName(index);
+    }
+
+    /**
+     * A getter that gets the check-in epoch day, read from the archive.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return archive.getCheckInDay(index);
+    }
+
+    /**
+     * A getter that gets the check-out epoch day, read from the archive.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return archive.getCheckOutDay(index);
+    }
+
+    /**
+     * A getter that gets the room of the reservation, which is the hotel's room of that name if it still has one.
+     *
+     * @return the room
+     */
+    public Room getRoom() {
+        return archive.getRoom(index);
+    }
+
+    /**
+     * A getter that gets the total price charged for the reservation in cents, read from the archive.
+     *
+     * @return the total price in cents
+     */
+    public long getTotalCents() {
+        return archive.getTotalCents(index);
+    }
+
+    /**
+     * A getter that gets the cost of each night, priced again and scaled to the total, as an
+     * unmodifiable list.
+     *
+     * @return the list of costs per night
+     */
+    public List<Double> getBreakdownCost() {
+        long[] nights = priceNights();
+        return new AbstractList<>() {
+            public Double get(int night) {
+                return Money.toAmount(nights[night]);
+            }
+
+            public int size() {
+                return nights.length;
+            }
+        };
+    }
+
+    /**
+     * A getter that gets the number of nights in the reservation.
+     *
+     * @return the number of nights
+     */
+    public int getNights() {
+        return getCheckOutDay() - getCheckInDay();
+    }
+
+    /**
+     * A getter that gets the cost of one night in cents, priced again and scaled to the total.
+     *
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the cost of the night in cents
+     */
+    public long getNightlyCents(int night) {
+        return priceNights()[night];
+    }
+
+    /**
+     * Gets the share of the total of each night, which for an archived reservation are the nights
+     * priced again and scaled to the total.
+     *
+     * @return the share of the total of each night, in cents
+     */
+    long[] allocateNights() {
+        return priceNights();
+    }
+
+    /**
+     * Gets the discount code applied to the reservation.
+     *
+     * @return the discount code, or null if there is none
+     */
+    public String getDiscountCode() {
+        return archive.getDiscountCode(index);
+    }
+
+    /**
+     * Archived reservations keep the price they were charged and cannot be priced again.
+     *
+     * @throws IllegalStateException always
+     */
+    public void calculateTotalPrice() {
+        throw new IllegalStateException("An archived reservation cannot be priced again.");
+    }
+
+    /**
+     * Archived reservations keep the price they were charged and cannot be discounted again.
+     *
+     * @throws IllegalStateException always
+     */
+    public void applyDiscount() {
+        throw new IllegalStateException("An archived reservation cannot be discounted again.");
+    }
+
+    /**
+     * Two views are equal if they show the same row of the same archive.
+     *
+     * @param other - the object to compare with
+     * @return true if the other object shows the same reservation
+     */
+    public boolean equals(Object other) {
+        return other instanceof ArchivedReservation
+                && ((ArchivedReservation) other).archive == archive
+                && ((ArchivedReservation) other).index == index;
+    }
+
+    /**
+     * The hash code of the row.
+     *
+     * @return the hash code
+     */
+    public int hashCode() {
+        return System.identityHashCode(archive) * 31 + index;
+    }
+
+    /**
+     * Prices the nights from the room's rate calendar, split so that they add up to exactly the archived total.
+     *
+     * @return the price of each night in cents
+     */
+    long[] priceNights() {
+        Room room = getRoom();
+        long[] listed = new long[getNights()];
+        room.getRateCalendar().fillPrices(getCheckInDay(), room.getPriceCents(), listed);
+        DiscountRule rule = room.getDiscountEngine().find(getDiscountCode());
+        if (rule != null) {
+            rule.applyToNights(getCheckInDay(), listed);
+        }
+        long[] nights = new long[listed.length];
+        Money.allocate(getTotalCents(), listed, nights);
+        return nights;
+    }
+}
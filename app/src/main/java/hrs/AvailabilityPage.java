@@ -0,0 +1,99 @@
+package hrs;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The AvailabilityPage class is one page of the results of an availability search, ranked from the
+ * cheapest hotel, together with how many hotels matched in all.
+ */
+public class AvailabilityPage {
+    /**
+     * The hotels on this page, in ranking order.
+     */
+    private final List<HotelAvailability> results;
+
+    /**
+     * The number of hotels that matched the search, over all pages.
+     */
+    private final int totalMatches;
+
+    /**
+     * The number of this page, starting from 0.
+     */
+    private final int page;
+
+    /**
+     * The number of hotels per page.
+     */
+    private final int pageSize;
+
+    /**
+     * The constructor that creates a page of results.
+     *
+     * @param results - the hotels on the page, in ranking order
+     * @param totalMatches - the number of hotels that matched over all pages
+     * @param page - the number of the page, starting from 0
+     * @param pageSize - the number of hotels per page
+     */
+    AvailabilityPage(List<HotelAvailability> results, int totalMatches, int page, int pageSize) {
+        this.results = Collections.unmodifiableList(results);
+        this.totalMatches = totalMatches;
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * A getter that gets the hotels on this page, cheapest first.
+     *
+     * @return an unmodifiable list of the hotels and their availability
+     */
+    public List<HotelAvailability> getResults() {
+        return results;
+    }
+
+    /**
+     * A getter that gets the number of hotels that matched the search, over all pages.
+     *
+     * @return the number of matching hotels
+     */
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    /**
+     * A getter that gets the number of this page.
+     *
+     * @return the page number, starting from 0
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * A getter that gets the number of hotels per page.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * A getter that gets the number of pages the matching hotels fill.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return (int) (((long) totalMatches + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Checks if there are more matching hotels after this page.
+     *
+     * @return true if there is a next page, false otherwise
+     */
+    public boolean hasNextPage() {
+        return (long) (page + 1) * pageSize < totalMatches;
+    }
+}
@@ -0,0 +1,454 @@
+package hrs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The BestFitAssignment class gives a booking the free room whose calendar it fits most tightly:
+ * the room left with the fewest free nights right before and after the stay. Filling the gaps between
+ * reservations first keeps the long free stretches whole, instead of leaving short holes of one or two
+ * nights that nobody can book. Ties go to the room added first.
+ * The free stretches of all the rooms of a type are indexed by length, in classes of powers of two, and
+ * within each class by start. A stretch that holds a stay is at least as long as the stay and starts at
+ * most its length class before the check-in, so a pick looks only at the stretches near the check-in in
+ * the smallest class that holds one.
+ */
+public class BestFitAssignment implements RoomAssignmentStrategy {
+    /**
+     * The order of stretches by start, then by the order their rooms were added.
+     */
+    private static final Comparator<Gap> BY_START = Comparator.comparingLong((Gap gap) -> gap.start).thenComparingLong(gap -> gap.owner.order);
+
+    /**
+     * The order of stretches by end, then by the order their rooms were added.
+     */
+    private static final Comparator<Gap> BY_END = Comparator.comparingLong((Gap gap) -> gap.end).thenComparingLong(gap -> gap.owner.order);
+
+    /**
+     * The owner of the probes that sort before every stretch with the same start or end.
+     */
+    private static final RoomGaps FIRST = new RoomGaps(null, Long.MIN_VALUE);
+
+    /**
+     * The owner of the probes that sort after every stretch with the same start or end.
+     */
+    private static final RoomGaps LAST = new RoomGaps(null, Long.MAX_VALUE);
+
+    /**
+     * The counter that orders the rooms added to the strategy.
+     */
+    private final AtomicLong added = new AtomicLong();
+
+    /**
+     * The free stretches of each room added to the strategy.
+     */
+    private final ConcurrentHashMap<Room, RoomGaps> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * The index of the free stretches of each room type.
+     */
+    private final EnumMap<Room.RoomType, GapIndex> indexes = new EnumMap<>(Room.RoomType.class);
+
+    /**
+     * The constructor that creates a strategy with no rooms yet.
+     */
+    public BestFitAssignment() {
+        for (Room.RoomType type : Room.RoomType.values()) {
+            indexes.put(type, new GapIndex());
+        }
+    }
+
+    /**
+     * Picks the free room with the fewest free nights left around the stay. The pick is checked against
+     * the room itself, and if a change to the room has not reached the index yet, the room's stretches
+     * are read again and the pick is repeated. A room changing under every pick can keep the index from
+     * settling, so after one repeat per room the rooms are checked one by one instead.
+     *
+     * @param roomType - the requested room type
+     * @param rooms - the rooms of the requested type, in the order they were added to the hotel
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the best fitting free room, or null if none of the rooms is free
+     */
+    public Room choose(Room.RoomType roomType, Collection<Room> rooms, long checkInDay, long checkOutDay) {
+        GapIndex index = indexes.get(roomType);
+        for (int attempt = 0; attempt <= rooms.size(); attempt++) {
+            Gap best = index.find(checkInDay, checkOutDay);
+            if (best == null) {
+                return null;
+            }
+            if (best.owner.room.getFreeNightsAround(checkInDay, checkOutDay) == best.freeNightsAround(checkInDay, checkOutDay)) {
+                return best.owner.room;
+            }
+            refresh(best.owner, checkInDay, checkOutDay);
+        }
+        Room best = null;
+        long fewest = Long.MAX_VALUE;
+        for (Room room : rooms) {
+            long freeNights = room.getFreeNightsAround(checkInDay, checkOutDay);
+            if (freeNights >= 0 && freeNights < fewest) {
+                best = room;
+                fewest = freeNights;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Indexes the free stretches of a room.
+     *
+     * @param room - the room
+     */
+    public void roomAdded(Room room) {
+        RoomGaps gaps = rooms.computeIfAbsent(room, key -> new RoomGaps(key, added.getAndIncrement()));
+        refresh(gaps, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Drops the free stretches of a removed room from the index.
+     *
+     * @param room - the removed room
+     */
+    public void roomRemoved(Room room) {
+        RoomGaps gaps = rooms.remove(room);
+        if (gaps != null) {
+            synchronized (gaps) {
+                GapIndex index = indexes.get(room.getType());
+                for (Gap gap : gaps.byStart.values()) {
+                    index.remove(gap);
+                }
+                gaps.byStart.clear();
+            }
+        }
+    }
+
+    /**
+     * Reads again the free stretches of a room around a reservation that was added or taken.
+     *
+     * @param room - the room
+     * @param checkInDay - the check-in epoch day of the reservation
+     * @param checkOutDay - the check-out epoch day of the reservation
+     */
+    public void roomChanged(Room room, long checkInDay, long checkOutDay) {
+        RoomGaps gaps = rooms.get(room);
+        if (gaps != null) {
+            refresh(gaps, checkInDay, checkOutDay);
+        }
+    }
+
+    /**
+     * Replaces the indexed stretches of a room that touch the given days with the ones the room has now.
+     * A reservation only changes the stretches that touch its own nights, so refreshing those is enough.
+     * If the room was removed meanwhile, whatever is left of its stretches is dropped from the index.
+     *
+     * @param gaps - the stretches of the room
+     * @param fromDay - the first epoch day
+     * @param toDay - the last epoch day
+     */
+    private void refresh(RoomGaps gaps, long fromDay, long toDay) {
+        GapIndex index = indexes.get(gaps.room.getType());
+        synchronized (gaps) {
+            if (rooms.get(gaps.room) != gaps) {
+                for (Gap gap : gaps.byStart.values()) {
+                    index.remove(gap);
+                }
+                gaps.byStart.clear();
+                return;
+            }
+            List<Gap> stale = new ArrayList<>();
+            for (Gap gap : gaps.byStart.headMap(toDay, true).descendingMap().values()) {
+                if (gap.end < fromDay) {
+                    break;
+                }
+                stale.add(gap);
+            }
+            for (Gap gap : stale) {
+                gaps.byStart.remove(gap.start);
+                index.remove(gap);
+            }
+            long[] current = gaps.room.getFreeGaps(fromDay, toDay);
+            for (int i = 0; i < current.length; i += 2) {
+                Gap gap = new Gap(current[i], current[i + 1], gaps);
+                Gap replaced = gaps.byStart.put(gap.start, gap);
+                if (replaced != null) {
+                    index.remove(replaced);
+                }
+                index.add(gap);
+            }
+        }
+    }
+
+    /**
+     * The RoomGaps class holds the indexed free stretches of one room. Changes to them are made while
+     * holding the object's lock.
+     */
+    private static final class RoomGaps {
+        /**
+         * The room.
+         */
+        private final Room room;
+
+        /**
+         * The position of the room in the order rooms were added, for breaking ties.
+         */
+        private final long order;
+
+        /**
+         * The indexed stretches of the room, keyed by start.
+         */
+        private final TreeMap<Long, Gap> byStart = new TreeMap<>();
+
+        /**
+         * The constructor that creates the stretches of a room, none indexed yet.
+         *
+         * @param room - the room
+         * @param order - the position of the room in the order rooms were added
+         */
+        private RoomGaps(Room room, long order) {
+            this.room = room;
+            this.order = order;
+        }
+    }
+
+    /**
+     * The Gap class is a free stretch of a room, from a check-out to the next check-in.
+     */
+    private static final class Gap {
+        /**
+         * The first free epoch day, or Long.MIN_VALUE if no reservation comes before the stretch.
+         */
+        private final long start;
+
+        /**
+         * The epoch day after the last free one, or Long.MAX_VALUE if no reservation comes after the stretch.
+         */
+        private final long end;
+
+        /**
+         * The stretches of the room the stretch belongs to.
+         */
+        private final RoomGaps owner;
+
+        /**
+         * The constructor that creates a stretch.
+         *
+         * @param start - the first free epoch day
+         * @param end - the epoch day after the last free one
+         * @param owner - the stretches of the room
+         */
+        private Gap(long start, long end, RoomGaps owner) {
+            this.start = start;
+            this.end = end;
+            this.owner = owner;
+        }
+
+        /**
+         * Checks whether the stretch has no reservation before it.
+         *
+         * @return true if the stretch is open at its start
+         */
+        private boolean openStart() {
+            return start == Long.MIN_VALUE;
+        }
+
+        /**
+         * Checks whether the stretch has no reservation after it.
+         *
+         * @return true if the stretch is open at its end
+         */
+        private boolean openEnd() {
+            return end == Long.MAX_VALUE;
+        }
+
+        /**
+         * Counts the free nights the stretch would have left around a stay it holds, the same way
+         * Room.getFreeNightsAround counts them.
+         *
+         * @param checkInDay - the check-in epoch day
+         * @param checkOutDay - the check-out epoch day
+         * @return the free nights left around the stay
+         */
+        private long freeNightsAround(long checkInDay, long checkOutDay) {
+            long before = openStart() ? Room.OPEN_GAP : checkInDay - start;
+            long after = openEnd() ? Room.OPEN_GAP : end - checkOutDay;
+            return before + after;
+        }
+
+        /**
+         * Checks whether a stay fits in the stretch.
+         *
+         * @param checkInDay - the check-in epoch day
+         * @param checkOutDay - the check-out epoch day
+         * @return true if the stretch holds the whole stay
+         */
+        private boolean holds(long checkInDay, long checkOutDay) {
+            return start <= checkInDay && end >= checkOutDay;
+        }
+    }
+
+    /**
+     * The GapIndex class indexes the free stretches of the rooms of one type.
+     */
+    private static final class GapIndex {
+        /**
+         * The stretches closed at both ends, by length class: class k holds the lengths from 2^k up to
+         * but not including 2^(k+1). Epoch days are ints, so no length reaches class 32. Each class is
+         * ordered by start.
+         */
+        private final List<ConcurrentSkipListSet<Gap>> closed = new ArrayList<>(Integer.SIZE);
+
+        /**
+         * The stretches after the last reservation of a room, ordered by start.
+         */
+        private final ConcurrentSkipListSet<Gap> openEnd = new ConcurrentSkipListSet<>(BY_START);
+
+        /**
+         * The stretches before the first reservation of a room, ordered by end.
+         */
+        private final ConcurrentSkipListSet<Gap> openStart = new ConcurrentSkipListSet<>(BY_END);
+
+        /**
+         * The stretches of the rooms with no reservations at all, ordered by room.
+         */
+        private final ConcurrentSkipListSet<Gap> open = new ConcurrentSkipListSet<>(BY_START);
+
+        /**
+         * The constructor that creates an empty index.
+         */
+        private GapIndex() {
+            for (int k = 0; k < Integer.SIZE; k++) {
+                closed.add(new ConcurrentSkipListSet<>(BY_START));
+            }
+        }
+
+        /**
+         * This method finds the set a stretch belongs in.
+         *
+         * @param gap - the stretch
+         * @return the set of the stretch
+         */
+        private ConcurrentSkipListSet<Gap> setOf(Gap gap) {
+            if (gap.openStart()) {
+                return gap.openEnd() ? open : openStart;
+            }
+            if (gap.openEnd()) {
+                return openEnd;
+            }
+            return closed.get(lengthClass(gap.end - gap.start));
+        }
+
+        /**
+         * This method adds a stretch to the index.
+         *
+         * @param gap - the stretch
+         */
+        private void add(Gap gap) {
+            setOf(gap).add(gap);
+        }
+
+        /**
+         * This method removes a stretch from the index.
+         *
+         * @param gap - the stretch
+         */
+        private void remove(Gap gap) {
+            setOf(gap).remove(gap);
+        }
+
+        /**
+         * This method finds the stretch that holds a stay with the fewest free nights left around it.
+         * Stretches closed at both ends always leave fewer nights than open ones, so the open ones are
+         * only looked at when no closed one holds the stay.
+         *
+         * @param checkInDay - the check-in epoch day
+         * @param checkOutDay - the check-out epoch day
+         * @return the best stretch, or null if none holds the stay
+         */
+        private Gap find(long checkInDay, long checkOutDay) {
+            for (int k = lengthClass(checkOutDay - checkInDay); k < Integer.SIZE; k++) {
+                ConcurrentSkipListSet<Gap> lengths = closed.get(k);
+                if (lengths.isEmpty()) {
+                    continue;
+                }
+                long earliestStart = checkInDay - (1L << (k + 1)) + 1;
+                Gap best = null;
+                for (Gap gap : lengths.subSet(probe(earliestStart, FIRST), true, probe(checkInDay, LAST), true)) {
+                    if (gap.holds(checkInDay, checkOutDay) && (best == null || better(gap, best, checkInDay, checkOutDay))) {
+                        best = gap;
+                    }
+                }
+                if (best != null) {
+                    return best;
+                }
+            }
+            Gap best = null;
+            Gap latest = openEnd.floor(probe(checkInDay, LAST));
+            if (latest != null) {
+                best = openEnd.ceiling(probe(latest.start, FIRST));
+            }
+            Gap earliest = openStart.ceiling(probeEnd(checkOutDay, FIRST));
+            if (earliest != null && (best == null || better(earliest, best, checkInDay, checkOutDay))) {
+                best = earliest;
+            }
+            Gap first = open.isEmpty() ? null : open.first();
+            if (first != null && (best == null || better(first, best, checkInDay, checkOutDay))) {
+                best = first;
+            }
+            return best;
+        }
+
+        /**
+         * Checks whether one stretch fits a stay better than another, breaking ties by room order.
+         *
+         * @param gap - the stretch to check
+         * @param other - the stretch to compare with
+         * @param checkInDay - the check-in epoch day
+         * @param checkOutDay - the check-out epoch day
+         * @return true if the stretch fits better
+         */
+        private static boolean better(Gap gap, Gap other, long checkInDay, long checkOutDay) {
+            long left = gap.freeNightsAround(checkInDay, checkOutDay);
+            long right = other.freeNightsAround(checkInDay, checkOutDay);
+            return left < right || (left == right && gap.owner.order < other.owner.order);
+        }
+
+        /**
+         * Creates a stretch to search a set ordered by start with.
+         *
+         * @param start - the start to search for
+         * @param bound - FIRST to sort before the stretches with the same start, LAST to sort after them
+         * @return the probe
+         */
+        private static Gap probe(long start, RoomGaps bound) {
+            return new Gap(start, Long.MAX_VALUE, bound);
+        }
+
+        /**
+         * Creates a stretch to search a set ordered by end with.
+         *
+         * @param end - the end to search for
+         * @param bound - FIRST to sort before the stretches with the same end, LAST to sort after them
+         * @return the probe
+         */
+        private static Gap probeEnd(long end, RoomGaps bound) {
+            return new Gap(Long.MIN_VALUE, end, bound);
+        }
+
+        /**
+         * Finds the length class of a length: the position of its highest set bit.
+         *
+         * @param length - the length, at least 1
+         * @return the length class
+         */
+        private static int lengthClass(long length) {
+            return Long.SIZE - 1 - Long.numberOfLeadingZeros(length);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package hrs;
+
+import java.time.LocalDate;
+
+/**
+ * The BookingRequest class represents one booking in a batch of bookings made together,
+ * such as a group or block reservation.
+ */
+public class BookingRequest {
+    /**
+     * The name of the guest the booking is for.
+     */
+    private String guestName;
+
+    /**
+     * The check-in date of the booking.
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * The check-out date of the booking.
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * The type of room requested.
+     */
+    private Room.RoomType roomType;
+
+    /**
+     * The discount code to be applied, if any.
+     */
+    private String discountCode;
+
+    /**
+     * The constructor that creates a booking request given the booking details.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param roomType - the type of room requested
+     * @param discountCode - the discount code to be applied, if any
+     */
+    public BookingRequest(String guestName, LocalDate checkInDate, LocalDate checkOutDate, Room.RoomType roomType, String discountCode) {
+        this.guestName = guestName;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.roomType = roomType;
+        this.discountCode = discountCode;
+    }
+
+    /**
+     * A getter that gets the name of the guest.
+     *
+     * @return the name of the guest
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * A getter that gets the check-in date of the booking.
+     *
+     * @return the check-in date
+     */
+    public LocalDate getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * A getter that gets the check-out date of the booking.
+     *
+     * @return the check-out date
+     */
+    public LocalDate getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * A getter that gets the type of room requested.
+     *
+     * @return the room type
+     */
+    public Room.RoomType getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * A getter that gets the discount code of the booking.
+     *
+     * @return the discount code, or null if there is none
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+}
@@ -0,0 +1,70 @@
+package hrs;
+
+/**
+ * The BookingResult class represents the outcome of one booking request in a batch.
+ */
+public class BookingResult {
+    /**
+     * The request this result is for.
+     */
+    private BookingRequest request;
+
+    /**
+     * The reservation made for the request, or null if the request was not booked.
+     */
+    private Reservation reservation;
+
+    /**
+     * The message describing the outcome of the request.
+     */
+    private String message;
+
+    /**
+     * The constructor that creates a booking result.
+     *
+     * @param request - the request this result is for
+     * @param reservation - the reservation made, or null if the request was not booked
+     * @param message - the message describing the outcome
+     */
+    public BookingResult(BookingRequest request, Reservation reservation, String message) {
+        this.request = request;
+        this.reservation = reservation;
+        this.message = message;
+    }
+
+    /**
+     * A getter that gets the request this result is for.
+     *
+     * @return the booking request
+     */
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * A getter that gets the reservation made for the request.
+     *
+     * @return the reservation, or null if the request was not booked
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Checks if the request was booked.
+     *
+     * @return true if a reservation was made, false otherwise
+     */
+    public boolean isBooked() {
+        return reservation != null;
+    }
+
+    /**
+     * A getter that gets the message describing the outcome of the request.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,220 @@
+package hrs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The DiscountEngine class holds the discount rules a hotel accepts, keyed by their codes.
+ * Codes can be registered and removed while the hotel takes bookings. Looking up a code is a single
+ * hash table read without any lock, so the number of active codes does not slow down pricing.
+ *
+ * A new engine starts with the standard codes: "STAY4_GET1" makes the first night free on stays of
+ * 5 nights or more, "I_WORK_HERE" takes 10% off, and "PAYDAY" takes 7% off stays that check in on
+ * the 15th or the 30th and check out on another day.
+ *
+ * The engine of a hotel tells the hotel about every change before it takes effect, so the hotel's
+ * HRS listeners can journal it. A listener that throws refuses the change.
+ */
+public class DiscountEngine {
+    /**
+     * The kind of a PercentageDiscount, as it is stored by the journal and snapshots.
+     */
+    static final int PERCENTAGE = 1;
+
+    /**
+     * The kind of a PaydayDiscount, as it is stored by the journal and snapshots.
+     */
+    static final int PAYDAY = 2;
+
+    /**
+     * The kind of a FreeNightDiscount, as it is stored by the journal and snapshots.
+     */
+    static final int FREE_NIGHT = 3;
+
+    /**
+     * The registered rules, keyed by their codes.
+     */
+    private final ConcurrentHashMap<String, DiscountRule> rules;
+
+    /**
+     * The number of changes made to the rules.
+     */
+    private volatile long version;
+
+    /**
+     * The hotel whose rooms use the engine, told of every change, or null if the engine stands alone.
+     */
+    private final Hotel hotel;
+
+    /**
+     * The constructor that creates an engine with the standard discount codes.
+     */
+    public DiscountEngine() {
+        this(null);
+    }
+
+    /**
+     * The constructor that creates an engine with the standard discount codes for a hotel. The standard
+     * codes are not announced to the hotel, since every new engine has them.
+     *
+     * @param hotel - the hotel to tell of changes
+     */
+    DiscountEngine(Hotel hotel) {
+        this.rules = new ConcurrentHashMap<>();
+        for (DiscountRule rule : List.of(new FreeNightDiscount("STAY4_GET1", 5, 1),
+                new PercentageDiscount("I_WORK_HERE", 1_000), new PaydayDiscount("PAYDAY", 700, 15, 30))) {
+            rules.put(rule.getCode(), rule);
+        }
+        this.hotel = hotel;
+    }
+
+    /**
+     * This method registers a rule under its code, replacing any rule that had the same code.
+     * Bookings made afterwards with the code get the new rule.
+     *
+     * @param rule - the rule to register
+     */
+    public synchronized void register(DiscountRule rule) {
+        String code = rule.getCode();
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("Discount code must not be empty.");
+        }
+        if (hotel != null) {
+            hotel.announceDiscountRuleRegistered(rule);
+        }
+        rules.put(code, rule);
+        version++;
+    }
+
+    /**
+     * This method removes the rule of a code, so that bookings made afterwards with the code get no discount.
+     *
+     * @param code - the discount code
+     * @return true if the code had a rule, false otherwise
+     */
+    public synchronized boolean unregister(String code) {
+        if (code == null || !rules.containsKey(code)) {
+            return false;
+        }
+        if (hotel != null) {
+            hotel.announceDiscountRuleRemoved(code);
+        }
+        rules.remove(code);
+        version++;
+        return true;
+    }
+
+    /**
+     * This method finds the rule of a code.
+     *
+     * @param code - the discount code, or null
+     * @return the rule, or null if the code is null or has no rule
+     */
+    public DiscountRule find(String code) {
+        return code == null ? null : rules.get(code);
+    }
+
+    /**
+     * A getter that gets the registered codes, sorted.
+     *
+     * @return the list of codes
+     */
+    public List<String> getCodes() {
+        List<String> codes = new ArrayList<>(rules.keySet());
+        Collections.sort(codes);
+        return codes;
+    }
+
+    /**
+     * A getter that gets the registered rules, sorted by code. It waits for a change being announced
+     * to take effect, so every change announced before the call is in the result.
+     *
+     * @return the list of rules
+     */
+    public synchronized List<DiscountRule> getRules() {
+        List<DiscountRule> registered = new ArrayList<>(rules.values());
+        registered.sort((a, b) -> a.getCode().compareTo(b.getCode()));
+        return registered;
+    }
+
+    /**
+     * This method replaces all the rules without announcing anything, while the hotel is being recovered
+     * from saved state.
+     *
+     * @param restored - the rules to keep
+     */
+    synchronized void restore(List<DiscountRule> restored) {
+        rules.clear();
+        for (DiscountRule rule : restored) {
+            rules.put(rule.getCode(), rule);
+        }
+        version++;
+    }
+
+    /**
+     * Encodes a rule as its kind and two parameters, the way the journal and snapshots store it: the
+     * discount in basis points and a bit mask of the paydays for a percentage or payday discount, and the
+     * minimum and free nights for a free night discount.
+     *
+     * @param rule - the rule
+     * @return the kind of the rule followed by its two parameters
+     * @throws IllegalArgumentException if the rule is not one of the standard kinds
+     */
+    static int[] encode(DiscountRule rule) {
+        if (rule instanceof PaydayDiscount) {
+            int mask = 0;
+            for (int day : ((PaydayDiscount) rule).getPaydays()) {
+                mask |= 1 << day;
+            }
+            return new int[] {PAYDAY, ((PaydayDiscount) rule).getBasisPoints(), mask};
+        }
+        if (rule instanceof PercentageDiscount) {
+            return new int[] {PERCENTAGE, ((PercentageDiscount) rule).getBasisPoints(), 0};
+        }
+        if (rule instanceof FreeNightDiscount) {
+            return new int[] {FREE_NIGHT, ((FreeNightDiscount) rule).getMinimumNights(), ((FreeNightDiscount) rule).getFreeNights()};
+        }
+        throw new IllegalArgumentException("Discount rule " + rule.getCode() + " is not of a kind that can be saved.");
+    }
+
+    /**
+     * Rebuilds a rule encoded by encode.
+     *
+     * @param code - the discount code
+     * @param kind - the kind of the rule
+     * @param first - the first parameter
+     * @param second - the second parameter
+     * @return the rule
+     * @throws IllegalArgumentException if the kind is unknown or the parameters are out of range
+     */
+    static DiscountRule decode(String code, int kind, int first, int second) {
+        switch (kind) {
+            case PERCENTAGE:
+                return new PercentageDiscount(code, first);
+            case PAYDAY: {
+                int[] paydays = new int[Integer.bitCount(second)];
+                for (int day = 1, i = 0; day <= 31; day++) {
+                    if ((second & (1 << day)) != 0) {
+                        paydays[i++] = day;
+                    }
+                }
+                return new PaydayDiscount(code, first, paydays);
+            }
+            case FREE_NIGHT:
+                return new FreeNightDiscount(code, first, second);
+            default:
+                throw new IllegalArgumentException("Unknown discount rule kind " + kind + ".");
+        }
+    }
+
+    /**
+     * A getter that gets the version of the engine, which changes every time a rule is registered or removed.
+     *
+     * @return the version of the engine
+     */
+    public long getVersion() {
+        return version;
+    }
+}
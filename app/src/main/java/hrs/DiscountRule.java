@@ -0,0 +1,39 @@
+package hrs;
+
+/**
+ * The DiscountRule interface is a discount that a guest can get with a code when booking.
+ * A rule can change the prices of single nights, the total after the nights are added up, or both.
+ * Rules are registered with a hotel's DiscountEngine and must not change once registered, since
+ * every booking with the code uses the same rule object.
+ */
+public interface DiscountRule {
+    /**
+     * A getter that gets the code that guests enter to get the discount.
+     *
+     * @return the discount code
+     */
+    String getCode();
+
+    /**
+     * This method changes the prices of the nights of a stay in place. It runs once per booking, right
+     * after the nights are priced. The default leaves the nights as they are.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param nightlyCents - the price of each night in cents, starting from the check-in night
+     */
+    default void applyToNights(int checkInDay, long[] nightlyCents) {
+    }
+
+    /**
+     * This method discounts the total of a stay, after the nights are added up.
+     * The default leaves the total as it is.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param totalCents - the total of the nights in cents
+     * @return the discounted total in cents
+     */
+    default long applyToTotal(int checkInDay, int checkOutDay, long totalCents) {
+        return totalCents;
+    }
+}
@@ -0,0 +1,249 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The EarningsLedger class keeps the running earnings of a hotel per night and per room type, so that
+ * the earnings of any range of dates can be read without going through the reservations.
+ *
+ * Each reservation is split into its nights: the total price after discounts is shared out in proportion
+ * to the nightly prices, and each night's share is added to the day it falls on. A stay that crosses
+ * the end of a month is therefore shared between both months.
+ *
+ * Days are grouped into segments of 384 days, allocated only for periods that have bookings. Each
+ * segment keeps the prefix sums of its days in a Fenwick tree that every change updates in place, so
+ * a change costs about nine additions per night, and a range of dates costs two prefix lookups of about
+ * nine additions each, plus one for every segment in between.
+ *
+ * Amounts are kept in whole cents. A reservation is always added and removed with the same nightly
+ * amounts, so cancelling every booking brings every day back to exactly zero.
+ */
+public class EarningsLedger {
+    /**
+     * The number of days covered by one segment.
+     */
+    private static final int DAYS_PER_SEGMENT = 384;
+
+    /**
+     * The row of a segment holding the earnings of all room types together; the rows before it hold
+     * the earnings of each room type, indexed by the type's ordinal.
+     */
+    private static final int ALL_TYPES = Room.RoomType.values().length;
+
+    /**
+     * The allocated segments, keyed by segment number (epoch day divided by the segment length).
+     */
+    private ConcurrentHashMap<Long, Segment> segments;
+
+    /**
+     * The Segment class holds the earnings of 384 consecutive days.
+     */
+    private static final class Segment {
+        /**
+         * The earnings in cents of the days as a Fenwick tree, one row per room type plus one for all
+         * types. Entry i of a row holds the earnings of the days from i - (i & -i) up to, but not
+         * including, i; entry 0 is unused.
+         */
+        private final long[][] tree = new long[ALL_TYPES + 1][DAYS_PER_SEGMENT + 1];
+
+        /**
+         * Adds an amount to a day, updating the prefix sums that include it.
+         *
+         * @param day - the day within the segment
+         * @param type - the room type
+         * @param cents - the amount in cents, negative to take it away
+         */
+        synchronized void add(int day, Room.RoomType type, long cents) {
+            for (int i = day + 1; i <= DAYS_PER_SEGMENT; i += i & -i) {
+                tree[type.ordinal()][i] += cents;
+                tree[ALL_TYPES][i] += cents;
+            }
+        }
+
+        /**
+         * Gets the earnings of a range of days in the segment.
+         *
+         * @param row - the room type ordinal, or ALL_TYPES
+         * @param from - the first day within the segment
+         * @param to - the day after the last day, within the segment or equal to its length
+         * @return the earnings in cents
+         */
+        synchronized long sum(int row, int from, int to) {
+            return prefix(row, to) - prefix(row, from);
+        }
+
+        /**
+         * Gets the earnings of the days of the segment before a day.
+         *
+         * @param row - the room type ordinal, or ALL_TYPES
+         * @param to - the day after the last day, within the segment or equal to its length
+         * @return the earnings in cents
+         */
+        private long prefix(int row, int to) {
+            long cents = 0;
+            for (int i = to; i > 0; i -= i & -i) {
+                cents += tree[row][i];
+            }
+            return cents;
+        }
+    }
+
+    /**
+     * The constructor that creates an empty ledger.
+     */
+    public EarningsLedger() {
+        this.segments = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * This method adds the nights of a reservation to the days they fall on.
+     *
+     * @param reservation - the reservation that was booked
+     */
+    public void record(Reservation reservation) {
+        post(reservation, 1);
+    }
+
+    /**
+     * This method takes the nights of a cancelled reservation back out of the days they fall on.
+     *
+     * @param reservation - the reservation that was cancelled
+     */
+    public void remove(Reservation reservation) {
+        post(reservation, -1);
+    }
+
+    /**
+     * A getter that gets the earnings of a month over all room types.
+     *
+     * @param month - the month
+     * @return the earnings of the nights in the month
+     */
+    public double getEarnings(YearMonth month) {
+        return getEarnings(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * A getter that gets the earnings of a month for one room type.
+     *
+     * @param month - the month
+     * @param type - the room type
+     * @return the earnings of the room type for the nights in the month
+     */
+    public double getEarnings(YearMonth month, Room.RoomType type) {
+        return getEarnings(month.atDay(1), month.atEndOfMonth(), type);
+    }
+
+    /**
+     * A getter that gets the earnings of a range of nights over all room types.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @return the earnings of the nights in the range
+     */
+    public double getEarnings(LocalDate from, LocalDate to) {
+        return Money.toAmount(getEarningsCents(from, to));
+    }
+
+    /**
+     * A getter that gets the earnings of a range of nights for one room type.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @param type - the room type
+     * @return the earnings of the room type for the nights in the range
+     */
+    public double getEarnings(LocalDate from, LocalDate to, Room.RoomType type) {
+        return Money.toAmount(getEarningsCents(from, to, type));
+    }
+
+    /**
+     * A getter that gets the exact earnings in cents of a range of nights over all room types.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @return the earnings of the nights in the range, in cents
+     */
+    public long getEarningsCents(LocalDate from, LocalDate to) {
+        return sum(ALL_TYPES, from.toEpochDay(), to.toEpochDay() + 1);
+    }
+
+    /**
+     * A getter that gets the exact earnings in cents of a range of nights for one room type.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @param type - the room type
+     * @return the earnings of the room type for the nights in the range, in cents
+     */
+    public long getEarningsCents(LocalDate from, LocalDate to, Room.RoomType type) {
+        return sum(type.ordinal(), from.toEpochDay(), to.toEpochDay() + 1);
+    }
+
+    /**
+     * Adds or takes away the nightly amounts of a reservation. The amounts are the nightly prices split
+     * from the total price, so that they add up to exactly the total in cents.
+     *
+     * @param reservation - the reservation
+     * @param sign - 1 to add the reservation, -1 to take it away
+     */
+    private void post(Reservation reservation, int sign) {
+        post(reservation.getRoom().getType(), reservation.getCheckInDay(), reservation.allocateNights(), sign);
+    }
+
+    /**
+     * This method adds the nights of a stay given by the share of the total of each night, such as an
+     * archived reservation whose nights are priced in one go.
+     *
+     * @param type - the room type
+     * @param firstDay - the epoch day of the first night
+     * @param shares - the share of the total of each night, in cents
+     */
+    void record(Room.RoomType type, long firstDay, long[] shares) {
+        post(type, firstDay, shares, 1);
+    }
+
+    /**
+     * Adds or takes away the nightly amounts of a stay.
+     *
+     * @param type - the room type
+     * @param firstDay - the epoch day of the first night
+     * @param shares - the share of the total of each night, in cents
+     * @param sign - 1 to add the stay, -1 to take it away
+     */
+    private void post(Room.RoomType type, long firstDay, long[] shares, int sign) {
+        for (int night = 0; night < shares.length; night++) {
+            long cents = shares[night];
+            if (cents != 0) {
+                long day = firstDay + night;
+                segments.computeIfAbsent(Math.floorDiv(day, DAYS_PER_SEGMENT), number -> new Segment())
+                        .add(Math.floorMod(day, DAYS_PER_SEGMENT), type, sign * cents);
+            }
+        }
+    }
+
+    /**
+     * Sums the earnings of a row over a range of epoch days.
+     *
+     * @param row - the room type ordinal, or ALL_TYPES
+     * @param from - the first epoch day
+     * @param to - the epoch day after the last one
+     * @return the earnings in cents
+     */
+    private long sum(int row, long from, long to) {
+        long cents = 0;
+        while (from < to) {
+            long number = Math.floorDiv(from, DAYS_PER_SEGMENT);
+            long segmentStart = number * DAYS_PER_SEGMENT;
+            long end = Math.min(to, segmentStart + DAYS_PER_SEGMENT);
+            Segment segment = segments.get(number);
+            if (segment != null) {
+                cents += segment.sum(row, (int) (from - segmentStart), (int) (end - segmentStart));
+            }
+            from = end;
+        }
+        return cents;
+    }
+}
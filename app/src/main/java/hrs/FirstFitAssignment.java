@@ -0,0 +1,27 @@
+package hrs;
+
+import java.util.Collection;
+
+/**
+ * The FirstFitAssignment class gives a booking the first free room in the order the rooms were added.
+ * It is the default strategy of a hotel.
+ */
+public class FirstFitAssignment implements RoomAssignmentStrategy {
+    /**
+     * Picks the first room that is free for the whole stay.
+     *
+     * @param roomType - the requested room type
+     * @param rooms - the rooms of the requested type, in the order they were added to the hotel
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the first free room, or null if none of the rooms is free
+     */
+    public Room choose(Room.RoomType roomType, Collection<Room> rooms, long checkInDay, long checkOutDay) {
+        for (Room room : rooms) {
+            if (room.getFreeNightsAround(checkInDay, checkOutDay) >= 0) {
+                return room;
+            }
+        }
+        return null;
+    }
+}
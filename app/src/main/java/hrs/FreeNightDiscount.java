@@ -0,0 +1,83 @@
+package hrs;
+
+/**
+ * The FreeNightDiscount class is a discount rule that makes the first nights of a long enough stay free,
+ * such as "STAY4_GET1" for the first night free on stays of 5 nights or more.
+ */
+public class FreeNightDiscount implements DiscountRule {
+    /**
+     * The discount code.
+     */
+    private final String code;
+
+    /**
+     * The number of nights a stay needs for the discount to apply.
+     */
+    private final int minimumNights;
+
+    /**
+     * The number of nights that are free, starting from the check-in night.
+     */
+    private final int freeNights;
+
+    /**
+     * The constructor that creates a free night discount.
+     *
+     * @param code - the discount code
+     * @param minimumNights - the number of nights a stay needs for the discount to apply
+     * @param freeNights - the number of nights that are free, fewer than the minimum
+     * @throws IllegalArgumentException if the code is empty or the nights are out of range
+     */
+    public FreeNightDiscount(String code, int minimumNights, int freeNights) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("Discount code must not be empty.");
+        }
+        if (freeNights < 1 || freeNights >= minimumNights) {
+            throw new IllegalArgumentException("Free nights must be at least 1 and fewer than the minimum stay.");
+        }
+        this.code = code;
+        this.minimumNights = minimumNights;
+        this.freeNights = freeNights;
+    }
+
+    /**
+     * A getter that gets the discount code.
+     *
+     * @return the discount code
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * A getter that gets the number of nights a stay needs for the discount to apply.
+     *
+     * @return the minimum number of nights
+     */
+    public int getMinimumNights() {
+        return minimumNights;
+    }
+
+    /**
+     * A getter that gets the number of nights that are free, starting from the check-in night.
+     *
+     * @return the number of free nights
+     */
+    public int getFreeNights() {
+        return freeNights;
+    }
+
+    /**
+     * Makes the first nights free if the stay is long enough.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param nightlyCents - the price of each night in cents, starting from the check-in night
+     */
+    public void applyToNights(int checkInDay, long[] nightlyCents) {
+        if (nightlyCents.length >= minimumNights) {
+            for (int night = 0; night < freeNights; night++) {
+                nightlyCents[night] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *  The HRS class, short for Hotel Reservation System, manages a list of Hotels.
+ *  Creation, Management, Viewing, and Booking of Hotels happen in this class.
+ *  The HRS never talks to the user: it reports outcomes through return values and exceptions, and
+ *  announces its changes to the HRSListeners registered with it.
+ *  
+ */
+public class HRS {
+    /**
+     * The number of hotels an availability search checks in one task before it stops splitting the work.
+     */
+    private static final int SEARCH_BATCH = 8;
+
+    /**
+     * The list of hotels managed by the HRS, in the order they were created.
+     */
+    private List<Hotel> hotels;
+
+    /**
+     * The index of the hotels by name, used for lookups.
+     */
+    private ConcurrentHashMap<String, Hotel> hotelsByName;
+
+    /**
+     * The listeners that are notified of changes to the hotels.
+     */
+    private List<HRSListener> listeners;
+
+
+    /**
+     *  This is a constructor for the HRS class which initializes the list of hotels.
+     */
+    public HRS() {
+        this.hotels = new CopyOnWriteArrayList<>(); // Initialize list of hotels
+        this.hotelsByName = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * This method registers a listener to be notified of changes to the hotels.
+     *
+     * @param listener - the listener to add
+     */
+    public void addListener(HRSListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * This method unregisters a listener.
+     *
+     * @param listener - the listener to remove
+     */
+    public void removeListener(HRSListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Creates a new hotel with the specified parameters and adds it to the list of hotels.
+     * 
+     * @param name the name of the new hotel
+     * @param standardRoomCount the number of standard rooms in the hotel
+     * @param deluxeRoomCount the number of deluxe rooms in the hotel
+     * @param executiveRoomCount the number of executive rooms in the hotel
+     * @return the new hotel
+     * @throws IllegalArgumentException if the total room count is not between 1 and 50, or the name is taken
+     */
+    public synchronized Hotel createHotel(String name, int standardRoomCount, int deluxeRoomCount, int executiveRoomCount) {
+        int totalRoomCount = standardRoomCount + deluxeRoomCount + executiveRoomCount;
+        if (totalRoomCount < 1 || totalRoomCount > 50) {
+            throw new IllegalArgumentException("Total room count must be between 1 and 50.");
+        }
+        if (isHotelNameTaken(name)) {
+            throw new IllegalArgumentException("A hotel with this name already exists.");
+        }
+        Hotel newHotel = new Hotel(name, standardRoomCount, deluxeRoomCount, executiveRoomCount, this);
+        for (HRSListener listener : listeners) {
+            listener.hotelCreated(newHotel);
+        }
+        hotelsByName.put(name, newHotel);
+        hotels.add(newHotel);
+        return newHotel;
+    }
+
+    /**
+     * This method adds an empty hotel while the system is being recovered from saved state. It skips the
+     * checks of createHotel and does not notify the listeners; the rooms are restored afterwards.
+     *
+     * @param name - the name of the hotel
+     * @param basePrice - the base price of the hotel
+     * @return the new hotel
+     */
+    synchronized Hotel restoreHotel(String name, double basePrice) {
+        Hotel hotel = new Hotel(name, 0, 0, 0, this);
+        hotel.restoreBasePrice(basePrice);
+        hotelsByName.put(name, hotel);
+        hotels.add(hotel);
+        return hotel;
+    }
+
+    /**
+     * A getter that gets the hotels in the system, in the order they were created.
+     *
+     * @return an unmodifiable snapshot of the hotels
+     */
+    public List<Hotel> getHotels() {
+        return List.copyOf(hotels);
+    }
+
+    /**
+     * This method searches every hotel for free rooms for a stay, without booking anything.
+     * The hotels are checked in parallel on the common fork-join pool. A hotel matches if it has a free
+     * room of the searched type, or of any type if no type is given. Matches are ranked by their lowest
+     * quoted price, then by the number of free rooms, then by name, and one page of them is returned.
+     *
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param roomType - the room type to search for, or null for any type
+     * @param discountCode - an optional discount code for the quotes
+     * @param page - the page to return, starting from 0
+     * @param pageSize - the number of hotels per page
+     * @return the page of matching hotels
+     * @throws IllegalArgumentException if the check-out date is not after the check-in date, or the page is out of range
+     */
+    public AvailabilityPage searchAvailability(LocalDate checkInDate, LocalDate checkOutDate, Room.RoomType roomType, String discountCode, int page, int pageSize) {
+        if (!checkOutDate.isAfter(checkInDate)) {
+            throw new IllegalArgumentException("Invalid date range. Check-out date must be after check-in date.");
+        }
+        if (page < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page must be at least 0 and page size at least 1.");
+        }
+        Hotel[] snapshot = hotels.toArray(new Hotel[0]);
+        int limit = (int) Math.min(Integer.MAX_VALUE, (long) (page + 1) * pageSize);
+        Matches matches = ForkJoinPool.commonPool().invoke(
+                new AvailabilitySearch(snapshot, 0, snapshot.length, checkInDate, checkOutDate, roomType, discountCode, limit));
+        int from = Math.min(matches.ranked.size(), page * pageSize);
+        return new AvailabilityPage(new ArrayList<>(matches.ranked.subList(from, matches.ranked.size())), matches.count, page, pageSize);
+    }
+
+    /**
+     * The Matches class holds the best ranked matches of part of an availability search and how many hotels matched in it.
+     */
+    private static final class Matches {
+        /**
+         * The best matches in ranking order, no more than the search needs.
+         */
+        private final List<HotelAvailability> ranked;
+        /**
+         * The number of hotels that matched.
+         */
+        private final int count;
+
+        /**
+         * The constructor that creates the matches of part of a search.
+         *
+         * @param ranked - the best matches in ranking order
+         * @param count - the number of hotels that matched
+         */
+        private Matches(List<HotelAvailability> ranked, int count) {
+            this.ranked = ranked;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The AvailabilitySearch class checks a range of hotels, splitting it in halves until each task
+     * has only a few hotels. Each task keeps only as many matches as the requested page needs, so
+     * merging the halves stays cheap however many hotels match.
+     */
+    private static final class AvailabilitySearch extends RecursiveTask<Matches> {
+        /**
+         * The hotels being searched.
+         */
+        private final Hotel[] hotels;
+        /**
+         * The first hotel of this task.
+         */
+        private final int from;
+        /**
+         * The hotel after the last one of this task.
+         */
+        private final int to;
+        /**
+         * The check-in date.
+         */
+        private final LocalDate checkInDate;
+        /**
+         * The check-out date.
+         */
+        private final LocalDate checkOutDate;
+        /**
+         * The room type searched for, or null for any type.
+         */
+        private final Room.RoomType roomType;
+        /**
+         * The discount code for the quotes, or null.
+         */
+        private final String discountCode;
+        /**
+         * The number of best matches to keep.
+         */
+        private final int limit;
+
+        /**
+         * The constructor that creates a search of a range of hotels.
+         *
+         * @param hotels - the hotels being searched
+         * @param from - the first hotel of the task
+         * @param to - the hotel after the last one of the task
+         * @param checkInDate - the check-in date
+         * @param checkOutDate - the check-out date
+         * @param roomType - the room type, or null for any type
+         * @param discountCode - the discount code, or null
+         * @param limit - the number of best matches to keep
+         */
+        private AvailabilitySearch(Hotel[] hotels, int from, int to, LocalDate checkInDate, LocalDate checkOutDate, Room.RoomType roomType, String discountCode, int limit) {
+            this.hotels = hotels;
+            this.from = from;
+            this.to = to;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.roomType = roomType;
+            this.discountCode = discountCode;
+            this.limit = limit;
+        }
+
+        /**
+         * Checks the hotels of the task, or splits them between two tasks and merges their matches.
+         *
+         * @return the best matches of the task's hotels
+         */
+        protected Matches compute() {
+            if (to - from <= SEARCH_BATCH) {
+                List<HotelAvailability> ranked = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    HotelAvailability availability = hotels[i].checkAvailability(roomType, checkInDate, checkOutDate, discountCode);
+                    if (availability.getAvailableRooms() > 0) {
+                        ranked.add(availability);
+                    }
+                }
+                int count = ranked.size();
+                Collections.sort(ranked, HotelAvailability.RANKING);
+                return new Matches(ranked.size() > limit ? ranked.subList(0, limit) : ranked, count);
+            }
+            int middle = (from + to) >>> 1;
+            AvailabilitySearch left = new AvailabilitySearch(hotels, from, middle, checkInDate, checkOutDate, roomType, discountCode, limit);
+            AvailabilitySearch right = new AvailabilitySearch(hotels, middle, to, checkInDate, checkOutDate, roomType, discountCode, limit);
+            left.fork();
+            Matches second = right.compute();
+            Matches first = left.join();
+            return merge(first, second);
+        }
+
+        /**
+         * Merges the ranked matches of two tasks, keeping the best ones.
+         *
+         * @param first - the matches of one task
+         * @param second - the matches of the other task
+         * @return the best matches of both
+         */
+        private Matches merge(Matches first, Matches second) {
+            List<HotelAvailability> ranked = new ArrayList<>(Math.min(limit, first.ranked.size() + second.ranked.size()));
+            int i = 0;
+            int j = 0;
+            while (ranked.size() < limit && (i < first.ranked.size() || j < second.ranked.size())) {
+                if (j == second.ranked.size()
+                        || (i < first.ranked.size() && HotelAvailability.RANKING.compare(first.ranked.get(i), second.ranked.get(j)) <= 0)) {
+                    ranked.add(first.ranked.get(i++));
+                } else {
+                    ranked.add(second.ranked.get(j++));
+                }
+            }
+            return new Matches(ranked, first.count + second.count);
+        }
+    }
+
+    /**
+     * This method checks if the name of the hotel already exists as it has to be unique
+     * 
+     * @param name - the name of hotel to be checked
+     * @return true if the name is indeed taken, false if not
+     */
+    public boolean isHotelNameTaken(String name) {
+        return hotelsByName.containsKey(name);
+    }
+
+    /**
+     * This method moves a hotel to a new name in the index, for Hotel.setName. The new name is claimed
+     * before the old one is released, so the hotel can always be found under one of its names.
+     * 
+     * @param hotel - the hotel being renamed
+     * @param newName - the new name of the hotel
+     * @return true if the hotel was renamed, false if the new name is already taken
+     */
+    synchronized boolean renameHotel(Hotel hotel, String newName) {
+        if (hotelsByName.putIfAbsent(newName, hotel) != null) {
+            return false;
+        }
+        hotelsByName.remove(hotel.getName(), hotel);
+        return true;
+    }
+
+    /**
+     * This method notifies the listeners that a hotel was renamed. It is called by the hotel once its
+     * new name is set.
+     *
+     * @param hotel - the renamed hotel
+     * @param oldName - the name the hotel had before
+     */
+    void fireHotelRenamed(Hotel hotel, String oldName) {
+        for (HRSListener listener : listeners) {
+            listener.hotelRenamed(hotel, oldName);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a room was added to a hotel.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the new room
+     */
+    void fireRoomAdded(Hotel hotel, Room room) {
+        for (HRSListener listener : listeners) {
+            listener.roomAdded(hotel, room);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a room was removed from a hotel.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the removed room
+     */
+    void fireRoomRemoved(Hotel hotel, Room room) {
+        for (HRSListener listener : listeners) {
+            listener.roomRemoved(hotel, room);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that the base price of a hotel changed.
+     *
+     * @param hotel - the hotel with the new base price
+     */
+    void fireBasePriceChanged(Hotel hotel) {
+        for (HRSListener listener : listeners) {
+            listener.basePriceChanged(hotel);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a day of month multiplier of a hotel is about to change.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param dayOfMonth - the day of the month
+     * @param multiplier - the new multiplier
+     */
+    void fireDayOfMonthMultiplierChanged(Hotel hotel, int dayOfMonth, double multiplier) {
+        for (HRSListener listener : listeners) {
+            listener.dayOfMonthMultiplierChanged(hotel, dayOfMonth, multiplier);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that multipliers for specific nights are about to be loaded
+     * into the rate calendar of a hotel.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param multipliers - the multipliers keyed by the date of the night
+     */
+    void fireMultipliersLoaded(Hotel hotel, Map<LocalDate, Double> multipliers) {
+        for (HRSListener listener : listeners) {
+            listener.multipliersLoaded(hotel, multipliers);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that the override of a night is about to be removed from the
+     * rate calendar of a hotel.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param date - the date of the night
+     */
+    void fireMultiplierCleared(Hotel hotel, LocalDate date) {
+        for (HRSListener listener : listeners) {
+            listener.multiplierCleared(hotel, date);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a discount rule is about to be registered with a hotel.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param rule - the rule
+     */
+    void fireDiscountRuleRegistered(Hotel hotel, DiscountRule rule) {
+        for (HRSListener listener : listeners) {
+            listener.discountRuleRegistered(hotel, rule);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that the rule of a discount code is about to be removed from a hotel.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param code - the discount code
+     */
+    void fireDiscountRuleRemoved(Hotel hotel, String code) {
+        for (HRSListener listener : listeners) {
+            listener.discountRuleRemoved(hotel, code);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a room was booked.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the new reservation
+     * @param bookingNumber - the booking number of the reservation
+     */
+    void fireReservationBooked(Hotel hotel, Reservation reservation, long bookingNumber) {
+        for (HRSListener listener : listeners) {
+            listener.reservationBooked(hotel, reservation, bookingNumber);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a reservation was cancelled.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the cancelled reservation
+     */
+    void fireReservationCancelled(Hotel hotel, Reservation reservation) {
+        for (HRSListener listener : listeners) {
+            listener.reservationCancelled(hotel, reservation);
+        }
+    }
+
+    /**
+     * This method notifies the listeners that a reservation was moved to its hotel's archive.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the archived reservation
+     */
+    void fireReservationArchived(Hotel hotel, Reservation reservation) {
+        for (HRSListener listener : listeners) {
+            listener.reservationArchived(hotel, reservation);
+        }
+    }
+
+    /**
+     * Removes a hotel with the specified name from the list of hotels. The hotel is checked for
+     * reservations and marked removed in one step that bookings also honour, so a booking cannot land
+     * in it while it is being removed.
+     * 
+     * @param name the name of the hotel to remove
+     * @return the removed hotel
+     * @throws IllegalArgumentException if no hotel has the given name
+     * @throws IllegalStateException if the hotel has existing reservations
+     */
+    public synchronized Hotel removeHotel(String name) {
+        Hotel hotel = hotelsByName.get(name);
+        if (hotel == null) {
+            throw new IllegalArgumentException("No hotel found with the given name.");
+        }
+        if (!hotel.markRemoved()) {
+            throw new IllegalStateException("Cannot remove hotel. It has existing reservations.");
+        }
+        hotelsByName.remove(name, hotel);
+        hotels.remove(hotel);
+        for (HRSListener listener : listeners) {
+            listener.hotelRemoved(hotel);
+        }
+        return hotel;
+    }
+
+    /**
+     * Finds and returns a hotel with the specified name from the list of hotels.
+     * 
+     * @param name the name of the hotel to find
+     * @return the hotel with the given name, or null if no such hotel exists
+     */
+    public Hotel findHotelByName(String name) {
+        return hotelsByName.get(name);
+    }
+
+    /**
+     * Returns an array of names of all the hotels in the system.
+     * 
+     * @return an array of hotel names, or an empty array if no hotels exist
+     */
+    public String[] getHotelNames() {
+        Hotel[] snapshot = hotels.toArray(new Hotel[0]);
+        String[] names = new String[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            names[i] = snapshot[i].getName();
+        }
+        return names;
+    }
+}
\ No newline at end of file
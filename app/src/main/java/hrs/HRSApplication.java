@@ -0,0 +1,36 @@
+package hrs;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The HRSApplication class is where the Hotel Reservation System will start.
+ * This class is the one who initiates the model, view, and controller of the system.
+ * The model is recovered from and journaled to the directory named by the "hrs.data" system property,
+ * "hrs-data" by default.
+ */
+public class HRSApplication {
+    /**
+     * The main method that will initialize the HRS program. It recovers the model from its journal,
+     * creates the MV and sets it to be visible.
+     * 
+     * @param args - default parameter
+     * @throws IOException if the journal cannot be opened
+     */    
+    public static void main(String[] args) throws IOException {
+        HRS model = new HRS();
+        ReservationJournal journal = ReservationJournal.open(Paths.get(System.getProperty("hrs.data", "hrs-data")), model);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the journal: " + e.getMessage());
+            }
+        }));
+        MainView view = new MainView();
+        new HRSController(model, view);
+        view.updateHotelList(model.getHotelNames());
+        view.setVisible(true);
+        
+    }
+}
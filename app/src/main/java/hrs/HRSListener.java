@@ -0,0 +1,147 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * The HRSListener interface is notified of the changes made to the hotels of an HRS. The model reports
+ * its outcomes through return values and exceptions and never shows anything itself, so a user interface
+ * subscribes to these events to keep its view up to date.
+ *
+ * Listeners are called on the thread that made the change and should return quickly. Each event is
+ * delivered before anything that depends on it can happen: a hotel or room is announced before it can
+ * be looked up, a booking before it can be cancelled, and a cancellation before its room is freed.
+ * Events for one hotel therefore arrive in an order that can be replayed. All methods do nothing by default.
+ */
+public interface HRSListener {
+
+    /**
+     * This method is called when a hotel was created, just before it is added to the system.
+     *
+     * @param hotel - the new hotel
+     */
+    default void hotelCreated(Hotel hotel) {
+    }
+
+    /**
+     * This method is called after a hotel was renamed.
+     *
+     * @param hotel - the renamed hotel
+     * @param oldName - the name the hotel had before
+     */
+    default void hotelRenamed(Hotel hotel, String oldName) {
+    }
+
+    /**
+     * This method is called after a hotel was removed.
+     *
+     * @param hotel - the removed hotel
+     */
+    default void hotelRemoved(Hotel hotel) {
+    }
+
+    /**
+     * This method is called when a room was added to a hotel, just before it can be booked.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the new room
+     */
+    default void roomAdded(Hotel hotel, Room room) {
+    }
+
+    /**
+     * This method is called after a room was removed from a hotel.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the removed room
+     */
+    default void roomRemoved(Hotel hotel, Room room) {
+    }
+
+    /**
+     * This method is called after the base price of a hotel was changed.
+     *
+     * @param hotel - the hotel with the new base price
+     */
+    default void basePriceChanged(Hotel hotel) {
+    }
+
+    /**
+     * This method is called when a day of month multiplier of a hotel's rate calendar is about to change.
+     * If it throws, the multiplier is not changed.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param dayOfMonth - the day of the month, from 1 to 31
+     * @param multiplier - the new multiplier
+     */
+    default void dayOfMonthMultiplierChanged(Hotel hotel, int dayOfMonth, double multiplier) {
+    }
+
+    /**
+     * This method is called when multipliers for specific nights are about to be loaded into a hotel's
+     * rate calendar. If it throws, none of them are loaded.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param multipliers - the multipliers keyed by the date of the night
+     */
+    default void multipliersLoaded(Hotel hotel, Map<LocalDate, Double> multipliers) {
+    }
+
+    /**
+     * This method is called when the override of a night is about to be removed from a hotel's rate
+     * calendar. If it throws, the override stays.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param date - the date of the night
+     */
+    default void multiplierCleared(Hotel hotel, LocalDate date) {
+    }
+
+    /**
+     * This method is called when a discount rule is about to be registered with a hotel, replacing any
+     * rule with the same code. If it throws, the rule is not registered.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param rule - the rule
+     */
+    default void discountRuleRegistered(Hotel hotel, DiscountRule rule) {
+    }
+
+    /**
+     * This method is called when the rule of a discount code is about to be removed from a hotel.
+     * If it throws, the rule stays.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param code - the discount code
+     */
+    default void discountRuleRemoved(Hotel hotel, String code) {
+    }
+
+    /**
+     * This method is called when a room was booked, before the reservation can be found or cancelled.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the new reservation
+     * @param bookingNumber - the booking number the hotel gave the reservation
+     */
+    default void reservationBooked(Hotel hotel, Reservation reservation, long bookingNumber) {
+    }
+
+    /**
+     * This method is called when a reservation was cancelled, before its room is freed.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the cancelled reservation
+     */
+    default void reservationCancelled(Hotel hotel, Reservation reservation) {
+    }
+
+    /**
+     * This method is called when a reservation was moved to the hotel's archive, before its room is freed.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the live reservation that was archived
+     */
+    default void reservationArchived(Hotel hotel, Reservation reservation) {
+    }
+}
@@ -0,0 +1,1173 @@
+package hrs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The HRSSnapshot class is a compact, versioned binary image of the hotels, rooms and reservations of an
+ * HRS. The file is laid out in sections of fixed-width records:
+ * <pre>
+ * header        magic, version, counts, file length                     64 bytes
+ * string table  offset of each string, then their UTF-8 bytes           8 bytes per string + text
+ * hotels        id, name, base price, next room number, rooms,          48 bytes per hotel
+ *               rate overrides, discount rules
+ * day rates     multiplier of each day of the month                     248 bytes per hotel
+ * overrides     epoch day, multiplier                                   16 bytes per night
+ * rules         code, kind, two parameters                              16 bytes per discount rule
+ * rooms         name, type, reservations                                16 bytes per room
+ * reservations  one column each for booking number, total in cents,     36 bytes per reservation
+ *               guest, check-in, check-out, discount code and first
+ *               night, then the price in cents of every night           + 8 bytes per night
+ * </pre>
+ * Every name and discount code is stored once in the string table and referred to by its index, and
+ * dates are stored as epoch days. The reservations of a room are contiguous and sorted by check-in date,
+ * and the rooms of a hotel are contiguous, so a room or hotel is just a range of rows. The same goes for
+ * the rate overrides of a hotel, sorted by night, and its discount rules, sorted by code.
+ *
+ * Reservations keep the nightly prices and total they were charged, in cents, so restoring them prices
+ * nothing, and the rate calendar and discount rules are restored to price later bookings the same way.
+ *
+ * A snapshot is opened by mapping each section into memory, which takes the same time however large the
+ * snapshot is. The getters read straight from the mapped file, so a snapshot can answer lookups and
+ * availability checks before, or instead of, being turned back into objects with restoreInto.
+ * Hotels, rooms and reservations are identified by their row index.
+ */
+public class HRSSnapshot {
+    /**
+     * The first four bytes of a snapshot.
+     */
+    private static final int MAGIC = 0x48525343;
+
+    /**
+     * The version of the layout described above.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of the header.
+     */
+    private static final int HEADER_BYTES = 64;
+
+    /**
+     * The size of a hotel record.
+     */
+    private static final int HOTEL_BYTES = 48;
+
+    /**
+     * The size of the day of month multipliers of a hotel.
+     */
+    private static final int DAY_RATES_BYTES = 31 * 8;
+
+    /**
+     * The size of a rate override record.
+     */
+    private static final int OVERRIDE_BYTES = 16;
+
+    /**
+     * The size of a discount rule record.
+     */
+    private static final int RULE_BYTES = 16;
+
+    /**
+     * The size of a room record.
+     */
+    private static final int ROOM_BYTES = 16;
+
+    /**
+     * The size of all the columns of one reservation.
+     */
+    private static final int RESERVATION_BYTES = 8 + 8 + 4 + 4 + 4 + 4 + 4;
+
+    /**
+     * The number of strings in the string table.
+     */
+    private final int stringCount;
+
+    /**
+     * The number of hotels.
+     */
+    private final int hotelCount;
+
+    /**
+     * The number of rooms over all hotels.
+     */
+    private final int roomCount;
+
+    /**
+     * The number of reservations over all hotels.
+     */
+    private final int reservationCount;
+
+    /**
+     * The number of rate overrides over all hotels.
+     */
+    private final int overrideCount;
+
+    /**
+     * The number of discount rules over all hotels.
+     */
+    private final int ruleCount;
+
+    /**
+     * The number of nights over all reservations.
+     */
+    private final int nightCount;
+
+    /**
+     * The offset of each string in the string data, plus the end of the last one.
+     */
+    private final ByteBuffer stringOffsets;
+
+    /**
+     * The UTF-8 bytes of the strings.
+     */
+    private final ByteBuffer stringData;
+
+    /**
+     * The hotel records.
+     */
+    private final ByteBuffer hotels;
+
+    /**
+     * The room records.
+     */
+    private final ByteBuffer rooms;
+
+    /**
+     * The day of month multipliers of each hotel.
+     */
+    private final ByteBuffer dayRates;
+
+    /**
+     * The rate override records.
+     */
+    private final ByteBuffer overrides;
+
+    /**
+     * The discount rule records.
+     */
+    private final ByteBuffer rules;
+
+    /**
+     * The booking number column.
+     */
+    private final ByteBuffer bookingNumbers;
+
+    /**
+     * The total column, in cents.
+     */
+    private final ByteBuffer totalCents;
+
+    /**
+     * The price in cents of every night, reservation after reservation.
+     */
+    private final LongBuffer nightlyCents;
+
+    /**
+     * The guest name column, as string indexes.
+     */
+    private final ByteBuffer guests;
+
+    /**
+     * The check-in column, as epoch days.
+     */
+    private final ByteBuffer checkIns;
+
+    /**
+     * The check-out column, as epoch days.
+     */
+    private final ByteBuffer checkOuts;
+
+    /**
+     * The discount code column, as string indexes or -1 for no code.
+     */
+    private final ByteBuffer discountCodes;
+
+    /**
+     * The first night column, as indexes into the nightly prices.
+     */
+    private final ByteBuffer firstNights;
+
+    /**
+     * The strings decoded so far, so that each is only decoded once and shared by everything using it.
+     */
+    private final String[] strings;
+
+    /**
+     * This constructor maps the sections of an open snapshot file. Use open to open one.
+     *
+     * @param channel - the snapshot file
+     * @param header - the header of the file
+     * @throws IOException if the file cannot be mapped
+     */
+    private HRSSnapshot(FileChannel channel, ByteBuffer header) throws IOException {
+        this.stringCount = header.getInt(8);
+        this.hotelCount = header.getInt(12);
+        this.roomCount = header.getInt(16);
+        this.reservationCount = header.getInt(20);
+        long stringBytes = header.getLong(24);
+        this.overrideCount = header.getInt(40);
+        this.ruleCount = header.getInt(44);
+        this.nightCount = (int) header.getLong(48);
+        long position = HEADER_BYTES;
+        this.stringOffsets = map(channel, position, 8L * (stringCount + 1));
+        position += 8L * (stringCount + 1);
+        this.stringData = map(channel, position, stringBytes);
+        position += align(stringBytes);
+        this.hotels = map(channel, position, (long) HOTEL_BYTES * hotelCount);
+        position += (long) HOTEL_BYTES * hotelCount;
+        this.dayRates = map(channel, position, (long) DAY_RATES_BYTES * hotelCount);
+        position += (long) DAY_RATES_BYTES * hotelCount;
+        this.overrides = map(channel, position, (long) OVERRIDE_BYTES * overrideCount);
+        position += (long) OVERRIDE_BYTES * overrideCount;
+        this.rules = map(channel, position, (long) RULE_BYTES * ruleCount);
+        position += (long) RULE_BYTES * ruleCount;
+        this.rooms = map(channel, position, (long) ROOM_BYTES * roomCount);
+        position += (long) ROOM_BYTES * roomCount;
+        this.bookingNumbers = map(channel, position, 8L * reservationCount);
+        position += 8L * reservationCount;
+        this.totalCents = map(channel, position, 8L * reservationCount);
+        position += 8L * reservationCount;
+        this.nightlyCents = map(channel, position, 8L * nightCount).asLongBuffer();
+        position += 8L * nightCount;
+        this.guests = map(channel, position, 4L * reservationCount);
+        position += 4L * reservationCount;
+        this.checkIns = map(channel, position, 4L * reservationCount);
+        position += 4L * reservationCount;
+        this.checkOuts = map(channel, position, 4L * reservationCount);
+        position += 4L * reservationCount;
+        this.discountCodes = map(channel, position, 4L * reservationCount);
+        position += 4L * reservationCount;
+        this.firstNights = map(channel, position, 4L * reservationCount);
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Opens a snapshot by mapping it into memory. Nothing is read until it is asked for.
+     *
+     * @param file - the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a complete snapshot of a known version
+     */
+    public static HRSSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a snapshot of a known version.");
+            }
+            if (header.getLong(32) != channel.size()) {
+                throw new IOException(file + " is incomplete.");
+            }
+            return new HRSSnapshot(channel, header);
+        }
+    }
+
+    /**
+     * Writes a snapshot of all the hotels of a system, numbering the hotels in the order they were created.
+     *
+     * @param file - the file to write, which must not exist
+     * @param hrs - the system
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, HRS hrs) throws IOException {
+        Map<Hotel, Integer> ids = new HashMap<>();
+        for (Hotel hotel : hrs.getHotels()) {
+            ids.put(hotel, ids.size());
+        }
+        write(file, hrs.getHotels(), ids);
+    }
+
+    /**
+     * Writes a snapshot of the given hotels and forces it to disk. Each hotel is captured while its rooms
+     * cannot change, so every reservation in the snapshot has its room in it too. A reservation that is
+     * being booked or cancelled while the hotel is captured may or may not be included.
+     *
+     * @param file - the file to write, which must not exist
+     * @param hotelList - the hotels
+     * @param ids - the id to store for each hotel; hotels without one are left out
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a hotel has a discount rule of a kind that cannot be saved
+     */
+    static void write(Path file, List<Hotel> hotelList, Map<Hotel, Integer> ids) throws IOException {
+        LinkedHashMap<String, Integer> stringIndex = new LinkedHashMap<>();
+        List<HotelImage> images = new ArrayList<>();
+        int totalRooms = 0;
+        int totalReservations = 0;
+        int totalOverrides = 0;
+        int totalRules = 0;
+        long totalNights = 0;
+        for (Hotel hotel : hotelList) {
+            Integer id = ids.get(hotel);
+            if (id == null) {
+                continue;
+            }
+            HotelImage image = new HotelImage(hotel, id);
+            images.add(image);
+            totalRooms += image.rooms.size();
+            totalReservations += image.reservations.size();
+            totalOverrides += image.overrides.size();
+            totalRules += image.rules.size();
+            intern(stringIndex, image.name);
+            for (DiscountRule rule : image.rules) {
+                intern(stringIndex, rule.getCode());
+            }
+            for (Room room : image.rooms) {
+                intern(stringIndex, room.getName());
+            }
+            for (Reservation reservation : image.reservations) {
+                totalNights += reservation.getNights();
+                intern(stringIndex, reservation.getGuestName());
+                if (reservation.getDiscountCode() != null) {
+                    intern(stringIndex, reservation.getDiscountCode());
+                }
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(stringIndex.size());
+        long stringBytes = 0;
+        for (String value : stringIndex.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += bytes.length;
+        }
+        if (totalNights > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + totalNights + " nights is too large.");
+        }
+        long fileLength = HEADER_BYTES + 8L * (encoded.size() + 1) + align(stringBytes)
+                + (long) (HOTEL_BYTES + DAY_RATES_BYTES) * images.size() + (long) OVERRIDE_BYTES * totalOverrides
+                + (long) RULE_BYTES * totalRules + (long) ROOM_BYTES * totalRooms
+                + (long) RESERVATION_BYTES * totalReservations + 8L * totalNights;
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            SectionWriter writer = new SectionWriter(out);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(encoded.size());
+            writer.putInt(images.size());
+            writer.putInt(totalRooms);
+            writer.putInt(totalReservations);
+            writer.putLong(stringBytes);
+            writer.putLong(fileLength);
+            writer.putInt(totalOverrides);
+            writer.putInt(totalRules);
+            writer.putLong(totalNights);
+            writer.pad(HEADER_BYTES - 56);
+
+            long offset = 0;
+            for (byte[] bytes : encoded) {
+                writer.putLong(offset);
+                offset += bytes.length;
+            }
+            writer.putLong(offset);
+            for (byte[] bytes : encoded) {
+                writer.putBytes(bytes);
+            }
+            writer.pad((int) (align(stringBytes) - stringBytes));
+
+            int firstRoom = 0;
+            int firstOverride = 0;
+            int firstRule = 0;
+            for (HotelImage image : images) {
+                writer.putInt(image.id);
+                writer.putInt(stringIndex.get(image.name));
+                writer.putDouble(image.basePrice);
+                writer.putInt(image.nextRoomNumber);
+                writer.putInt(firstRoom);
+                writer.putInt(image.rooms.size());
+                writer.putInt(firstOverride);
+                writer.putInt(image.overrides.size());
+                writer.putInt(firstRule);
+                writer.putInt(image.rules.size());
+                writer.putInt(0);
+                firstRoom += image.rooms.size();
+                firstOverride += image.overrides.size();
+                firstRule += image.rules.size();
+            }
+            for (HotelImage image : images) {
+                for (int day = 1; day <= 31; day++) {
+                    writer.putDouble(image.dayOfMonth[day]);
+                }
+            }
+            for (HotelImage image : images) {
+                for (Map.Entry<LocalDate, Double> entry : image.overrides.entrySet()) {
+                    writer.putLong(entry.getKey().toEpochDay());
+                    writer.putDouble(entry.getValue());
+                }
+            }
+            for (HotelImage image : images) {
+                for (DiscountRule rule : image.rules) {
+                    int[] encodedRule = DiscountEngine.encode(rule);
+                    writer.putInt(stringIndex.get(rule.getCode()));
+                    writer.putInt(encodedRule[0]);
+                    writer.putInt(encodedRule[1]);
+                    writer.putInt(encodedRule[2]);
+                }
+            }
+            int firstReservation = 0;
+            for (HotelImage image : images) {
+                for (int i = 0; i < image.rooms.size(); i++) {
+                    Room room = image.rooms.get(i);
+                    writer.putInt(stringIndex.get(room.getName()));
+                    writer.putInt(room.getType().ordinal());
+                    writer.putInt(firstReservation);
+                    writer.putInt(image.roomReservationCounts[i]);
+                    firstReservation += image.roomReservationCounts[i];
+                }
+            }
+            for (HotelImage image : images) {
+                for (int i = 0; i < image.reservations.size(); i++) {
+                    writer.putLong(image.bookingNumbers[i]);
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putLong(reservation.getTotalCents());
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    for (int night = 0; night < reservation.getNights(); night++) {
+                        writer.putLong(reservation.getNightlyCents(night));
+                    }
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putInt(stringIndex.get(reservation.getGuestName()));
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putInt(reservation.getCheckInDay());
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putInt(reservation.getCheckOutDay());
+                }
+            }
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putInt(reservation.getDiscountCode() == null ? -1 : stringIndex.get(reservation.getDiscountCode()));
+                }
+            }
+            int firstNight = 0;
+            for (HotelImage image : images) {
+                for (Reservation reservation : image.reservations) {
+                    writer.putInt(firstNight);
+                    firstNight += reservation.getNights();
+                }
+            }
+            writer.flush();
+            out.force(true);
+        }
+    }
+
+    /**
+     * A getter that gets the number of hotels in the snapshot.
+     *
+     * @return the number of hotels
+     */
+    public int getHotelCount() {
+        return hotelCount;
+    }
+
+    /**
+     * A getter that gets the number of reservations in the snapshot over all hotels.
+     *
+     * @return the number of reservations
+     */
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    /**
+     * Finds a hotel by name.
+     *
+     * @param name - the name of the hotel
+     * @return the index of the hotel, or -1 if there is no such hotel
+     */
+    public int findHotel(String name) {
+        for (int hotel = 0; hotel < hotelCount; hotel++) {
+            if (getString(hotels.getInt(hotel * HOTEL_BYTES + 4)).equals(name)) {
+                return hotel;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A getter that gets the id stored for a hotel.
+     *
+     * @param hotel - the index of the hotel
+     * @return the id of the hotel
+     */
+    public int getHotelId(int hotel) {
+        return hotels.getInt(hotel * HOTEL_BYTES);
+    }
+
+    /**
+     * A getter that gets the name of a hotel.
+     *
+     * @param hotel - the index of the hotel
+     * @return the name of the hotel
+     */
+    public String getHotelName(int hotel) {
+        return getString(hotels.getInt(hotel * HOTEL_BYTES + 4));
+    }
+
+    /**
+     * A getter that gets the base price of a hotel.
+     *
+     * @param hotel - the index of the hotel
+     * @return the base price of the hotel
+     */
+    public double getBasePrice(int hotel) {
+        return hotels.getDouble(hotel * HOTEL_BYTES + 8);
+    }
+
+    /**
+     * A getter that gets the index of the first room of a hotel; its rooms follow it.
+     *
+     * @param hotel - the index of the hotel
+     * @return the index of the first room
+     */
+    public int getFirstRoom(int hotel) {
+        return hotels.getInt(hotel * HOTEL_BYTES + 20);
+    }
+
+    /**
+     * A getter that gets the number of rooms of a hotel.
+     *
+     * @param hotel - the index of the hotel
+     * @return the number of rooms
+     */
+    public int getRoomCount(int hotel) {
+        return hotels.getInt(hotel * HOTEL_BYTES + 24);
+    }
+
+    /**
+     * Finds a room of a hotel by name.
+     *
+     * @param hotel - the index of the hotel
+     * @param name - the name of the room
+     * @return the index of the room, or -1 if the hotel has no such room
+     */
+    public int findRoom(int hotel, String name) {
+        int first = getFirstRoom(hotel);
+        for (int room = first; room < first + getRoomCount(hotel); room++) {
+            if (getRoomName(room).equals(name)) {
+                return room;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A getter that gets the name of a room.
+     *
+     * @param room - the index of the room
+     * @return the name of the room
+     */
+    public String getRoomName(int room) {
+        return getString(rooms.getInt(room * ROOM_BYTES));
+    }
+
+    /**
+     * A getter that gets the type of a room.
+     *
+     * @param room - the index of the room
+     * @return the type of the room
+     */
+    public Room.RoomType getRoomType(int room) {
+        return Room.RoomType.values()[rooms.getInt(room * ROOM_BYTES + 4)];
+    }
+
+    /**
+     * A getter that gets the index of the first reservation of a room; the others follow it by check-in date.
+     *
+     * @param room - the index of the room
+     * @return the index of the first reservation
+     */
+    public int getFirstReservation(int room) {
+        return rooms.getInt(room * ROOM_BYTES + 8);
+    }
+
+    /**
+     * A getter that gets the number of reservations of a room.
+     *
+     * @param room - the index of the room
+     * @return the number of reservations
+     */
+    public int getRoomReservationCount(int room) {
+        return rooms.getInt(room * ROOM_BYTES + 12);
+    }
+
+    /**
+     * Checks if a room is free for every night from check-in up to, but not including, check-out,
+     * by a binary search of the room's check-in dates.
+     *
+     * @param room - the index of the room
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @return true if no reservation of the room overlaps the stay
+     */
+    public boolean isRoomAvailable(int room, LocalDate checkIn, LocalDate checkOut) {
+        int before = lastCheckInBefore(room, (int) checkOut.toEpochDay());
+        return before < 0 || checkOuts.getInt(before * 4) <= checkIn.toEpochDay();
+    }
+
+    /**
+     * Finds the reservation of a room checking in on a given date.
+     *
+     * @param room - the index of the room
+     * @param checkIn - the check-in date
+     * @return the index of the reservation, or -1 if there is none
+     */
+    public int findReservation(int room, LocalDate checkIn) {
+        int day = (int) checkIn.toEpochDay();
+        int before = lastCheckInBefore(room, day + 1);
+        return before >= 0 && checkIns.getInt(before * 4) == day ? before : -1;
+    }
+
+    /**
+     * Finds a reservation of a hotel by guest name and check-in date, looking at every room of the hotel.
+     *
+     * @param hotel - the index of the hotel
+     * @param guestName - the name of the guest
+     * @param checkIn - the check-in date
+     * @return the index of the reservation, or -1 if there is none
+     */
+    public int findReservation(int hotel, String guestName, LocalDate checkIn) {
+        int first = getFirstRoom(hotel);
+        for (int room = first; room < first + getRoomCount(hotel); room++) {
+            int reservation = findReservation(room, checkIn);
+            if (reservation >= 0 && getGuestName(reservation).equals(guestName)) {
+                return reservation;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A getter that gets the booking number of a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the booking number
+     */
+    public long getBookingNumber(int reservation) {
+        return bookingNumbers.getLong(reservation * 8);
+    }
+
+    /**
+     * A getter that gets the guest name of a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the guest name
+     */
+    public String getGuestName(int reservation) {
+        return getString(guests.getInt(reservation * 4));
+    }
+
+    /**
+     * A getter that gets the check-in date of a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the check-in date
+     */
+    public LocalDate getCheckInDate(int reservation) {
+        return LocalDate.ofEpochDay(checkIns.getInt(reservation * 4));
+    }
+
+    /**
+     * A getter that gets the check-out date of a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the check-out date
+     */
+    public LocalDate getCheckOutDate(int reservation) {
+        return LocalDate.ofEpochDay(checkOuts.getInt(reservation * 4));
+    }
+
+    /**
+     * A getter that gets the discount code of a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the discount code, or null if there is none
+     */
+    public String getDiscountCode(int reservation) {
+        int code = discountCodes.getInt(reservation * 4);
+        return code < 0 ? null : getString(code);
+    }
+
+    /**
+     * A getter that gets the total price charged for a reservation.
+     *
+     * @param reservation - the index of the reservation
+     * @return the total price
+     */
+    public double getTotalPrice(int reservation) {
+        return Money.toAmount(getTotalCents(reservation));
+    }
+
+    /**
+     * A getter that gets the total price charged for a reservation in cents, exactly as it was charged.
+     *
+     * @param reservation - the index of the reservation
+     * @return the total price in cents
+     */
+    public long getTotalCents(int reservation) {
+        return totalCents.getLong(reservation * 8);
+    }
+
+    /**
+     * A getter that gets the price in cents of one night of a reservation, before any discount on the total.
+     *
+     * @param reservation - the index of the reservation
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the price of the night in cents
+     * @throws IndexOutOfBoundsException if the reservation has no such night
+     */
+    public long getNightlyCents(int reservation, int night) {
+        if (night < 0 || night >= checkOuts.getInt(reservation * 4) - checkIns.getInt(reservation * 4)) {
+            throw new IndexOutOfBoundsException("Night " + night + " is not part of the reservation.");
+        }
+        return nightlyCents.get(firstNights.getInt(reservation * 4) + night);
+    }
+
+    /**
+     * Gets the rate multiplier a hotel's calendar gives a night: the override of the night if it has
+     * one, found by a binary search, and otherwise the multiplier of its day of the month.
+     *
+     * @param hotel - the index of the hotel
+     * @param date - the date of the night
+     * @return the price multiplier
+     */
+    public double getMultiplier(int hotel, LocalDate date) {
+        long day = date.toEpochDay();
+        int low = hotels.getInt(hotel * HOTEL_BYTES + 28);
+        int high = low + hotels.getInt(hotel * HOTEL_BYTES + 32) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = overrides.getLong(middle * OVERRIDE_BYTES);
+            if (found < day) {
+                low = middle + 1;
+            } else if (found > day) {
+                high = middle - 1;
+            } else {
+                return overrides.getDouble(middle * OVERRIDE_BYTES + 8);
+            }
+        }
+        return dayRates.getDouble(hotel * DAY_RATES_BYTES + (date.getDayOfMonth() - 1) * 8);
+    }
+
+    /**
+     * A getter that gets the discount codes of a hotel, sorted.
+     *
+     * @param hotel - the index of the hotel
+     * @return the list of codes
+     */
+    public List<String> getDiscountCodes(int hotel) {
+        int first = hotels.getInt(hotel * HOTEL_BYTES + 36);
+        int count = hotels.getInt(hotel * HOTEL_BYTES + 40);
+        List<String> codes = new ArrayList<>(count);
+        for (int rule = first; rule < first + count; rule++) {
+            codes.add(getString(rules.getInt(rule * RULE_BYTES)));
+        }
+        return codes;
+    }
+
+    /**
+     * Finds the discount rule of a code in a hotel, rebuilt from the file.
+     *
+     * @param hotel - the index of the hotel
+     * @param code - the discount code
+     * @return the rule, or null if the hotel has no rule for the code
+     */
+    public DiscountRule findDiscountRule(int hotel, String code) {
+        int first = hotels.getInt(hotel * HOTEL_BYTES + 36);
+        int count = hotels.getInt(hotel * HOTEL_BYTES + 40);
+        for (int rule = first; rule < first + count; rule++) {
+            if (getString(rules.getInt(rule * RULE_BYTES)).equals(code)) {
+                return readRule(rule);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds the hotels of the snapshot in a system, without notifying its listeners. Each room gets
+     * its reservations in a single update, and reservations keep their booking numbers and the nightly
+     * prices and totals they were charged, without being priced again. Each hotel gets its rate calendar
+     * and discount rules back.
+     *
+     * @param hrs - the system to add the hotels to
+     * @return the new hotels keyed by the id stored for them
+     */
+    public Map<Integer, Hotel> restoreInto(HRS hrs) {
+        Map<Integer, Hotel> restored = new LinkedHashMap<>();
+        for (int hotel = 0; hotel < hotelCount; hotel++) {
+            Hotel target = hrs.restoreHotel(getHotelName(hotel), getBasePrice(hotel));
+            target.restoreNextRoomNumber(hotels.getInt(hotel * HOTEL_BYTES + 16));
+            int first = getFirstRoom(hotel);
+            int last = first + getRoomCount(hotel);
+            for (int room = first; room < last; room++) {
+                target.restoreRoom(getRoomName(room), getRoomType(room), 0);
+            }
+            double[] dayOfMonth = new double[32];
+            for (int day = 1; day <= 31; day++) {
+                dayOfMonth[day] = dayRates.getDouble(hotel * DAY_RATES_BYTES + (day - 1) * 8);
+            }
+            HashMap<Long, Double> overridden = new HashMap<>();
+            int firstOverride = hotels.getInt(hotel * HOTEL_BYTES + 28);
+            for (int i = firstOverride; i < firstOverride + hotels.getInt(hotel * HOTEL_BYTES + 32); i++) {
+                overridden.put(overrides.getLong(i * OVERRIDE_BYTES), overrides.getDouble(i * OVERRIDE_BYTES + 8));
+            }
+            target.getRateCalendar().restore(dayOfMonth, overridden);
+            List<DiscountRule> restoredRules = new ArrayList<>();
+            int firstRule = hotels.getInt(hotel * HOTEL_BYTES + 36);
+            for (int rule = firstRule; rule < firstRule + hotels.getInt(hotel * HOTEL_BYTES + 40); rule++) {
+                restoredRules.add(readRule(rule));
+            }
+            target.getDiscountEngine().restore(restoredRules);
+            int firstReservation = last > first ? getFirstReservation(first) : 0;
+            int count = last > first ? getFirstReservation(last - 1) + getRoomReservationCount(last - 1) - firstReservation : 0;
+            List<Reservation> reservations = new ArrayList<>(count);
+            long[] numbers = new long[count];
+            for (int room = first; room < last; room++) {
+                Room targetRoom = target.getRoom(getRoomName(room));
+                int from = getFirstReservation(room);
+                int to = from + getRoomReservationCount(room);
+                for (int reservation = from; reservation < to; reservation++) {
+                    numbers[reservations.size()] = getBookingNumber(reservation);
+                    int checkIn = checkIns.getInt(reservation * 4);
+                    int checkOut = checkOuts.getInt(reservation * 4);
+                    long[] nights = new long[checkOut - checkIn];
+                    nightlyCents.get(firstNights.getInt(reservation * 4), nights);
+                    reservations.add(new Reservation(getGuestName(reservation), checkIn, checkOut, targetRoom,
+                            getDiscountCode(reservation), nights, getTotalCents(reservation)));
+                }
+            }
+            target.restoreReservations(reservations, numbers);
+            restored.put(getHotelId(hotel), target);
+        }
+        return restored;
+    }
+
+    /**
+     * Rebuilds a discount rule from its record.
+     *
+     * @param rule - the index of the rule record
+     * @return the rule
+     */
+    private DiscountRule readRule(int rule) {
+        return DiscountEngine.decode(getString(rules.getInt(rule * RULE_BYTES)), rules.getInt(rule * RULE_BYTES + 4),
+                rules.getInt(rule * RULE_BYTES + 8), rules.getInt(rule * RULE_BYTES + 12));
+    }
+
+    /**
+     * Finds the last reservation of a room checking in before a given day.
+     *
+     * @param room - the index of the room
+     * @param day - the epoch day
+     * @return the index of the reservation, or -1 if none checks in before the day
+     */
+    private int lastCheckInBefore(int room, int day) {
+        int low = getFirstReservation(room);
+        int high = low + getRoomReservationCount(room) - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (checkIns.getInt(middle * 4) < day) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets a string of the string table, decoding it the first time it is asked for.
+     *
+     * @param index - the index of the string
+     * @return the string
+     */
+    private String getString(int index) {
+        String value = strings[index];
+        if (value == null) {
+            int start = (int) stringOffsets.getLong(index * 8);
+            int end = (int) stringOffsets.getLong((index + 1) * 8);
+            byte[] bytes = new byte[end - start];
+            stringData.get(start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Adds a string to the string table if it is not there yet.
+     *
+     * @param stringIndex - the strings so far with their indexes
+     * @param value - the string
+     */
+    private static void intern(Map<String, Integer> stringIndex, String value) {
+        stringIndex.putIfAbsent(value, stringIndex.size());
+    }
+
+    /**
+     * Rounds a length up to a multiple of 8, so that the sections after it stay aligned.
+     *
+     * @param length - the length
+     * @return the aligned length
+     */
+    private static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    /**
+     * Maps a section of the file read-only.
+     *
+     * @param channel - the file
+     * @param position - the start of the section
+     * @param size - the length of the section
+     * @return the mapped section
+     * @throws IOException if the section cannot be mapped
+     */
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section of " + size + " bytes is too large to map.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * The HotelImage class is what a snapshot keeps of one hotel: its fields, its rooms and their
+     * reservations in room and check-in order, all taken while the hotel's rooms could not change.
+     */
+    private static final class HotelImage {
+        /**
+         * The id stored for the hotel.
+         */
+        private final int id;
+
+        /**
+         * The name of the hotel.
+         */
+        private final String name;
+
+        /**
+         * The base price of the hotel.
+         */
+        private final double basePrice;
+
+        /**
+         * The number the hotel will give its next room.
+         */
+        private final int nextRoomNumber;
+
+        /**
+         * The day of month multipliers of the hotel's rate calendar, indexed from 1 to 31.
+         */
+        private final double[] dayOfMonth;
+
+        /**
+         * The rate overrides of the hotel's rate calendar, in date order.
+         */
+        private final Map<LocalDate, Double> overrides;
+
+        /**
+         * The discount rules of the hotel, in code order.
+         */
+        private final List<DiscountRule> rules;
+
+        /**
+         * The rooms of the hotel.
+         */
+        private final List<Room> rooms;
+
+        /**
+         * The number of reservations of each room.
+         */
+        private final int[] roomReservationCounts;
+
+        /**
+         * The reservations of all the rooms, room after room.
+         */
+        private final List<Reservation> reservations;
+
+        /**
+         * The booking numbers of the reservations.
+         */
+        private final long[] bookingNumbers;
+
+        /**
+         * The constructor that captures a hotel. The rate calendar and discount rules are read after any
+         * change already announced to the journal has taken effect.
+         *
+         * @param hotel - the hotel
+         * @param id - the id to store for the hotel
+         */
+        HotelImage(Hotel hotel, int id) {
+            this.id = id;
+            synchronized (hotel) {
+                this.name = hotel.getName();
+                this.basePrice = hotel.getBasePrice();
+                this.nextRoomNumber = hotel.getNextRoomNumber();
+                this.dayOfMonth = hotel.getRateCalendar().getDayOfMonthMultipliers();
+                this.overrides = hotel.getRateCalendar().getOverrides();
+                this.rules = hotel.getDiscountEngine().getRules();
+                this.rooms = hotel.getRooms();
+                this.roomReservationCounts = new int[rooms.size()];
+                this.reservations = new ArrayList<>();
+                Map<Reservation, Long> numbers = hotel.getBookingNumbers();
+                long[] captured = new long[16];
+                for (int i = 0; i < rooms.size(); i++) {
+                    for (Reservation reservation : rooms.get(i).getReservations()) {
+                        Long number = numbers.get(reservation);
+                        if (number == null) {
+                            continue;
+                        }
+                        if (reservations.size() == captured.length) {
+                            captured = Arrays.copyOf(captured, captured.length * 2);
+                        }
+                        captured[reservations.size()] = number;
+                        reservations.add(reservation);
+                        roomReservationCounts[i]++;
+                    }
+                }
+                this.bookingNumbers = captured;
+            }
+        }
+    }
+
+    /**
+     * The SectionWriter class writes the snapshot through a buffer, in order.
+     */
+    private static final class SectionWriter {
+        /**
+         * The file being written.
+         */
+        private final FileChannel out;
+
+        /**
+         * The bytes not yet written.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+        /**
+         * The constructor that starts writing at the current position of the file.
+         *
+         * @param out - the file
+         */
+        SectionWriter(FileChannel out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes an int.
+         *
+         * @param value - the value
+         * @throws IOException if the file cannot be written
+         */
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes a long.
+         *
+         * @param value - the value
+         * @throws IOException if the file cannot be written
+         */
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Writes a double.
+         *
+         * @param value - the value
+         * @throws IOException if the file cannot be written
+         */
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes bytes.
+         *
+         * @param bytes - the bytes
+         * @throws IOException if the file cannot be written
+         */
+        void putBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    out.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes zero bytes.
+         *
+         * @param count - the number of zero bytes
+         * @throws IOException if the file cannot be written
+         */
+        void pad(int count) throws IOException {
+            ensure(count);
+            buffer.put(new byte[count]);
+        }
+
+        /**
+         * Writes out everything buffered.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Makes room in the buffer, writing it out if needed.
+         *
+         * @param bytes - the number of bytes about to be buffered
+         * @throws IOException if the file cannot be written
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
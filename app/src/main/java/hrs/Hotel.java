@@ -0,0 +1,1533 @@
+package hrs;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The Hotel class represents a hotel, managing the rooms and reservations.
+ * Bookings only lock the room being booked, so bookings for different rooms run in parallel.
+ * Adding and removing rooms replaces the room maps as a whole instead of changing them in place,
+ * so a booking can walk the rooms without a lock while the hotel is being managed.
+ */
+public class Hotel {
+    /**
+     * The number of quotes the quote cache holds at most.
+     */
+    private static final int QUOTE_CACHE_CAPACITY = 4096;
+
+    /**
+     * The name of the hotel.
+     */
+    private String name;
+
+    /**
+     * The number of rooms in the hotel.
+     */
+    private int roomCount;
+
+    /**
+     * The base price for the rooms in the hotel.
+     */
+    private double basePrice;
+
+    /**
+     * The rooms in the hotel keyed by room name, in the order they were added.
+     * The map is never changed once published; adding or removing a room replaces it.
+     */
+    private volatile LinkedHashMap<String, Room> rooms;
+
+    /**
+     * The rooms in the hotel grouped by room type, each keyed by room name in the order they were added.
+     * Like the rooms map, it is replaced rather than changed.
+     */
+    private volatile EnumMap<Room.RoomType, LinkedHashMap<String, Room>> roomsByType;
+
+     /**
+     * The reservations in the hotel, mapped to their booking number.
+     */
+    private ConcurrentHashMap<Reservation, Long> reservations;
+
+    /**
+     * The reservations in the hotel keyed by booking number, so they can be listed in the order they
+     * were made. It always holds the same reservations as the reservations map.
+     */
+    private ConcurrentSkipListMap<Long, Reservation> reservationsByNumber;
+
+    /**
+     * The booking number to be given to the next reservation.
+     */
+    private AtomicLong nextBookingNumber;
+
+    /**
+     * The history of each guest: their reservations by check-in epoch day, then by booking number.
+     * A guest can hold several reservations with the same check-in date, kept in booking order.
+     * The maps are changed in place, only inside a compute on the guest's entry, so changes for
+     * one guest never race and lookups never need a lock.
+     */
+    private ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<Long, Reservation>>> reservationsByGuest;
+
+    /**
+     * The reservations of each guest and check-in epoch day, by booking number. Each value is the same
+     * map as the one for that day in the guest's history, so a guest and date are found in one lookup.
+     */
+    private ConcurrentHashMap<GuestDay, ConcurrentSkipListMap<Long, Reservation>> reservationsByGuestDay;
+
+    /**
+     * The running earnings of the hotel per night and room type, updated as reservations come and go.
+     */
+    private EarningsLedger earnings;
+
+    /**
+     * The number of rooms of each type booked on every night, updated as reservations come and go.
+     */
+    private RoomInventory inventory;
+
+    /**
+     * The calendar of nightly price multipliers shared by all the rooms in the hotel.
+     */
+    private RateCalendar rateCalendar;
+
+    /**
+     * The discount rules shared by all the rooms in the hotel.
+     */
+    private DiscountEngine discountEngine;
+
+    /**
+     * The cache of recent quotes for stays in the hotel.
+     */
+    private QuoteCache quoteCache;
+
+    /**
+     * The strategy that picks which free room a booking gets.
+     */
+    private volatile RoomAssignmentStrategy assignmentStrategy;
+
+    /**
+     * The off-heap store of the hotel's past reservations, or null if the hotel keeps them all live.
+     */
+    private volatile ReservationArchive archive;
+
+    /**
+     * The lock that keeps bookings and cancellations out while reservations are being written to the
+     * archive or the hotel is being removed. Publishing a booking and cancelling take the read lock,
+     * so they still run in parallel with each other.
+     */
+    private ReentrantReadWriteLock publishLock;
+
+    /**
+     * Whether the hotel was removed from its HRS, after which it takes no more bookings.
+     * It is only set under the write lock of the publish lock.
+     */
+    private boolean removed;
+
+    /**
+     * The next room number to be assigned.
+     */
+    private int nextRoomNumber;
+    /**
+     * The reference to the HRS (Hotel Reservation System).
+     */
+    private HRS hrs;
+
+    /**
+     * The number of standard rooms in the hotel.
+     */
+    private int standardRoomCount;
+
+    /**
+     * The number of deluxe rooms in the hotel.
+     */
+    private int deluxeRoomCount;
+
+    /**
+     * The number of executive rooms in the hotel.
+     */
+    private int executiveRoomCount;
+
+    /**
+     * This is the constructor for the Hotel class. It will create a Hotel based on the given parameters.
+     * 
+     * @param name the name of the hotel
+     * @param standardRoomCount the number of standard rooms
+     * @param deluxeRoomCount the number of deluxe rooms
+     * @param executiveRoomCount the number of executive rooms
+     * @param hrs the reference to the HRS
+     */
+    public Hotel(String name, int standardRoomCount, int deluxeRoomCount, int executiveRoomCount, HRS hrs) {
+        this.name = name;
+        this.roomCount = standardRoomCount + deluxeRoomCount + executiveRoomCount;
+        this.basePrice = 1299.0;
+        this.rooms = new LinkedHashMap<>();
+        this.roomsByType = new EnumMap<>(Room.RoomType.class);
+        for (Room.RoomType type : Room.RoomType.values()) {
+            this.roomsByType.put(type, new LinkedHashMap<>());
+        }
+        this.reservations = new ConcurrentHashMap<>();
+        this.reservationsByNumber = new ConcurrentSkipListMap<>();
+        this.nextBookingNumber = new AtomicLong();
+        this.reservationsByGuest = new ConcurrentHashMap<>();
+        this.reservationsByGuestDay = new ConcurrentHashMap<>();
+        this.earnings = new EarningsLedger();
+        this.inventory = new RoomInventory();
+        this.publishLock = new ReentrantReadWriteLock();
+        this.rateCalendar = new RateCalendar(this);
+        this.discountEngine = new DiscountEngine(this);
+        this.quoteCache = new QuoteCache(this, QUOTE_CACHE_CAPACITY);
+        this.assignmentStrategy = new FirstFitAssignment();
+        this.nextRoomNumber = 1;
+        this.standardRoomCount = standardRoomCount;
+        this.deluxeRoomCount = deluxeRoomCount;
+        this.executiveRoomCount = executiveRoomCount;
+
+
+        addRooms(Room.RoomType.STANDARD, standardRoomCount);
+        addRooms(Room.RoomType.DELUXE, deluxeRoomCount);
+        addRooms(Room.RoomType.EXECUTIVE, executiveRoomCount);
+        // Set last, so the first rooms are announced together with the hotel rather than one by one.
+        this.hrs = hrs;
+
+    }
+
+    /**
+     * A getter that gets the name of the hotel.
+     *
+     * @return the name of the hotel
+     */
+
+    public String getName() {
+        return name;
+    }
+
+     /**
+     * Sets the name of the hotel. Throws an exception if a hotel with the same name already exists.
+     *
+     * @param newName - the new name of the hotel
+     * @throws IllegalArgumentException if a hotel with the same name already exists
+     */
+    public void setName(String newName) {
+        synchronized (hrs) {
+            if (!hrs.renameHotel(this, newName)) {
+                throw new IllegalArgumentException("A hotel with this name already exists.");
+            }
+            String oldName = this.name;
+            this.name = newName;
+            hrs.fireHotelRenamed(this, oldName);
+        }
+    }
+
+    /**
+     * A Getter that gets the number of rooms in the hotel.
+     *
+     * @return the number of rooms in the hotel
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Sets a new room count for the hotel, making sure that it
+     * implements the limitation that it should not exceed 50 rooms.
+     *
+     * @param roomCount the new room count
+     */
+    public void setRoomCount(int roomCount) {
+        if (roomCount > 50) {
+            System.out.println("Cannot set room count more than 50.");
+            return;
+        }
+        this.roomCount = roomCount;
+    }
+
+     /**
+     * A getter that gets the base price for the rooms in the hotel.
+     *
+     * @return the base price for the rooms
+     */
+    public double getBasePrice() {
+        return basePrice;
+    }
+
+    /**
+     * A setter that sets a new base price for the rooms. It ensures that there are no existing reservations
+     * and the price is at least 100.0.
+     *
+     * @param basePrice the new base price for the rooms
+     */
+    public void setBasePrice(double basePrice) {
+        if (!reservations.isEmpty()) {
+            throw new IllegalStateException("Cannot update base price as there are existing bookings in the hotel.");
+        }
+        if (basePrice < 100.0) {
+            throw new IllegalArgumentException("Base price must be greater than or equal to 100.0");
+        }
+        restoreBasePrice(basePrice);
+        if (hrs != null) {
+            hrs.fireBasePriceChanged(this);
+        }
+    }
+
+    /**
+     * This method sets the base price of the rooms without any checks, while the hotel is being recovered
+     * from saved state.
+     *
+     * @param basePrice - the base price for the rooms
+     */
+    void restoreBasePrice(double basePrice) {
+        this.basePrice = basePrice;
+        for (Room room : rooms.values()) {
+            room.setPrice(basePrice);
+        }
+    }
+
+    /**
+     * A getter that gets the calendar of nightly price multipliers shared by the rooms in the hotel.
+     * Rate managers can change multipliers through it, which reprices future bookings.
+     *
+     * @return the rate calendar
+     */
+    public RateCalendar getRateCalendar() {
+        return rateCalendar;
+    }
+
+    /**
+     * A getter that gets the discount rules shared by the rooms in the hotel.
+     * Managers can register and remove discount codes through it, which applies to future bookings.
+     *
+     * @return the discount engine
+     */
+    public DiscountEngine getDiscountEngine() {
+        return discountEngine;
+    }
+
+    /**
+     * This method announces that a day of month multiplier of the rate calendar is about to change.
+     *
+     * @param dayOfMonth - the day of the month
+     * @param multiplier - the new multiplier
+     */
+    void announceDayOfMonthMultiplier(int dayOfMonth, double multiplier) {
+        if (hrs != null) {
+            hrs.fireDayOfMonthMultiplierChanged(this, dayOfMonth, multiplier);
+        }
+    }
+
+    /**
+     * This method announces that multipliers for specific nights are about to be loaded into the rate calendar.
+     *
+     * @param multipliers - the multipliers keyed by the date of the night
+     */
+    void announceMultipliersLoaded(Map<LocalDate, Double> multipliers) {
+        if (hrs != null) {
+            hrs.fireMultipliersLoaded(this, multipliers);
+        }
+    }
+
+    /**
+     * This method announces that the override of a night is about to be removed from the rate calendar.
+     *
+     * @param date - the date of the night
+     */
+    void announceMultiplierCleared(LocalDate date) {
+        if (hrs != null) {
+            hrs.fireMultiplierCleared(this, date);
+        }
+    }
+
+    /**
+     * This method announces that a discount rule is about to be registered.
+     *
+     * @param rule - the rule
+     */
+    void announceDiscountRuleRegistered(DiscountRule rule) {
+        if (hrs != null) {
+            hrs.fireDiscountRuleRegistered(this, rule);
+        }
+    }
+
+    /**
+     * This method announces that the rule of a discount code is about to be removed.
+     *
+     * @param code - the discount code
+     */
+    void announceDiscountRuleRemoved(String code) {
+        if (hrs != null) {
+            hrs.fireDiscountRuleRemoved(this, code);
+        }
+    }
+
+    /**
+     * A getter that gets the strategy that picks which free room a booking gets.
+     *
+     * @return the room assignment strategy
+     */
+    public RoomAssignmentStrategy getRoomAssignmentStrategy() {
+        return assignmentStrategy;
+    }
+
+    /**
+     * A setter that sets the strategy that picks which free room a booking gets, such as
+     * BestFitAssignment to keep the rooms' calendars from fragmenting. It applies to bookings made afterwards.
+     * The strategy is told about the rooms of the hotel right away, and about every change from then on.
+     *
+     * @param assignmentStrategy - the room assignment strategy
+     * @throws IllegalArgumentException if the strategy is null
+     */
+    public synchronized void setRoomAssignmentStrategy(RoomAssignmentStrategy assignmentStrategy) {
+        if (assignmentStrategy == null) {
+            throw new IllegalArgumentException("Room assignment strategy must not be null.");
+        }
+        // Set first, so a booking that lands while the rooms are being handed over reaches the new strategy.
+        this.assignmentStrategy = assignmentStrategy;
+        for (Room room : rooms.values()) {
+            assignmentStrategy.roomAdded(room);
+        }
+    }
+
+    /**
+     * A getter that gets the cache of recent quotes, which reports how often quotes are reused.
+     *
+     * @return the quote cache
+     */
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
+    /**
+     * This method gets the price of a stay in a type of room without booking anything or checking
+     * that a room is free. Repeated quotes for the same stay come from the quote cache for as long
+     * as the base price, the rate calendar and the rule of the discount code stay the same.
+     *
+     * @param roomType - the type of room
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param discountCode - an optional discount code
+     * @return the quote
+     * @throws IllegalArgumentException if the date range is not valid
+     */
+    public Quote quote(Room.RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate, String discountCode) {
+        if (!isValidDateRange(checkInDate, checkOutDate)) {
+            throw new IllegalArgumentException("Invalid date range. Check-out date must be after check-in date.");
+        }
+        return quoteCache.get(roomType, checkInDate, checkOutDate, discountCode);
+    }
+
+    /**
+     * A getter that gets the list of rooms in the hotel.
+     *
+     * @return the list of rooms
+     */
+    public ArrayList<Room> getRooms() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    /**
+     * A getter that gets a room given its name.
+     *
+     * @param roomName - the name of the room
+     * @return the room with the given name, or null if no such room exists
+     */
+    public Room getRoom(String roomName) {
+        return rooms.get(roomName);
+    }
+
+    /**
+     * A getter that gets the rooms of a given type, in the order they were added.
+     *
+     * @param type - the type of the rooms
+     * @return an unmodifiable view of the rooms of the given type
+     */
+    public Collection<Room> getRoomsOfType(Room.RoomType type) {
+        return Collections.unmodifiableCollection(roomsByType.get(type).values());
+    }
+
+    /**
+     * A getter that gets the list of reservations in the hotel, in the order they were made.
+     *
+     * @return the list of reservations
+     */
+    public ArrayList<Reservation> getReservations() {
+        return new ArrayList<>(reservationsByNumber.values());
+    }
+
+    /**
+     * A getter that gets the reservations moved to the hotel's archive, in the order they were archived.
+     * Each element is a view that reads the reservation from the archive when used, so the list costs
+     * next to nothing however long it is. Reservations archived later are not included.
+     *
+     * @return an unmodifiable list of the archived reservations, empty if the hotel has no archive
+     */
+    public List<ArchivedReservation> getArchivedReservations() {
+        ReservationArchive current = archive;
+        int size = current == null ? 0 : current.size();
+        return new AbstractList<>() {
+            public ArchivedReservation get(int index) {
+                if (index >= size) {
+                    throw new IndexOutOfBoundsException("Index " + index + " out of " + size + ".");
+                }
+                return current.get(index);
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * A getter that gets the archive of the hotel's past reservations.
+     *
+     * @return the archive, or null if the hotel has none
+     */
+    public ReservationArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Sets the archive that past reservations are moved to. The earnings of the reservations already
+     * in the archive are added to the hotel's earnings. A live reservation that the archive already
+     * holds, which happens when the hotel is recovered after a crash in the middle of archiving, is
+     * taken out of the live reservations.
+     *
+     * @param archive - the archive, which must belong to this hotel
+     * @throws IllegalStateException if the hotel already has an archive
+     */
+    public synchronized void setArchive(ReservationArchive archive) {
+        if (this.archive != null) {
+            throw new IllegalStateException("The hotel already has an archive.");
+        }
+        archive.attach(this);
+        int size = archive.size();
+        for (int i = 0; i < size; i++) {
+            ArchivedReservation archived = archive.get(i);
+            earnings.record(archived.getRoomType(), archived.getCheckInDay(), archived.allocateNights());
+            Room room = rooms.get(archived.getRoom().getName());
+            Reservation live = room == null ? null : room.getReservation(archived.getCheckInDate());
+            if (live != null && reservations.remove(live, archived.getBookingNumber())) {
+                reservationsByNumber.remove(archived.getBookingNumber(), live);
+                unindexReservation(live, archived.getBookingNumber());
+                earnings.remove(live);
+                inventory.release(live);
+                if (hrs != null) {
+                    hrs.fireReservationArchived(this, live);
+                }
+                room.removeReservation(live);
+                roomChanged(live);
+            }
+        }
+        this.archive = archive;
+    }
+
+    /**
+     * Moves the reservations that check out on or before a date from the live reservations to the
+     * hotel's archive. They stop counting as reservations of the hotel and their rooms are freed for
+     * those nights, but their earnings stay. The archive is forced to disk and the listeners are told
+     * about every reservation before anything is taken out of the hotel. If writing the archive fails,
+     * the rows written by this call are dropped again and the hotel is left as it was. If a listener
+     * such as the journal refuses a reservation, only the reservations before it are archived; the
+     * rest are dropped from the archive again and stay in the hotel.
+     *
+     * @param before - the last check-out date to archive
+     * @return the number of reservations archived
+     * @throws IllegalStateException if the hotel has no archive
+     * @throws IOException if the archive cannot be written
+     */
+    public synchronized int archiveReservations(LocalDate before) throws IOException {
+        if (archive == null) {
+            throw new IllegalStateException("The hotel has no archive.");
+        }
+        publishLock.writeLock().lock();
+        try {
+            List<Reservation> moved = new ArrayList<>();
+            long[] numbers = new long[16];
+            for (Room room : rooms.values()) {
+                for (Reservation reservation : room.getReservations()) {
+                    if (reservation.getCheckOutDay() > before.toEpochDay()) {
+                        break;
+                    }
+                    Long bookingNumber = reservations.get(reservation);
+                    if (bookingNumber == null) {
+                        continue;
+                    }
+                    if (moved.size() == numbers.length) {
+                        numbers = Arrays.copyOf(numbers, numbers.length * 2);
+                    }
+                    numbers[moved.size()] = bookingNumber;
+                    moved.add(reservation);
+                }
+            }
+            int archivedBefore = archive.size();
+            try {
+                archive.append(moved, numbers);
+                archive.force();
+            } catch (IOException | RuntimeException e) {
+                archive.truncate(archivedBefore);
+                throw e;
+            }
+            int announced = 0;
+            try {
+                while (hrs != null && announced < moved.size()) {
+                    hrs.fireReservationArchived(this, moved.get(announced));
+                    announced++;
+                }
+            } catch (RuntimeException e) {
+                // The refused reservation and the ones after it stay live, so they leave the archive again.
+                archive.truncate(archivedBefore + announced);
+                try {
+                    archive.force();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                releaseArchived(moved.subList(0, announced));
+                throw e;
+            }
+            releaseArchived(moved);
+            return moved.size();
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes reservations that are now safely in the archive, and that the listeners were told about,
+     * out of the hotel and their rooms. Nothing here can be refused, so either all of them are taken
+     * out or the call fails before any is.
+     *
+     * @param moved - the archived reservations
+     */
+    private void releaseArchived(List<Reservation> moved) {
+        LinkedHashMap<Room, List<Reservation>> byRoom = new LinkedHashMap<>();
+        for (Reservation reservation : moved) {
+            unindexReservation(reservation, takeBookingNumber(reservation));
+            inventory.release(reservation);
+            byRoom.computeIfAbsent(reservation.getRoom(), room -> new ArrayList<>()).add(reservation);
+        }
+        for (Map.Entry<Room, List<Reservation>> entry : byRoom.entrySet()) {
+            entry.getKey().removeReservations(entry.getValue());
+            for (Reservation reservation : entry.getValue()) {
+                roomChanged(reservation);
+            }
+        }
+    }
+
+    /**
+     * Checks if the hotel has any reservations.
+     *
+     * @return true if the hotel has at least one reservation, false otherwise
+     */
+    public boolean hasReservations() {
+        return !reservations.isEmpty();
+    }
+
+    /**
+     * This method marks the hotel as removed if it has no reservations, for HRS.removeHotel. The check
+     * and the mark are made under the publish lock that every booking takes, so once this returns true
+     * no booking can land in the hotel any more.
+     *
+     * @return true if the hotel is now removed, false if it has reservations
+     */
+    boolean markRemoved() {
+        publishLock.writeLock().lock();
+        try {
+            if (!reservations.isEmpty()) {
+                return false;
+            }
+            removed = true;
+            return true;
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a reservation given the guest name and check-in date.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDate - the check-in date of the reservation
+     * @return the earliest booked matching reservation, or null if there is none
+     */
+    public Reservation findReservation(String guestName, LocalDate checkInDate) {
+        ConcurrentSkipListMap<Long, Reservation> matches = reservationsByGuestDay.get(new GuestDay(guestName, (int) checkInDate.toEpochDay()));
+        Map.Entry<Long, Reservation> first = matches == null ? null : matches.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
+    /**
+     * A getter that gets all the reservations of a guest, ordered by check-in date.
+     *
+     * @param guestName - the name of the guest
+     * @return the list of the guest's reservations, or an empty list if there are none
+     */
+    public List<Reservation> getGuestReservations(String guestName) {
+        List<Reservation> history = new ArrayList<>();
+        ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<Long, Reservation>> byDate = reservationsByGuest.get(guestName);
+        if (byDate != null) {
+            for (ConcurrentSkipListMap<Long, Reservation> matches : byDate.values()) {
+                history.addAll(matches.values());
+            }
+        }
+        return history;
+    }
+   
+
+    /**
+     * Adds a new room to the hotel with the specified type.
+     * 
+     * @param type the type of the room to add
+     * @return a message indicating the room was added
+     * 
+     */
+
+    public synchronized String addRoom(Room.RoomType type) {
+        if (rooms.size() >= 50) {
+            throw new IllegalStateException("Room count cannot be more than 50.");
+        }
+        String newRoomName = name + String.format("%02d", nextRoomNumber++);
+        Room room = new Room(newRoomName, basePrice, type, rateCalendar, discountEngine);
+        if (hrs != null) {
+            hrs.fireRoomAdded(this, room);
+        }
+        ArrayList<Room> added = new ArrayList<>(1);
+        added.add(room);
+        registerRooms(added);
+        countRoom(type, 1);
+        
+        return "Room added: " + newRoomName + " - " + type;
+    }
+
+    /**
+     * This method adds a room with a known name while the hotel is being recovered from saved state.
+     * It does not notify the listeners and does not enforce the room limit.
+     *
+     * @param roomName - the name of the room
+     * @param type - the type of the room
+     * @param nextRoomNumber - the number the hotel was to give its next room once this one was added
+     */
+    synchronized void restoreRoom(String roomName, Room.RoomType type, int nextRoomNumber) {
+        ArrayList<Room> added = new ArrayList<>(1);
+        added.add(new Room(roomName, basePrice, type, rateCalendar, discountEngine));
+        registerRooms(added);
+        countRoom(type, 1);
+        this.nextRoomNumber = Math.max(this.nextRoomNumber, nextRoomNumber);
+    }
+
+    /**
+     * This method sets the number the next room added to the hotel will be given, while the hotel is being
+     * recovered from saved state.
+     *
+     * @param nextRoomNumber - the next room number
+     */
+    synchronized void restoreNextRoomNumber(int nextRoomNumber) {
+        this.nextRoomNumber = nextRoomNumber;
+    }
+
+    /**
+     * A getter that gets the number the next room added to the hotel will be given.
+     *
+     * @return the next room number
+     */
+    synchronized int getNextRoomNumber() {
+        return nextRoomNumber;
+    }
+
+    /**
+     * This method changes the room counts of the hotel after rooms of a type were added or removed.
+     *
+     * @param type - the type of the rooms
+     * @param change - the number of rooms added, negative if rooms were removed
+     */
+    private void countRoom(Room.RoomType type, int change) {
+        roomCount += change;
+        switch (type) {
+            case STANDARD:
+                standardRoomCount += change;
+                break;
+            case DELUXE:
+                deluxeRoomCount += change;
+                break;
+            case EXECUTIVE:
+                executiveRoomCount += change;
+                break;
+        }
+    }
+    
+    /**
+     * Adds multiple rooms of the specified type to the hotel.
+     * 
+     * @param type the type of rooms to add
+     * @param count the number of rooms to add
+     */
+    public synchronized void addRooms(Room.RoomType type, int count) {
+        ArrayList<Room> added = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String roomName = name + String.format("%02d", nextRoomNumber++);
+            Room room = new Room(roomName, basePrice, type, rateCalendar, discountEngine);
+            if (hrs != null) {
+                hrs.fireRoomAdded(this, room);
+            }
+            added.add(room);
+        }
+        registerRooms(added);
+    }
+
+    /**
+     * This method publishes new name and room type indexes that include the given rooms.
+     *
+     * @param added - the rooms to add
+     */
+    private void registerRooms(List<Room> added) {
+        LinkedHashMap<String, Room> newRooms = new LinkedHashMap<>(rooms);
+        EnumMap<Room.RoomType, LinkedHashMap<String, Room>> newRoomsByType = copyRoomsByType();
+        for (Room room : added) {
+            newRooms.put(room.getName(), room);
+            newRoomsByType.get(room.getType()).put(room.getName(), room);
+        }
+        rooms = newRooms;
+        roomsByType = newRoomsByType;
+        for (Room room : added) {
+            assignmentStrategy.roomAdded(room);
+        }
+    }
+
+    /**
+     * This method copies the room type index so that a changed copy can be published.
+     *
+     * @return a copy of the room type index
+     */
+    private EnumMap<Room.RoomType, LinkedHashMap<String, Room>> copyRoomsByType() {
+        EnumMap<Room.RoomType, LinkedHashMap<String, Room>> copy = new EnumMap<>(Room.RoomType.class);
+        for (Map.Entry<Room.RoomType, LinkedHashMap<String, Room>> entry : roomsByType.entrySet()) {
+            copy.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * This method removes a room from the hotel by its name.
+     * 
+     * @param roomName the name of the room to remove
+     * @return a message indicating the room was removed
+     * 
+     */
+    public synchronized String removeRoom(String roomName) {
+        Room roomToRemove = rooms.get(roomName);
+        if (roomToRemove == null) {
+            throw new IllegalArgumentException("No room exists with the given name.");
+        } else if (!roomToRemove.markRemoved()) {
+            throw new IllegalStateException("Cannot remove room as it has an existing reservation.");
+        } else {
+            LinkedHashMap<String, Room> newRooms = new LinkedHashMap<>(rooms);
+            EnumMap<Room.RoomType, LinkedHashMap<String, Room>> newRoomsByType = copyRoomsByType();
+            newRooms.remove(roomName);
+            newRoomsByType.get(roomToRemove.getType()).remove(roomName);
+            rooms = newRooms;
+            roomsByType = newRoomsByType;
+            countRoom(roomToRemove.getType(), -1);
+            assignmentStrategy.roomRemoved(roomToRemove);
+            if (hrs != null) {
+                hrs.fireRoomRemoved(this, roomToRemove);
+            }
+            return "Room removed: " + roomName;
+        }
+    }
+
+    /**
+     * 
+     * Removes a reservation from the hotel by guest name and check-in date.
+     * @param guestName the name of the guest
+     * @param checkInDate the check-in date of the reservation
+     * @return a message indicating the reservation was removed
+     */
+    public String removeReservation(String guestName, LocalDate checkInDate) {
+        Reservation reservationToRemove = findReservation(guestName, checkInDate);
+        if (reservationToRemove == null || !cancel(reservationToRemove)) {
+            throw new IllegalArgumentException("No reservation found for the given guest and check-in date.");
+        } else {
+            return "Reservation removed for " + guestName + " on " + checkInDate;
+        }
+    }
+
+    /**
+     * This method displays the names of all rooms in the hotel.
+     */
+    public void displayRooms() {
+        for (Room room : rooms.values()) {
+            System.out.println(room.getName() + " - " + room.getType());
+        }
+    }
+
+
+     /**
+     * This method calculates the total earnings for the current month based on reservations.
+     *
+     * @return the total earnings for the current month
+     */
+    public double calculateEarnings() {
+        return calculateEarnings(YearMonth.now());
+    }
+
+    /**
+     * This method gets the total earnings of the nights booked in the given month. A stay that crosses
+     * into another month only counts the nights that fall in this one.
+     *
+     * @param month - the month, including its year
+     * @return the total earnings for the month
+     */
+    public double calculateEarnings(YearMonth month) {
+        return earnings.getEarnings(month);
+    }
+
+    /**
+     * This method gets the earnings of the nights booked in rooms of one type in the given month.
+     *
+     * @param month - the month, including its year
+     * @param type - the room type
+     * @return the earnings of the room type for the month
+     */
+    public double calculateEarnings(YearMonth month, Room.RoomType type) {
+        return earnings.getEarnings(month, type);
+    }
+
+    /**
+     * This method gets the total earnings of the nights booked from one date to another.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @return the total earnings for the nights
+     */
+    public double calculateEarnings(LocalDate from, LocalDate to) {
+        return earnings.getEarnings(from, to);
+    }
+
+    /**
+     * This method gets the earnings of the nights booked in rooms of one type from one date to another.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @param type - the room type
+     * @return the earnings of the room type for the nights
+     */
+    public double calculateEarnings(LocalDate from, LocalDate to, Room.RoomType type) {
+        return earnings.getEarnings(from, to, type);
+    }
+
+    /**
+     * This method gets the exact total earnings in cents of the nights booked from one date to another,
+     * such as for reconciling against payments.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @return the total earnings for the nights, in cents
+     */
+    public long calculateEarningsCents(LocalDate from, LocalDate to) {
+        return earnings.getEarningsCents(from, to);
+    }
+
+    /**
+     * This method gets the exact earnings in cents of the nights booked in rooms of one type from one date to another.
+     *
+     * @param from - the first night
+     * @param to - the last night, included
+     * @param type - the room type
+     * @return the earnings of the room type for the nights, in cents
+     */
+    public long calculateEarningsCents(LocalDate from, LocalDate to, Room.RoomType type) {
+        return earnings.getEarningsCents(from, to, type);
+    }
+
+
+     /**
+     * This method isplays the availability of rooms for a given date.
+     *
+     * @param date - the date to check availability for
+     */
+    public void getRoomAvailability(LocalDate date) {
+        System.out.println("Availability for the date: " + date);
+        for (Room room : rooms.values()) {
+            System.out.print("Room Name: " + room.getName());
+            if (room.isAvailable(date)) {
+                System.out.println(" - Available");
+            } else {
+                System.out.println(" - Booked");
+            }
+        }
+    }
+
+    /**
+     * This method displays information about a room by its name.
+     *
+     * @param roomName the name of the room to display information for
+     */
+    public void getRoomInfo(String roomName) {
+        Room room = rooms.get(roomName);
+        if (room == null) {
+            System.out.println("No room exists with the given name.");
+            return;
+        }
+        System.out.println("Room Name: " + room.getName());
+        System.out.println("Price per Night: " + room.getPrice());
+        System.out.println("Availability for the month:");
+        LocalDate now = LocalDate.now();
+        for (int i = 1; i <= now.lengthOfMonth(); i++) {
+            LocalDate date = now.withDayOfMonth(i);
+            if (room.isAvailable(date)) {
+                System.out.println(date + ": Available");
+            } else {
+                System.out.println(date + ": Booked");
+            }
+        }
+    }
+
+
+    /**
+     * This method displays information about a reservation given a guest name and check-in date.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDate - the check-in date of the reservation
+     */
+    public void getReservationInfo(String guestName, LocalDate checkInDate) {
+        Reservation reservation = findReservation(guestName, checkInDate);
+        if (reservation == null) {
+            System.out.println("No reservation found for the given guest and check-in date.");
+            return;
+        }
+        System.out.println("Guest Name: " + reservation.getGuestName());
+        System.out.println("Room Name: " + reservation.getRoom().getName());
+        System.out.println("Check-In Date: " + reservation.getCheckInDate());
+        System.out.println("Check-Out Date: " + reservation.getCheckOutDate());
+        System.out.println("Total Price: " + reservation.getTotalPrice());
+        System.out.println("Price Breakdown per Night:");
+        LocalDate date = reservation.getCheckInDate();
+        while (date.isBefore(reservation.getCheckOutDate())) {
+            System.out.println(date + ": " + reservation.getRoom().getPrice());
+            date = date.plusDays(1);
+        }
+    }
+
+    /**
+     * This method validates the date range for a reservation.
+     *
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @return true if the date range is valid, false if not
+     */
+    public boolean isValidDateRange(LocalDate checkInDate, LocalDate checkOutDate) {
+        if (checkOutDate.getDayOfMonth() == 1)
+            return false;
+        if (checkInDate.getDayOfMonth() == 31)
+            return false;
+        return checkOutDate.isAfter(checkInDate);
+    }
+
+
+    /**
+     * This method counts the free rooms of each type for a stay and quotes the types that have one,
+     * without booking anything. A date range the hotel does not accept has no free rooms.
+     *
+     * @param roomType - the room type to check, or null to check every type
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param discountCode - an optional discount code for the quotes
+     * @return the availability of the hotel for the stay
+     */
+    public HotelAvailability checkAvailability(Room.RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate, String discountCode) {
+        Room.RoomType[] types = Room.RoomType.values();
+        int[] availableRooms = new int[types.length];
+        Quote[] quotes = new Quote[types.length];
+        if (isValidDateRange(checkInDate, checkOutDate)) {
+            long checkInDay = checkInDate.toEpochDay();
+            long checkOutDay = checkOutDate.toEpochDay();
+            EnumMap<Room.RoomType, LinkedHashMap<String, Room>> byType = roomsByType;
+            for (Room.RoomType type : types) {
+                if ((roomType != null && type != roomType)
+                        || inventory.getMaxBooked(type, checkInDay, checkOutDay) >= byType.get(type).size()) {
+                    continue;
+                }
+                int count = 0;
+                for (Room room : byType.get(type).values()) {
+                    if (room.isAvailable(checkInDay, checkOutDay)) {
+                        count++;
+                    }
+                }
+                availableRooms[type.ordinal()] = count;
+                if (count > 0) {
+                    quotes[type.ordinal()] = quoteCache.get(type, checkInDate, checkOutDate, discountCode);
+                }
+            }
+        }
+        return new HotelAvailability(this, availableRooms, quotes);
+    }
+
+    /**
+     * This method checks if every room of a type is booked on some night of a stay, from the hotel's
+     * booked counts and without looking at any room. A stay that is not sold out may still have no
+     * single room free for all of its nights.
+     *
+     * @param roomType - the room type
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @return true if no room of the type can be free for the whole stay, false otherwise
+     */
+    public boolean isSoldOut(Room.RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return inventory.getMaxBooked(roomType, checkInDate.toEpochDay(), checkOutDate.toEpochDay())
+                >= roomsByType.get(roomType).size();
+    }
+
+    /**
+     * This method checks if a room is available for the given date range.
+     *
+     * @param room - the room to check availability for
+     * @param checkInDate -  the check-in date
+     * @param checkOutDate - the check-out date
+     * @return true if the room is available, false if not
+     */
+    public boolean isRoomAvailable(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        return room.isAvailable(checkInDate, checkOutDate);
+    }
+
+
+     /**
+     * Simulates a booking process and returns a reservation if successful.
+     * 
+     * @param guestName the name of the guest
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @param roomType the type of room to book
+     * @param discountCode an optional discount code
+     * @return the reservation if a room is successfully booked, null otherwise
+     */
+    public Reservation simulateBooking(String guestName, LocalDate checkInDate, LocalDate checkOutDate, Room.RoomType roomType, String discountCode) {
+        if (!isValidDateRange(checkInDate, checkOutDate)) {
+            throw new IllegalArgumentException("Invalid date range. Check-out date must be after check-in date.");
+        }
+        if (isSoldOut(roomType, checkInDate, checkOutDate)) {
+            return null;
+        }
+        return assignRoom(guestName, checkInDate, checkOutDate, roomType, discountCode);
+    }
+
+    /**
+     * Books a batch of requests, such as a group or block reservation, all or nothing.
+     * Every request's date range is checked before anything is booked. Each request gets its room
+     * from the hotel's room assignment strategy. With the first-fit strategy, requests for the same
+     * room type and dates share one pass over the rooms of that type, so a block of identical requests
+     * never re-checks a room that was already ruled out.
+     * If any request cannot be booked, every reservation made by the batch is cancelled again. A
+     * reservation whose cancellation fails, such as when the journal refuses it, is kept going while
+     * the rest are cancelled, and its result reports it as still booked.
+     *
+     * @param requests - the booking requests
+     * @return the result of each request, in the same order as the requests
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests) {
+        int failed = -1;
+        String failure = null;
+        for (int i = 0; i < requests.size() && failed < 0; i++) {
+            BookingRequest request = requests.get(i);
+            if (!isValidDateRange(request.getCheckInDate(), request.getCheckOutDate())) {
+                failed = i;
+                failure = "Invalid date range. Check-out date must be after check-in date.";
+            }
+        }
+
+        Reservation[] booked = new Reservation[requests.size()];
+        HashMap<String, Iterator<Room>> cursors = assignmentStrategy instanceof FirstFitAssignment ? new HashMap<>() : null;
+        for (int i = 0; i < requests.size() && failed < 0; i++) {
+            BookingRequest request = requests.get(i);
+            try {
+                if (!isSoldOut(request.getRoomType(), request.getCheckInDate(), request.getCheckOutDate())) {
+                    booked[i] = cursors != null ? bookNextFree(cursors, request)
+                            : assignRoom(request.getGuestName(), request.getCheckInDate(), request.getCheckOutDate(), request.getRoomType(), request.getDiscountCode());
+                }
+                if (booked[i] == null) {
+                    failed = i;
+                    failure = "No available rooms of the selected type for the given dates.";
+                }
+            } catch (RuntimeException e) {
+                failed = i;
+                failure = "Could not be booked: " + e.getMessage();
+            }
+        }
+
+        List<BookingResult> results = new ArrayList<>(requests.size());
+        if (failed >= 0) {
+            String[] leftBooked = new String[requests.size()];
+            for (int i = 0; i < booked.length; i++) {
+                if (booked[i] == null) {
+                    continue;
+                }
+                try {
+                    cancel(booked[i]);
+                    booked[i] = null;
+                } catch (RuntimeException e) {
+                    // Keep cancelling the others, so as little of the batch as possible stays booked.
+                    leftBooked[i] = "Booked room " + booked[i].getRoom().getName() + ", but it could not be cancelled after request "
+                            + (failed + 1) + " of the batch failed: " + e.getMessage();
+                }
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                String message = i == failed ? failure
+                        : leftBooked[i] != null ? leftBooked[i]
+                        : "Not booked because request " + (failed + 1) + " of the batch failed.";
+                results.add(new BookingResult(requests.get(i), booked[i], message));
+            }
+        } else {
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(new BookingResult(requests.get(i), booked[i], "Booked room " + booked[i].getRoom().getName() + "."));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Adds many existing reservations to the hotel at once, such as when reloading saved bookings.
+     * Each room gets its reservations in a single update. The reservations must be for rooms of this hotel.
+     *
+     * @param restored - the reservations to add
+     * @throws IllegalArgumentException if a reservation is for a room that is not in this hotel
+     * @throws IllegalStateException if a reservation overlaps another reservation of its room
+     */
+    public void restoreReservations(List<Reservation> restored) {
+        restoreReservations(restored, null);
+    }
+
+    /**
+     * Adds many existing reservations to the hotel at once, keeping the booking numbers they were given
+     * before. Used when the hotel is recovered from saved state, so the listeners are not notified.
+     *
+     * @param restored - the reservations to add
+     * @param bookingNumbers - the booking number of each reservation, in the same order
+     */
+    void restoreReservations(List<Reservation> restored, long[] bookingNumbers) {
+        LinkedHashMap<Room, List<Reservation>> byRoom = new LinkedHashMap<>();
+        IdentityHashMap<Reservation, Long> numbers = bookingNumbers == null ? null : new IdentityHashMap<>(restored.size());
+        for (int i = 0; i < restored.size(); i++) {
+            Reservation reservation = restored.get(i);
+            if (rooms.get(reservation.getRoom().getName()) != reservation.getRoom()) {
+                throw new IllegalArgumentException("Room " + reservation.getRoom().getName() + " is not in this hotel.");
+            }
+            byRoom.computeIfAbsent(reservation.getRoom(), room -> new ArrayList<>()).add(reservation);
+            if (numbers != null) {
+                numbers.put(reservation, bookingNumbers[i]);
+                nextBookingNumber.accumulateAndGet(bookingNumbers[i] + 1, Math::max);
+            }
+        }
+        for (Map.Entry<Room, List<Reservation>> entry : byRoom.entrySet()) {
+            entry.getKey().restoreReservations(entry.getValue());
+            for (Reservation reservation : entry.getValue()) {
+                roomChanged(reservation);
+                long bookingNumber = numbers == null ? nextBookingNumber.getAndIncrement() : numbers.get(reservation);
+                putBookingNumber(reservation, bookingNumber);
+                if (numbers == null && hrs != null) {
+                    hrs.fireReservationBooked(this, reservation, bookingNumber);
+                }
+                indexReservation(reservation, bookingNumber);
+                earnings.record(reservation);
+                inventory.book(reservation);
+            }
+        }
+    }
+
+    /**
+     * A getter that gets the reservations of the hotel with their booking numbers, for saving the hotel.
+     *
+     * @return an unmodifiable live view of the reservations and their booking numbers
+     */
+    Map<Reservation, Long> getBookingNumbers() {
+        return Collections.unmodifiableMap(reservations);
+    }
+
+    /**
+     * Books a room of a type picked by the room assignment strategy. If another booking takes the
+     * picked room first, the strategy is asked again; each such retry means a room was taken, so
+     * there are never more retries than rooms.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param roomType - the type of room to book
+     * @param discountCode - an optional discount code
+     * @return the reservation if a room was booked, null if no room of the type is free
+     */
+    private Reservation assignRoom(String guestName, LocalDate checkInDate, LocalDate checkOutDate, Room.RoomType roomType, String discountCode) {
+        RoomAssignmentStrategy strategy = assignmentStrategy;
+        long checkInDay = checkInDate.toEpochDay();
+        long checkOutDay = checkOutDate.toEpochDay();
+        Quote quote = null;
+        Collection<Room> candidates = roomsByType.get(roomType).values();
+        for (int attempt = 0; attempt <= candidates.size(); attempt++) {
+            Room room = strategy.choose(roomType, candidates, checkInDay, checkOutDay);
+            if (room == null) {
+                return null;
+            }
+            if (quote == null) {
+                quote = quoteCache.get(roomType, checkInDate, checkOutDate, discountCode);
+            }
+            Reservation reservation = tryBook(room, guestName, quote);
+            if (reservation != null) {
+                strategy.assigned(room);
+                return reservation;
+            }
+            candidates = roomsByType.get(roomType).values();
+        }
+        return null;
+    }
+
+    /**
+     * Books the first free room of a batch request, continuing the pass over the rooms left off by the
+     * previous request for the same room type and dates. A room passed over is either taken for those
+     * dates or booked by the batch itself, so it is never checked again.
+     *
+     * @param cursors - the position of the pass for each room type and dates, shared by the batch
+     * @param request - the booking request
+     * @return the reservation if a room was booked, null if no room of the type is left free
+     */
+    private Reservation bookNextFree(Map<String, Iterator<Room>> cursors, BookingRequest request) {
+        String key = request.getRoomType() + "/" + request.getCheckInDate() + "/" + request.getCheckOutDate();
+        Iterator<Room> cursor = cursors.computeIfAbsent(key, k -> roomsByType.get(request.getRoomType()).values().iterator());
+        long checkInDay = request.getCheckInDate().toEpochDay();
+        long checkOutDay = request.getCheckOutDate().toEpochDay();
+        Quote quote = null;
+        while (cursor.hasNext()) {
+            Room room = cursor.next();
+            if (!room.isAvailable(checkInDay, checkOutDay)) {
+                continue;
+            }
+            if (quote == null) {
+                quote = quoteCache.get(request.getRoomType(), request.getCheckInDate(), request.getCheckOutDate(), request.getDiscountCode());
+            }
+            Reservation reservation = tryBook(room, request.getGuestName(), quote);
+            if (reservation != null) {
+                return reservation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Books the given room for the quoted stay if it is free, and records the reservation in the hotel.
+     * The reservation is published to the hotel under the read lock of the publish lock, so archiving
+     * never sees a booking that is only half recorded and a removed hotel takes no bookings. If a
+     * listener fails, such as a journal that cannot be written, the room is freed again.
+     *
+     * @param room - the room to book
+     * @param guestName - the name of the guest
+     * @param quote - the quote of the stay, for the room's type
+     * @return the reservation if the room was booked, null if it is not free
+     * @throws IllegalStateException if the hotel was removed
+     */
+    private Reservation tryBook(Room room, String guestName, Quote quote) {
+        if (!room.isAvailable(quote.getCheckInDay(), quote.getCheckOutDay())) {
+            return null;
+        }
+        Reservation reservation = new Reservation(guestName, room, quote);
+        if (!room.tryReserve(reservation)) {
+            return null;
+        }
+        roomChanged(reservation);
+        publishLock.readLock().lock();
+        try {
+            if (removed) {
+                room.removeReservation(reservation);
+                roomChanged(reservation);
+                throw new IllegalStateException("The hotel has been removed.");
+            }
+            long bookingNumber = nextBookingNumber.getAndIncrement();
+            putBookingNumber(reservation, bookingNumber);
+            if (hrs != null) {
+                try {
+                    hrs.fireReservationBooked(this, reservation, bookingNumber);
+                } catch (RuntimeException e) {
+                    // A listener such as the journal refused the booking, so the hotel is left as it was.
+                    takeBookingNumber(reservation);
+                    room.removeReservation(reservation);
+                    roomChanged(reservation);
+                    throw e;
+                }
+            }
+            indexReservation(reservation, bookingNumber);
+            earnings.record(reservation);
+            inventory.book(reservation);
+        } finally {
+            publishLock.readLock().unlock();
+        }
+        return reservation;
+    }
+
+    /**
+     * Cancels a reservation, removing it from the hotel, the guest index, the earnings, and its room.
+     * If a listener fails, such as a journal that cannot be written, the reservation is kept.
+     *
+     * @param reservation - the reservation to cancel
+     * @return true if the reservation was cancelled, false if it was already gone
+     * @throws IllegalStateException if the journal could not record the cancellation
+     */
+    boolean cancel(Reservation reservation) {
+        Long bookingNumber;
+        publishLock.readLock().lock();
+        try {
+            bookingNumber = takeBookingNumber(reservation);
+            if (bookingNumber == null) {
+                return false;
+            }
+        } finally {
+            publishLock.readLock().unlock();
+        }
+        if (hrs != null) {
+            try {
+                hrs.fireReservationCancelled(this, reservation);
+            } catch (RuntimeException e) {
+                // A listener such as the journal refused the cancellation, so the reservation stays.
+                putBookingNumber(reservation, bookingNumber);
+                throw e;
+            }
+        }
+        unindexReservation(reservation, bookingNumber);
+        earnings.remove(reservation);
+        inventory.release(reservation);
+        reservation.getRoom().removeReservation(reservation);
+        roomChanged(reservation);
+        return true;
+    }
+
+    /**
+     * This method adds a reservation to the hotel's reservations under its booking number.
+     *
+     * @param reservation - the reservation
+     * @param bookingNumber - the booking number of the reservation
+     */
+    private void putBookingNumber(Reservation reservation, long bookingNumber) {
+        reservations.put(reservation, bookingNumber);
+        reservationsByNumber.put(bookingNumber, reservation);
+    }
+
+    /**
+     * This method takes a reservation out of the hotel's reservations.
+     *
+     * @param reservation - the reservation
+     * @return the booking number the reservation had, or null if it was not in the hotel
+     */
+    private Long takeBookingNumber(Reservation reservation) {
+        Long bookingNumber = reservations.remove(reservation);
+        if (bookingNumber != null) {
+            reservationsByNumber.remove(bookingNumber, reservation);
+        }
+        return bookingNumber;
+    }
+
+    /**
+     * This method tells the room assignment strategy that a reservation was added to or taken from its room.
+     *
+     * @param reservation - the reservation
+     */
+    private void roomChanged(Reservation reservation) {
+        assignmentStrategy.roomChanged(reservation.getRoom(), reservation.getCheckInDay(), reservation.getCheckOutDay());
+    }
+
+    /**
+     * This method adds a reservation to the guest index, in place.
+     *
+     * @param reservation - the reservation to index
+     * @param bookingNumber - the booking number of the reservation
+     */
+    private void indexReservation(Reservation reservation, long bookingNumber) {
+        reservationsByGuest.compute(reservation.getGuestName(), (guest, byDate) -> {
+            if (byDate == null) {
+                byDate = new ConcurrentSkipListMap<>();
+            }
+            ConcurrentSkipListMap<Long, Reservation> matches = byDate.get(reservation.getCheckInDay());
+            if (matches == null) {
+                matches = new ConcurrentSkipListMap<>();
+                byDate.put(reservation.getCheckInDay(), matches);
+                reservationsByGuestDay.put(new GuestDay(guest, reservation.getCheckInDay()), matches);
+            }
+            matches.put(bookingNumber, reservation);
+            return byDate;
+        });
+    }
+
+    /**
+     * This method removes a reservation from the guest index, in place, dropping entries that become empty.
+     *
+     * @param reservation - the reservation to remove from the index
+     * @param bookingNumber - the booking number of the reservation
+     */
+    private void unindexReservation(Reservation reservation, long bookingNumber) {
+        reservationsByGuest.computeIfPresent(reservation.getGuestName(), (guest, byDate) -> {
+            ConcurrentSkipListMap<Long, Reservation> matches = byDate.get(reservation.getCheckInDay());
+            if (matches == null || !matches.remove(bookingNumber, reservation)) {
+                return byDate;
+            }
+            if (matches.isEmpty()) {
+                byDate.remove(reservation.getCheckInDay());
+                reservationsByGuestDay.remove(new GuestDay(guest, reservation.getCheckInDay()));
+            }
+            return byDate.isEmpty() ? null : byDate;
+        });
+    }
+
+    /**
+     * The GuestDay class identifies the reservations of a guest that check in on one day.
+     */
+    private static final class GuestDay {
+        /**
+         * The name of the guest.
+         */
+        private final String guestName;
+
+        /**
+         * The check-in epoch day.
+         */
+        private final int checkInDay;
+
+        /**
+         * The constructor that creates a key for a guest and check-in day.
+         *
+         * @param guestName - the name of the guest
+         * @param checkInDay - the check-in epoch day
+         */
+        private GuestDay(String guestName, int checkInDay) {
+            this.guestName = guestName;
+            this.checkInDay = checkInDay;
+        }
+
+        /**
+         * Two keys are equal if they are for the same guest and check-in day.
+         *
+         * @param other - the object to compare with
+         * @return true if the other object is a key for the same guest and day
+         */
+        public boolean equals(Object other) {
+            if (!(other instanceof GuestDay)) {
+                return false;
+            }
+            GuestDay key = (GuestDay) other;
+            return checkInDay == key.checkInDay && guestName.equals(key.guestName);
+        }
+
+        /**
+         * The hash code of the guest and check-in day.
+         *
+         * @return the hash code
+         */
+        public int hashCode() {
+            return 31 * guestName.hashCode() + checkInDay;
+        }
+    }
+}
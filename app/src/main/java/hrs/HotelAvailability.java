@@ -0,0 +1,130 @@
+package hrs;
+
+import java.util.Comparator;
+
+/**
+ * The HotelAvailability class is one hotel's answer to an availability search: how many rooms of each
+ * type are free for the whole stay, and the quoted price of each type that has a free room.
+ */
+public class HotelAvailability {
+    /**
+     * The order of search results: cheapest lowest quote first, then the hotel with more free rooms,
+     * then by hotel name.
+     */
+    static final Comparator<HotelAvailability> RANKING = Comparator
+            .comparingLong(HotelAvailability::getLowestTotalCents)
+            .thenComparing(Comparator.comparingInt((HotelAvailability availability) -> availability.getAvailableRooms()).reversed())
+            .thenComparing(availability -> availability.hotelName);
+
+    /**
+     * The hotel.
+     */
+    private final Hotel hotel;
+
+    /**
+     * The name of the hotel when it was searched, so ranking does not change if it is renamed meanwhile.
+     */
+    private final String hotelName;
+
+    /**
+     * The number of free rooms of each type, indexed by the type's ordinal; 0 for types not searched.
+     */
+    private final int[] availableRooms;
+
+    /**
+     * The quote of each type that has a free room, indexed by the type's ordinal; null for the others.
+     */
+    private final Quote[] quotes;
+
+    /**
+     * The lowest quoted total in cents, or Long.MAX_VALUE if no type has a free room.
+     */
+    private final long lowestTotalCents;
+
+    /**
+     * The constructor that creates the availability of a hotel.
+     *
+     * @param hotel - the hotel
+     * @param availableRooms - the number of free rooms of each type, indexed by ordinal
+     * @param quotes - the quote of each type with a free room, indexed by ordinal
+     */
+    HotelAvailability(Hotel hotel, int[] availableRooms, Quote[] quotes) {
+        this.hotel = hotel;
+        this.hotelName = hotel.getName();
+        this.availableRooms = availableRooms;
+        this.quotes = quotes;
+        long lowest = Long.MAX_VALUE;
+        for (Quote quote : quotes) {
+            if (quote != null) {
+                lowest = Math.min(lowest, quote.getTotalCents());
+            }
+        }
+        this.lowestTotalCents = lowest;
+    }
+
+    /**
+     * A getter that gets the hotel.
+     *
+     * @return the hotel
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    /**
+     * A getter that gets the number of rooms of a type that are free for the whole stay.
+     *
+     * @param type - the room type
+     * @return the number of free rooms, or 0 if the type was not searched
+     */
+    public int getAvailableRooms(Room.RoomType type) {
+        return availableRooms[type.ordinal()];
+    }
+
+    /**
+     * A getter that gets the number of rooms of the searched types that are free for the whole stay.
+     *
+     * @return the number of free rooms
+     */
+    public int getAvailableRooms() {
+        int total = 0;
+        for (int count : availableRooms) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * A getter that gets the quoted price of a type of room.
+     *
+     * @param type - the room type
+     * @return the quote, or null if the type was not searched or has no free room
+     */
+    public Quote getQuote(Room.RoomType type) {
+        return quotes[type.ordinal()];
+    }
+
+    /**
+     * A getter that gets the cheapest quote among the types with a free room.
+     *
+     * @return the cheapest quote, or null if no type has a free room
+     */
+    public Quote getLowestQuote() {
+        Quote lowest = null;
+        for (Quote quote : quotes) {
+            if (quote != null && (lowest == null || quote.getTotalCents() < lowest.getTotalCents())) {
+                lowest = quote;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * A getter that gets the lowest quoted total in cents, used for ranking.
+     *
+     * @return the lowest total in cents, or Long.MAX_VALUE if no type has a free room
+     */
+    long getLowestTotalCents() {
+        return lowestTotalCents;
+    }
+}
@@ -0,0 +1,105 @@
+package hrs;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The LeastRecentlyUsedAssignment class gives a booking the free room that was booked least recently
+ * through this strategy, spreading wear and housekeeping across the rooms. Rooms never booked through
+ * it come first, in the order they were added.
+ * The rooms of each type are kept ordered by when they were last used, so a pick walks them from the
+ * least recently used one and stops at the first that is free.
+ */
+public class LeastRecentlyUsedAssignment implements RoomAssignmentStrategy {
+    /**
+     * The counter that orders the rooms added to the strategy. It counts up from the lowest value, so
+     * rooms never booked come before every room that was.
+     */
+    private final AtomicLong added = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * The counter that orders the bookings made through the strategy.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * The time each room was last booked through the strategy, as a value of the clock, or the time
+     * it was added if it never was.
+     */
+    private final ConcurrentHashMap<Room, Long> lastUsed = new ConcurrentHashMap<>();
+
+    /**
+     * The rooms of each type keyed by the time in lastUsed, least recently used first.
+     */
+    private final EnumMap<Room.RoomType, ConcurrentSkipListMap<Long, Room>> byLastUse = new EnumMap<>(Room.RoomType.class);
+
+    /**
+     * The constructor that creates a strategy with no rooms yet.
+     */
+    public LeastRecentlyUsedAssignment() {
+        for (Room.RoomType type : Room.RoomType.values()) {
+            byLastUse.put(type, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Picks the free room that was booked least recently.
+     *
+     * @param roomType - the requested room type
+     * @param rooms - the rooms of the requested type, in the order they were added to the hotel
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the least recently used free room, or null if none of the rooms is free
+     */
+    public Room choose(Room.RoomType roomType, Collection<Room> rooms, long checkInDay, long checkOutDay) {
+        for (Room room : byLastUse.get(roomType).values()) {
+            if (room.getFreeNightsAround(checkInDay, checkOutDay) >= 0) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records that a room was just booked, moving it to the end of its type's order.
+     *
+     * @param room - the room that was booked
+     */
+    public void assigned(Room room) {
+        long now = clock.incrementAndGet();
+        lastUsed.computeIfPresent(room, (key, previous) -> {
+            ConcurrentSkipListMap<Long, Room> order = byLastUse.get(key.getType());
+            order.remove(previous);
+            order.put(now, key);
+            return now;
+        });
+    }
+
+    /**
+     * Adds a room to the order of its type, after the other rooms never booked.
+     *
+     * @param room - the room
+     */
+    public void roomAdded(Room room) {
+        lastUsed.computeIfAbsent(room, key -> {
+            long time = added.getAndIncrement();
+            byLastUse.get(key.getType()).put(time, key);
+            return time;
+        });
+    }
+
+    /**
+     * Forgets a removed room.
+     *
+     * @param room - the removed room
+     */
+    public void roomRemoved(Room room) {
+        lastUsed.computeIfPresent(room, (key, previous) -> {
+            byLastUse.get(key.getType()).remove(previous);
+            return null;
+        });
+    }
+}
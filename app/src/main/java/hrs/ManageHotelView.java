@@ -1,3 +1,5 @@
+package hrs;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
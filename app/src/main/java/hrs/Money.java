@@ -0,0 +1,134 @@
+package hrs;
+
+/**
+ * The Money class holds the fixed-point arithmetic used for prices. Amounts are whole cents in a long,
+ * and multipliers and discounts are whole basis points (1/10000), so every price is computed exactly and
+ * the same way every time. Rounding only happens where a rate is applied, and always half away from zero.
+ *
+ * The double amounts of the public API are converted at the edges with toCents and toAmount.
+ */
+public final class Money {
+    /**
+     * The number of cents in one unit of currency.
+     */
+    public static final long CENTS_PER_UNIT = 100;
+
+    /**
+     * The number of basis points in a multiplier of 1.
+     */
+    public static final int ONE = 10_000;
+
+    /**
+     * This constructor is private since the class only has static methods.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to whole cents, rounding to the nearest cent.
+     *
+     * @param amount - the amount
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts cents back to an amount.
+     *
+     * @param cents - the amount in cents
+     * @return the amount
+     */
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Converts a multiplier to basis points, rounding to the nearest basis point.
+     *
+     * @param multiplier - the multiplier, such as 1.2 for 120%
+     * @return the multiplier in basis points
+     */
+    public static int toBasisPoints(double multiplier) {
+        return Math.toIntExact(Math.round(multiplier * ONE));
+    }
+
+    /**
+     * Multiplies an amount by a rate in basis points, rounding to the nearest cent.
+     *
+     * @param cents - the amount in cents
+     * @param basisPoints - the rate in basis points
+     * @return the product in cents
+     */
+    public static long applyRate(long cents, long basisPoints) {
+        return divide(Math.multiplyExact(cents, basisPoints), ONE);
+    }
+
+    /**
+     * Takes a percentage discount off an amount, rounding the discounted amount to the nearest cent.
+     *
+     * @param cents - the amount in cents
+     * @param discountBasisPoints - the discount in basis points, such as 1000 for 10% off
+     * @return the discounted amount in cents
+     */
+    public static long discount(long cents, int discountBasisPoints) {
+        return applyRate(cents, ONE - discountBasisPoints);
+    }
+
+    /**
+     * Sums a range of amounts. The loop is a plain long reduction that the JIT compiler can vectorize.
+     *
+     * @param cents - the amounts in cents
+     * @param from - the first index
+     * @param to - the index after the last one
+     * @return the sum in cents
+     */
+    public static long sum(long[] cents, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += cents[i];
+        }
+        return total;
+    }
+
+    /**
+     * Splits a total into parts proportional to the given weights, such as a discounted total into
+     * nights in proportion to their listed prices. Each part is rounded from the running total, so the
+     * parts always add up to exactly the total. If all the weights are zero, the last part gets it all.
+     *
+     * @param totalCents - the total to split, in cents
+     * @param weights - the weight of each part
+     * @param parts - the array to fill with the parts, as long as the weights
+     */
+    public static void allocate(long totalCents, long[] weights, long[] parts) {
+        long weight = sum(weights, 0, weights.length);
+        long running = 0;
+        long allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            long through;
+            if (i == weights.length - 1) {
+                through = totalCents;
+            } else if (weight == 0) {
+                through = 0;
+            } else {
+                through = divide(Math.multiplyExact(running, totalCents), weight);
+            }
+            parts[i] = through - allocated;
+            allocated = through;
+        }
+    }
+
+    /**
+     * Divides by a positive divisor, rounding half away from zero.
+     *
+     * @param dividend - the number to divide
+     * @param divisor - the positive number to divide by
+     * @return the rounded quotient
+     */
+    private static long divide(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0 ? (dividend + half) / divisor : -((half - dividend) / divisor);
+    }
+}
@@ -0,0 +1,193 @@
+package hrs;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The OccupancyCalendar class is a compact bitmap of the nights a room is booked, indexed by epoch day.
+ * The bitmap is split into segments of 384 days (six 64-bit words), which are only allocated for the
+ * periods that actually have bookings.
+ *
+ * A segment costs 64 bytes for its long[6] array plus about 48 bytes for its map entry and key, so
+ * a room-year of bookings costs roughly 110 bytes no matter how many reservations it holds.
+ *
+ * Segment arrays are never changed in place: an update replaces the segments it touches with
+ * changed copies. A copy of the calendar therefore shares its untouched segments with the original
+ * and stays valid however the original is updated afterwards. The segments are kept in a concurrent
+ * map, so a single writer can update the calendar while readers check it without a lock; each reader
+ * sees every segment either before or after an update to it.
+ */
+public class OccupancyCalendar {
+    /**
+     * The number of 64-bit words in one segment.
+     */
+    private static final int WORDS_PER_SEGMENT = 6;
+
+    /**
+     * The number of days covered by one segment.
+     */
+    private static final int DAYS_PER_SEGMENT = WORDS_PER_SEGMENT * 64;
+
+    /**
+     * The estimated heap cost of one segment: the array itself and its map entry and boxed key.
+     */
+    private static final long BYTES_PER_SEGMENT = 16 + WORDS_PER_SEGMENT * 8 + 48;
+
+    /**
+     * The allocated segments, keyed by segment number (epoch day divided by the segment length).
+     */
+    private ConcurrentHashMap<Long, long[]> segments;
+
+    /**
+     * The constructor that creates an empty occupancy calendar.
+     */
+    public OccupancyCalendar() {
+        this.segments = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a copy of the calendar that can be updated without affecting this one.
+     * Only the segment map is copied; the segments themselves are shared.
+     *
+     * @return the copy of the calendar
+     */
+    public OccupancyCalendar copy() {
+        OccupancyCalendar copy = new OccupancyCalendar();
+        copy.segments.putAll(segments);
+        return copy;
+    }
+
+    /**
+     * Checks if the night of the given epoch day is booked.
+     *
+     * @param epochDay - the epoch day to check
+     * @return true if the night is booked, false otherwise
+     */
+    public boolean isOccupied(long epochDay) {
+        long[] words = segments.get(Math.floorDiv(epochDay, DAYS_PER_SEGMENT));
+        if (words == null) {
+            return false;
+        }
+        int offset = Math.floorMod(epochDay, DAYS_PER_SEGMENT);
+        return (words[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Checks if every night from the first epoch day up to, but not including, the last is free.
+     * The range is tested a whole word (64 nights) at a time.
+     *
+     * @param fromEpochDay - the first night of the range
+     * @param toEpochDay - the day after the last night of the range
+     * @return true if no night in the range is booked, false otherwise
+     */
+    public boolean isFree(long fromEpochDay, long toEpochDay) {
+        long day = fromEpochDay;
+        while (day < toEpochDay) {
+            long segment = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            long[] words = segments.get(segment);
+            if (words == null) {
+                day = (segment + 1) * DAYS_PER_SEGMENT;
+                continue;
+            }
+            int offset = (int) (day - segment * DAYS_PER_SEGMENT);
+            int bit = offset & 63;
+            int count = (int) Math.min(64 - bit, toEpochDay - day);
+            if ((words[offset >>> 6] & mask(bit, count)) != 0) {
+                return false;
+            }
+            day += count;
+        }
+        return true;
+    }
+
+    /**
+     * Marks every night from the first epoch day up to, but not including, the last as booked.
+     *
+     * @param fromEpochDay - the first night of the range
+     * @param toEpochDay - the day after the last night of the range
+     */
+    public void occupy(long fromEpochDay, long toEpochDay) {
+        long day = fromEpochDay;
+        while (day < toEpochDay) {
+            long segment = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            long[] words = segments.get(segment);
+            words = words == null ? new long[WORDS_PER_SEGMENT] : words.clone();
+            long segmentEnd = Math.min((segment + 1) * DAYS_PER_SEGMENT, toEpochDay);
+            while (day < segmentEnd) {
+                int offset = (int) (day - segment * DAYS_PER_SEGMENT);
+                int bit = offset & 63;
+                int count = (int) Math.min(64 - bit, segmentEnd - day);
+                words[offset >>> 6] |= mask(bit, count);
+                day += count;
+            }
+            segments.put(segment, words);
+        }
+    }
+
+    /**
+     * Marks every night from the first epoch day up to, but not including, the last as free.
+     * Segments that no longer have any booked night are released.
+     *
+     * @param fromEpochDay - the first night of the range
+     * @param toEpochDay - the day after the last night of the range
+     */
+    public void release(long fromEpochDay, long toEpochDay) {
+        long day = fromEpochDay;
+        while (day < toEpochDay) {
+            long segment = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            long[] words = segments.get(segment);
+            if (words == null) {
+                day = (segment + 1) * DAYS_PER_SEGMENT;
+                continue;
+            }
+            words = words.clone();
+            long segmentEnd = Math.min((segment + 1) * DAYS_PER_SEGMENT, toEpochDay);
+            while (day < segmentEnd) {
+                int offset = (int) (day - segment * DAYS_PER_SEGMENT);
+                int bit = offset & 63;
+                int count = (int) Math.min(64 - bit, segmentEnd - day);
+                words[offset >>> 6] &= ~mask(bit, count);
+                day += count;
+            }
+            if (isEmpty(words)) {
+                segments.remove(segment);
+            } else {
+                segments.put(segment, words);
+            }
+        }
+    }
+
+    /**
+     * A getter that gets the estimated heap footprint of the calendar in bytes.
+     *
+     * @return the estimated number of bytes used by the allocated segments
+     */
+    public long getFootprintBytes() {
+        return segments.size() * BYTES_PER_SEGMENT;
+    }
+
+    /**
+     * Builds a mask of consecutive bits starting at the given bit position.
+     *
+     * @param bit - the position of the lowest bit
+     * @param count - the number of bits, from 1 to 64 - bit
+     * @return the mask
+     */
+    private static long mask(int bit, int count) {
+        return (count == 64 ? -1L : (1L << count) - 1) << bit;
+    }
+
+    /**
+     * Checks if a segment has no booked nights.
+     *
+     * @param words - the words of the segment
+     * @return true if every bit is clear, false otherwise
+     */
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package hrs;
+
+import java.time.LocalDate;
+
+/**
+ * The PaydayDiscount class is a percentage discount that only applies to stays that check in on a
+ * payday and check out on a day that is not one, such as "PAYDAY" for 7% off from the 15th or the 30th.
+ */
+public class PaydayDiscount extends PercentageDiscount {
+    /**
+     * Whether each day of the month is a payday, indexed from 1 to 31.
+     */
+    private final boolean[] paydays = new boolean[32];
+
+    /**
+     * The constructor that creates a payday discount.
+     *
+     * @param code - the discount code
+     * @param basisPoints - the discount in basis points, from 1 to 10000
+     * @param paydays - the days of the month that are paydays
+     * @throws IllegalArgumentException if the code is empty, the discount is out of range or a day is not between 1 and 31
+     */
+    public PaydayDiscount(String code, int basisPoints, int... paydays) {
+        super(code, basisPoints);
+        for (int day : paydays) {
+            if (day < 1 || day > 31) {
+                throw new IllegalArgumentException("Payday must be between 1 and 31.");
+            }
+            this.paydays[day] = true;
+        }
+    }
+
+    /**
+     * A getter that gets the days of the month that are paydays, in order.
+     *
+     * @return the paydays
+     */
+    public int[] getPaydays() {
+        int count = 0;
+        for (boolean payday : paydays) {
+            if (payday) {
+                count++;
+            }
+        }
+        int[] days = new int[count];
+        for (int day = 1, i = 0; day <= 31; day++) {
+            if (paydays[day]) {
+                days[i++] = day;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Takes the discount off the total if the stay checks in on a payday and checks out on another day.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param totalCents - the total of the nights in cents
+     * @return the discounted total in cents
+     */
+    public long applyToTotal(int checkInDay, int checkOutDay, long totalCents) {
+        if (paydays[LocalDate.ofEpochDay(checkInDay).getDayOfMonth()]
+                && !paydays[LocalDate.ofEpochDay(checkOutDay).getDayOfMonth()]) {
+            return super.applyToTotal(checkInDay, checkOutDay, totalCents);
+        }
+        return totalCents;
+    }
+}
@@ -0,0 +1,65 @@
+package hrs;
+
+/**
+ * The PercentageDiscount class is a discount rule that takes a percentage off the total of every stay,
+ * such as "I_WORK_HERE" for 10% off.
+ */
+public class PercentageDiscount implements DiscountRule {
+    /**
+     * The discount code.
+     */
+    private final String code;
+
+    /**
+     * The discount in basis points, such as 1000 for 10% off.
+     */
+    private final int basisPoints;
+
+    /**
+     * The constructor that creates a percentage discount.
+     *
+     * @param code - the discount code
+     * @param basisPoints - the discount in basis points, from 1 to 10000
+     * @throws IllegalArgumentException if the code is empty or the discount is out of range
+     */
+    public PercentageDiscount(String code, int basisPoints) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("Discount code must not be empty.");
+        }
+        if (basisPoints < 1 || basisPoints > Money.ONE) {
+            throw new IllegalArgumentException("Discount must be between 1 and 10000 basis points.");
+        }
+        this.code = code;
+        this.basisPoints = basisPoints;
+    }
+
+    /**
+     * A getter that gets the discount code.
+     *
+     * @return the discount code
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * A getter that gets the discount in basis points.
+     *
+     * @return the discount in basis points
+     */
+    public int getBasisPoints() {
+        return basisPoints;
+    }
+
+    /**
+     * Takes the discount off the total, rounding to the nearest cent.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param totalCents - the total of the nights in cents
+     * @return the discounted total in cents
+     */
+    public long applyToTotal(int checkInDay, int checkOutDay, long totalCents) {
+        return Money.discount(totalCents, basisPoints);
+    }
+}
@@ -0,0 +1,177 @@
+package hrs;
+
+import java.time.LocalDate;
+
+/**
+ * The Quote class is the price of a stay in a type of room, worked out without booking anything.
+ * It is priced exactly as a reservation for the same stay would be, and never changes once made,
+ * so the same quote can be handed to any number of callers.
+ */
+public class Quote {
+    /**
+     * The type of room quoted.
+     */
+    private final Room.RoomType roomType;
+
+    /**
+     * The check-in date, as an epoch day.
+     */
+    private final int checkInDay;
+
+    /**
+     * The check-out date, as an epoch day.
+     */
+    private final int checkOutDay;
+
+    /**
+     * The discount code applied, or null if there is none.
+     */
+    private final String discountCode;
+
+    /**
+     * The cost in cents of each night, starting from the check-in night. Never changed once the quote is made.
+     */
+    private final long[] nightlyCents;
+
+    /**
+     * The total price after discounts, in cents.
+     */
+    private final long totalCents;
+
+    /**
+     * The constructor that prices a stay: the nights are priced from the rate calendar, the discount
+     * rule adjusts the nights, and then the total.
+     *
+     * @param roomType - the type of room
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param priceCents - the price per night of the room type before multipliers, in cents
+     * @param rateCalendar - the calendar of nightly price multipliers
+     * @param discountCode - the discount code, or null
+     * @param rule - the rule of the discount code, or null if it has none
+     */
+    Quote(Room.RoomType roomType, int checkInDay, int checkOutDay, long priceCents, RateCalendar rateCalendar, String discountCode, DiscountRule rule) {
+        this.roomType = roomType;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.discountCode = rule != null ? rule.getCode() : discountCode;
+        this.nightlyCents = new long[checkOutDay - checkInDay];
+        rateCalendar.fillPrices(checkInDay, priceCents, nightlyCents);
+        if (rule != null) {
+            rule.applyToNights(checkInDay, nightlyCents);
+        }
+        long total = Money.sum(nightlyCents, 0, nightlyCents.length);
+        this.totalCents = rule != null ? rule.applyToTotal(checkInDay, checkOutDay, total) : total;
+    }
+
+    /**
+     * A getter that gets the type of room quoted.
+     *
+     * @return the room type
+     */
+    public Room.RoomType getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * A getter that gets the check-in date.
+     *
+     * @return the check-in date
+     */
+    public LocalDate getCheckInDate() {
+        return LocalDate.ofEpochDay(checkInDay);
+    }
+
+    /**
+     * A getter that gets the check-out date.
+     *
+     * @return the check-out date
+     */
+    public LocalDate getCheckOutDate() {
+        return LocalDate.ofEpochDay(checkOutDay);
+    }
+
+    /**
+     * A getter that gets the check-in date as an epoch day.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * A getter that gets the check-out date as an epoch day.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * A getter that gets the discount code applied.
+     *
+     * @return the discount code, or null if there is none
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+    /**
+     * A getter that gets the total price after discounts.
+     *
+     * @return the total price
+     */
+    public double getTotalPrice() {
+        return Money.toAmount(totalCents);
+    }
+
+    /**
+     * A getter that gets the total price after discounts, in cents.
+     *
+     * @return the total price in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * A getter that gets the number of nights quoted.
+     *
+     * @return the number of nights
+     */
+    public int getNights() {
+        return nightlyCents.length;
+    }
+
+    /**
+     * A getter that gets the cost of one night, before any discount on the total.
+     *
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the cost of the night
+     */
+    public double getNightlyCost(int night) {
+        return Money.toAmount(nightlyCents[night]);
+    }
+
+    /**
+     * A getter that gets the cost of one night in cents, before any discount on the total.
+     *
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the cost of the night in cents
+     */
+    public long getNightlyCents(int night) {
+        return nightlyCents[night];
+    }
+
+    /**
+     * A getter that gets the nightly costs themselves, for a reservation booked at this quote to share.
+     * The array must not be changed.
+     *
+     * @return the cost of each night in cents
+     */
+    long[] nightlyCents() {
+        return nightlyCents;
+    }
+}
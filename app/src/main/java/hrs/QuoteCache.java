@@ -0,0 +1,321 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The QuoteCache class keeps the most recently used quotes of a hotel, so that repeated price lookups
+ * for the same room type, dates and discount code are not priced again.
+ *
+ * The cache is split into stripes by key, each a LinkedHashMap in access order with its own lock,
+ * so lookups for different stays rarely wait on each other and each stripe evicts its least recently
+ * used quote when full.
+ *
+ * Each quote remembers what it was priced from: the nightly price of its room type, the version of
+ * the rate calendar, and the discount rule of its code. A quote is only served while all three are
+ * still current, so changing the base price, any multiplier, or the rule of the code invalidates
+ * exactly the quotes it affects. Stale quotes are replaced when next looked up, or evicted.
+ */
+public class QuoteCache {
+    /**
+     * The number of stripes the cache is split into.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The hotel whose stays are quoted.
+     */
+    private final Hotel hotel;
+
+    /**
+     * The stripes of the cache.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * The number of lookups served from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of lookups that had to be priced, including those that found a stale quote.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The number of lookups that found a stale quote.
+     */
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * The number of quotes evicted to make room for newer ones.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The Key class identifies a stay being quoted.
+     */
+    private static final class Key {
+        /**
+         * The type of room.
+         */
+        private final Room.RoomType roomType;
+        /**
+         * The check-in epoch day.
+         */
+        private final int checkInDay;
+        /**
+         * The check-out epoch day.
+         */
+        private final int checkOutDay;
+        /**
+         * The discount code, or null.
+         */
+        private final String discountCode;
+
+        /**
+         * The constructor that creates a key.
+         *
+         * @param roomType - the type of room
+         * @param checkInDay - the check-in epoch day
+         * @param checkOutDay - the check-out epoch day
+         * @param discountCode - the discount code, or null
+         */
+        private Key(Room.RoomType roomType, int checkInDay, int checkOutDay, String discountCode) {
+            this.roomType = roomType;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+            this.discountCode = discountCode;
+        }
+
+        /**
+         * Two keys are equal if they are for the same stay.
+         *
+         * @param other - the object to compare with
+         * @return true if the other object is a key for the same stay
+         */
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return roomType == key.roomType && checkInDay == key.checkInDay && checkOutDay == key.checkOutDay
+                    && Objects.equals(discountCode, key.discountCode);
+        }
+
+        /**
+         * The hash code of the stay.
+         *
+         * @return the hash code
+         */
+        public int hashCode() {
+            int hash = roomType.hashCode();
+            hash = hash * 31 + checkInDay;
+            hash = hash * 31 + checkOutDay;
+            return hash * 31 + Objects.hashCode(discountCode);
+        }
+    }
+
+    /**
+     * The Entry class is a cached quote together with what it was priced from.
+     */
+    private static final class Entry {
+        /**
+         * The quote.
+         */
+        private final Quote quote;
+        /**
+         * The nightly price of the room type the quote was priced from, in cents.
+         */
+        private final long priceCents;
+        /**
+         * The version of the rate calendar the quote was priced from.
+         */
+        private final long calendarVersion;
+        /**
+         * The discount rule the quote was priced with, or null.
+         */
+        private final DiscountRule rule;
+
+        /**
+         * The constructor that creates an entry.
+         *
+         * @param quote - the quote
+         * @param priceCents - the nightly price of the room type, in cents
+         * @param calendarVersion - the version of the rate calendar
+         * @param rule - the discount rule, or null
+         */
+        private Entry(Quote quote, long priceCents, long calendarVersion, DiscountRule rule) {
+            this.quote = quote;
+            this.priceCents = priceCents;
+            this.calendarVersion = calendarVersion;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * The Stripe class is one part of the cache, a map in access order that drops its eldest entry when full.
+     */
+    private final class Stripe extends LinkedHashMap<Key, Entry> {
+        /**
+         * The number of quotes the stripe holds at most.
+         */
+        private final int capacity;
+
+        /**
+         * The constructor that creates an empty stripe.
+         *
+         * @param capacity - the number of quotes the stripe holds at most
+         */
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /**
+         * Drops the least recently used quote once the stripe is over capacity.
+         *
+         * @param eldest - the least recently used entry
+         * @return true if the entry should be removed
+         */
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The constructor that creates an empty cache for a hotel.
+     *
+     * @param hotel - the hotel whose stays are quoted
+     * @param capacity - the number of quotes the cache holds at most
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    QuoteCache(Hotel hotel, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Quote cache capacity must be at least 1.");
+        }
+        this.hotel = hotel;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, (capacity + STRIPES - 1) / STRIPES));
+        }
+    }
+
+    /**
+     * This method gets the quote of a stay, from the cache if it is still current, and otherwise by
+     * pricing it and caching the result.
+     *
+     * @param roomType - the type of room
+     * @param checkInDate - the check-in date
+     * @param checkOutDate - the check-out date
+     * @param discountCode - the discount code, or null
+     * @return the quote
+     */
+    public Quote get(Room.RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate, String discountCode) {
+        Key key = new Key(roomType, (int) checkInDate.toEpochDay(), (int) checkOutDate.toEpochDay(), discountCode);
+        // Read what the quote depends on before pricing, so a change made while pricing makes it stale.
+        long priceCents = Room.getPriceCents(hotel.getBasePrice(), roomType);
+        RateCalendar rateCalendar = hotel.getRateCalendar();
+        long calendarVersion = rateCalendar.getVersion();
+        DiscountRule rule = hotel.getDiscountEngine().find(discountCode);
+
+        Stripe stripe = stripes[(key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1)];
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+        }
+        if (entry != null) {
+            if (entry.priceCents == priceCents && entry.calendarVersion == calendarVersion && entry.rule == rule) {
+                hits.increment();
+                return entry.quote;
+            }
+            invalidations.increment();
+        }
+        misses.increment();
+        Quote quote = new Quote(roomType, key.checkInDay, key.checkOutDay, priceCents, rateCalendar, discountCode, rule);
+        synchronized (stripe) {
+            stripe.put(key, new Entry(quote, priceCents, calendarVersion, rule));
+        }
+        return quote;
+    }
+
+    /**
+     * This method empties the cache. The metrics are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * A getter that gets the number of quotes in the cache, including stale ones not yet replaced.
+     *
+     * @return the number of quotes
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A getter that gets the number of lookups served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * A getter that gets the number of lookups that had to be priced.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * A getter that gets the number of lookups that found a quote made stale by a price, calendar or discount change.
+     *
+     * @return the number of invalidated quotes
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * A getter that gets the number of quotes evicted to make room for newer ones.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * A getter that gets the share of lookups served from the cache.
+     *
+     * @return the hit rate, from 0 to 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : hit / (double) total;
+    }
+}
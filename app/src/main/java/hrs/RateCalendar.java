@@ -0,0 +1,345 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The RateCalendar class holds the price multiplier for every night. A multiplier comes from a
+ * per-date override if one was loaded, and otherwise from the table of multipliers by day of month.
+ *
+ * Multipliers are compiled lazily into arrays of 384 consecutive nights indexed by epoch day, so pricing
+ * a stay is a plain sum over an array. Any change publishes a new set of rules with an empty compiled
+ * cache and bumps the calendar's version.
+ *
+ * Compiled multipliers are whole basis points, so a multiplier is applied to a price in cents exactly
+ * (see Money). A multiplier is therefore accurate to four decimal places.
+ *
+ * The calendar of a hotel tells the hotel about every change before it takes effect, so the hotel's
+ * HRS listeners can journal it. A listener that throws refuses the change.
+ */
+public class RateCalendar {
+    /**
+     * The number of nights covered by one compiled segment.
+     */
+    private static final int DAYS_PER_SEGMENT = 384;
+
+    /**
+     * The current rules of the calendar.
+     */
+    private volatile Rules rules;
+
+    /**
+     * The number of changes made to the calendar.
+     */
+    private volatile long version;
+
+    /**
+     * The hotel whose rooms the calendar prices, told of every change, or null if the calendar stands alone.
+     */
+    private final Hotel hotel;
+
+    /**
+     * The multipliers and overrides in effect at one point in time, together with the segments compiled from them.
+     */
+    private static final class Rules {
+        /**
+         * The multipliers by day of month, indexed from 1 to 31.
+         */
+        private final double[] dayOfMonth;
+        /**
+         * The multipliers for specific nights, keyed by epoch day.
+         */
+        private final HashMap<Long, Double> overrides;
+        /**
+         * The compiled segments of nightly multipliers in basis points, keyed by segment number.
+         */
+        private final ConcurrentHashMap<Long, int[]> segments;
+
+        /**
+         * The constructor that creates rules from a table and overrides that will no longer change.
+         *
+         * @param dayOfMonth - the multipliers by day of month
+         * @param overrides - the multipliers for specific nights
+         */
+        private Rules(double[] dayOfMonth, HashMap<Long, Double> overrides) {
+            this.dayOfMonth = dayOfMonth;
+            this.overrides = overrides;
+            this.segments = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Gets the compiled segment containing the given night, compiling it on first use.
+         *
+         * @param segment - the segment number
+         * @return the nightly multipliers of the segment, in basis points
+         */
+        private int[] segment(long segment) {
+            return segments.computeIfAbsent(segment, this::compile);
+        }
+
+        /**
+         * Computes the multiplier of every night in a segment, rounded to basis points.
+         *
+         * @param segment - the segment number
+         * @return the nightly multipliers of the segment, in basis points
+         */
+        private int[] compile(long segment) {
+            int[] multipliers = new int[DAYS_PER_SEGMENT];
+            long firstDay = segment * DAYS_PER_SEGMENT;
+            LocalDate date = LocalDate.ofEpochDay(firstDay);
+            for (int i = 0; i < DAYS_PER_SEGMENT; i++) {
+                Double override = overrides.get(firstDay + i);
+                multipliers[i] = Money.toBasisPoints(override != null ? override : dayOfMonth[date.getDayOfMonth()]);
+                date = date.plusDays(1);
+            }
+            return multipliers;
+        }
+    }
+
+    /**
+     * The constructor that creates a rate calendar with the standard multipliers: 120% on the 5th-7th,
+     * 12th-14th, 19th-21st and 26th-28th, 80% on the 1st, 8th, 15th, 22nd and 29th, 90% on the 2nd, 9th,
+     * 16th, 23rd and 30th, and 100% on every other day.
+     */
+    public RateCalendar() {
+        this(null);
+    }
+
+    /**
+     * The constructor that creates a rate calendar with the standard multipliers for a hotel.
+     *
+     * @param hotel - the hotel to tell of changes
+     */
+    RateCalendar(Hotel hotel) {
+        this.hotel = hotel;
+        double[] dayOfMonth = new double[32];
+        for (int day = 1; day <= 31; day++) {
+            if ((day >= 5 && day <= 7) || (day >= 12 && day <= 14) || (day >= 19 && day <= 21) || (day >= 26 && day <= 28)) {
+                dayOfMonth[day] = 1.20;
+            } else if (day % 7 == 1) {
+                dayOfMonth[day] = 0.80;
+            } else if (day % 7 == 2) {
+                dayOfMonth[day] = 0.90;
+            } else {
+                dayOfMonth[day] = 1.00;
+            }
+        }
+        this.rules = new Rules(dayOfMonth, new HashMap<>());
+    }
+
+    /**
+     * Gets the multiplier of the night of the given epoch day.
+     *
+     * @param epochDay - the epoch day of the night
+     * @return the price multiplier
+     */
+    public double getMultiplier(long epochDay) {
+        return getBasisPoints(epochDay) / (double) Money.ONE;
+    }
+
+    /**
+     * Gets the multiplier of the night of the given epoch day in basis points, as it is applied to prices.
+     *
+     * @param epochDay - the epoch day of the night
+     * @return the price multiplier in basis points
+     */
+    public int getBasisPoints(long epochDay) {
+        long segment = Math.floorDiv(epochDay, DAYS_PER_SEGMENT);
+        return rules.segment(segment)[(int) (epochDay - segment * DAYS_PER_SEGMENT)];
+    }
+
+    /**
+     * Gets the multiplier of the night of the given date.
+     *
+     * @param date - the date of the night
+     * @return the price multiplier
+     */
+    public double getMultiplier(LocalDate date) {
+        return getMultiplier(date.toEpochDay());
+    }
+
+    /**
+     * Sums the multipliers of every night from the first epoch day up to, but not including, the last.
+     *
+     * @param fromEpochDay - the first night
+     * @param toEpochDay - the day after the last night
+     * @return the sum of the nightly multipliers
+     */
+    public double sumMultipliers(long fromEpochDay, long toEpochDay) {
+        Rules current = rules;
+        long sum = 0;
+        long day = fromEpochDay;
+        while (day < toEpochDay) {
+            long segment = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            int[] multipliers = current.segment(segment);
+            int start = (int) (day - segment * DAYS_PER_SEGMENT);
+            int end = (int) Math.min(DAYS_PER_SEGMENT, toEpochDay - segment * DAYS_PER_SEGMENT);
+            for (int i = start; i < end; i++) {
+                sum += multipliers[i];
+            }
+            day += end - start;
+        }
+        return sum / (double) Money.ONE;
+    }
+
+    /**
+     * Fills an array with the price in cents of every night of a stay, given the undiscounted nightly rate.
+     * Element i gets the rate for the night of the first epoch day plus i, so the stay is as long as the array.
+     * Each price is the rate times the night's multiplier, rounded to the nearest cent.
+     *
+     * @param fromEpochDay - the first night of the stay
+     * @param nightlyCents - the nightly rate before multipliers, in cents
+     * @param prices - the array to fill with the nightly prices in cents
+     */
+    public void fillPrices(long fromEpochDay, long nightlyCents, long[] prices) {
+        Rules current = rules;
+        int filled = 0;
+        long day = fromEpochDay;
+        while (filled < prices.length) {
+            long segment = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            int[] multipliers = current.segment(segment);
+            int start = (int) (day - segment * DAYS_PER_SEGMENT);
+            int count = Math.min(DAYS_PER_SEGMENT - start, prices.length - filled);
+            for (int i = 0; i < count; i++) {
+                prices[filled + i] = Money.applyRate(nightlyCents, multipliers[start + i]);
+            }
+            filled += count;
+            day += count;
+        }
+    }
+
+    /**
+     * Sets the multiplier for a day of the month. It applies to every night on that day of any month
+     * that has no override of its own.
+     *
+     * @param dayOfMonth - the day of the month, from 1 to 31
+     * @param multiplier - the price multiplier
+     */
+    public synchronized void setDayOfMonthMultiplier(int dayOfMonth, double multiplier) {
+        if (dayOfMonth < 1 || dayOfMonth > 31) {
+            throw new IllegalArgumentException("Day of month must be between 1 and 31.");
+        }
+        checkMultiplier(multiplier);
+        if (hotel != null) {
+            hotel.announceDayOfMonthMultiplier(dayOfMonth, multiplier);
+        }
+        double[] table = rules.dayOfMonth.clone();
+        table[dayOfMonth] = multiplier;
+        publish(new Rules(table, rules.overrides));
+    }
+
+    /**
+     * Sets the multiplier for a specific night, overriding the day of month multiplier.
+     *
+     * @param date - the date of the night
+     * @param multiplier - the price multiplier
+     */
+    public void setMultiplier(LocalDate date, double multiplier) {
+        HashMap<LocalDate, Double> multipliers = new HashMap<>();
+        multipliers.put(date, multiplier);
+        loadMultipliers(multipliers);
+    }
+
+    /**
+     * Loads multipliers for specific nights, overriding the day of month multipliers for those nights.
+     * All the multipliers take effect together.
+     *
+     * @param multipliers - the price multipliers keyed by the date of the night
+     */
+    public synchronized void loadMultipliers(Map<LocalDate, Double> multipliers) {
+        HashMap<Long, Double> overrides = new HashMap<>(rules.overrides);
+        for (Map.Entry<LocalDate, Double> entry : multipliers.entrySet()) {
+            checkMultiplier(entry.getValue());
+            overrides.put(entry.getKey().toEpochDay(), entry.getValue());
+        }
+        if (hotel != null) {
+            hotel.announceMultipliersLoaded(Collections.unmodifiableMap(multipliers));
+        }
+        publish(new Rules(rules.dayOfMonth, overrides));
+    }
+
+    /**
+     * Removes the override for a specific night, so it goes back to the day of month multiplier.
+     *
+     * @param date - the date of the night
+     */
+    public synchronized void clearMultiplier(LocalDate date) {
+        HashMap<Long, Double> overrides = new HashMap<>(rules.overrides);
+        if (overrides.remove(date.toEpochDay()) != null) {
+            if (hotel != null) {
+                hotel.announceMultiplierCleared(date);
+            }
+            publish(new Rules(rules.dayOfMonth, overrides));
+        }
+    }
+
+    /**
+     * A getter that gets the multipliers by day of month. It waits for a change being announced to take
+     * effect, so every change announced before the call is in the result.
+     *
+     * @return the multipliers indexed from 1 to 31; element 0 is unused
+     */
+    public synchronized double[] getDayOfMonthMultipliers() {
+        return rules.dayOfMonth.clone();
+    }
+
+    /**
+     * A getter that gets the multipliers for specific nights, in date order. It waits for a change being
+     * announced to take effect, so every change announced before the call is in the result.
+     *
+     * @return the overrides keyed by the date of the night
+     */
+    public synchronized Map<LocalDate, Double> getOverrides() {
+        TreeMap<LocalDate, Double> overrides = new TreeMap<>();
+        for (Map.Entry<Long, Double> entry : rules.overrides.entrySet()) {
+            overrides.put(LocalDate.ofEpochDay(entry.getKey()), entry.getValue());
+        }
+        return overrides;
+    }
+
+    /**
+     * This method replaces every multiplier without announcing anything, while the hotel is being
+     * recovered from saved state.
+     *
+     * @param dayOfMonth - the multipliers by day of month, indexed from 1 to 31
+     * @param overrides - the multipliers for specific nights, keyed by epoch day
+     */
+    synchronized void restore(double[] dayOfMonth, Map<Long, Double> overrides) {
+        publish(new Rules(dayOfMonth.clone(), new HashMap<>(overrides)));
+    }
+
+    /**
+     * A getter that gets the version of the calendar, which changes every time a multiplier changes.
+     *
+     * @return the version of the calendar
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Makes new rules the current ones.
+     *
+     * @param newRules - the rules to publish
+     */
+    private void publish(Rules newRules) {
+        rules = newRules;
+        version++;
+    }
+
+    /**
+     * Checks that a multiplier is a positive number that is at least one basis point once rounded,
+     * and small enough for its basis points to fit in an int.
+     *
+     * @param multiplier - the multiplier to check
+     */
+    private static void checkMultiplier(double multiplier) {
+        if (!(multiplier * Money.ONE >= 0.5) || multiplier * Money.ONE >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Multiplier must be a positive number between 0.0001 and 200000.");
+        }
+    }
+}
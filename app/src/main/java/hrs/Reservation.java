@@ -0,0 +1,304 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The Reservation class represents a reservation for a room in a hotel.
+ * It is kept compact since a hotel holds many of them: the dates are stored as epoch days and the
+ * nightly prices as a primitive array, and the date and breakdown getters build their results from those.
+ *
+ * Prices are kept in whole cents and discounts are taken off in fixed point (see Money), so a reservation
+ * is priced to exactly the same cent every time. The double getters convert from the cents.
+ */
+public class Reservation {
+    /**
+     * The name of the guest making the reservation.
+     */
+    private String guestName;
+
+    /**
+     * The check-in date for the reservation, as an epoch day.
+     */
+    private int checkInDay;
+
+    /**
+     * The check-out date for the reservation, as an epoch day.
+     */
+    private int checkOutDay;
+
+    /**
+     * The room reserved for the guest.
+     */
+    private Room room;
+
+    /**
+     * The total price for the reservation, in cents.
+     */
+    private long totalCents;
+
+    /**
+     * The cost in cents of each night of the reservation, starting from the check-in night.
+     */
+    private long[] breakdownCost;
+
+    /**
+     * The discount code applied to the reservation.
+     */
+    private String discountCode;
+
+
+    /**
+     * This is the constructor for the Reservation class
+     * that creates the object given the  guest name, check-in date, 
+     * check-out date, room, and discount code.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDate - the check-in date for the reservation
+     * @param checkOutDate - the check-out date for the reservation
+     * @param room - the room reserved for the guest
+     * @param discountCode - the discount code applied to the reservation
+     */
+    public Reservation(String guestName, LocalDate checkInDate, LocalDate checkOutDate, Room room, String discountCode) {
+        this.guestName = guestName;
+        this.checkInDay = (int) checkInDate.toEpochDay();
+        this.checkOutDay = (int) checkOutDate.toEpochDay();
+        this.room = room;
+        DiscountRule rule = room.getDiscountEngine().find(discountCode);
+        this.discountCode = rule != null ? rule.getCode() : discountCode;
+        calculateTotalPrice();
+        applyDiscount();
+    }
+
+    /**
+     * This is the constructor used when reloading a saved reservation. It takes the nightly prices and
+     * the total the guest was charged when booking, so nothing is priced again.
+     *
+     * @param guestName - the name of the guest
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param room - the room reserved for the guest
+     * @param discountCode - the discount code applied to the reservation
+     * @param nightlyCents - the price of each night in cents, one per night of the stay; the reservation keeps the array
+     * @param totalCents - the total price charged for the reservation, in cents
+     * @throws IllegalArgumentException if there is not one price per night
+     */
+    Reservation(String guestName, int checkInDay, int checkOutDay, Room room, String discountCode, long[] nightlyCents, long totalCents) {
+        if (nightlyCents.length != checkOutDay - checkInDay) {
+            throw new IllegalArgumentException("A reservation of " + (checkOutDay - checkInDay) + " nights needs as many nightly prices.");
+        }
+        this.guestName = guestName;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.room = room;
+        this.discountCode = discountCode;
+        this.breakdownCost = nightlyCents;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * This is the constructor for booking a room at a quoted price. The reservation shares the quote's
+     * nightly prices instead of pricing the stay again.
+     *
+     * @param guestName - the name of the guest
+     * @param room - the room reserved for the guest, of the quoted type
+     * @param quote - the quote of the stay
+     */
+    Reservation(String guestName, Room room, Quote quote) {
+        this.guestName = guestName;
+        this.checkInDay = quote.getCheckInDay();
+        this.checkOutDay = quote.getCheckOutDay();
+        this.room = room;
+        this.discountCode = quote.getDiscountCode();
+        this.breakdownCost = quote.nightlyCents();
+        this.totalCents = quote.getTotalCents();
+    }
+
+    /**
+     * This is the constructor for views that keep their fields elsewhere, such as ArchivedReservation.
+     * They override every getter, so the fields of this class stay unset.
+     */
+    Reservation() {
+    }
+
+    /**
+     * Returns the type of the room.
+     *
+     * @return the type of the room as an enum value
+     */
+    public Room.RoomType getRoomType() {
+        return getRoom().getType();
+    }
+
+    /**
+     * A getter that gets the name of the guest.
+     *
+     * @return the name of the guest
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * A getter that gets the check-in date for the reservation.
+     *
+     * @return the check-in date for the reservation
+     */
+    public LocalDate getCheckInDate() {
+        return LocalDate.ofEpochDay(getCheckInDay());
+    }
+
+    /**
+     * Gets the check-out date for the reservation.
+     *
+     * @return the check-out date for the reservation
+     */
+    public LocalDate getCheckOutDate() {
+        return LocalDate.ofEpochDay(getCheckOutDay());
+    }
+
+    /**
+     * A getter that gets the check-in date for the reservation as an epoch day, without creating a date.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * A getter that gets the check-out date for the reservation as an epoch day, without creating a date.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+     /**
+     * A getter that gets the room reserved for the guest.
+     *
+     * @return the room reserved for the guest
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * A getter that gets the total price for the reservation.
+     *
+     * @return the total price for the reservation
+     */    public double getTotalPrice() {
+        return Money.toAmount(getTotalCents());
+    }
+
+    /**
+     * A getter that gets the total price for the reservation in cents, exactly as it was charged.
+     *
+     * @return the total price in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+     /**
+     * A getter that gets the breakdown of costs per night for the reservation.
+     * The list is an unmodifiable view of the nightly prices that boxes each cost only when it is read;
+     * use getNightlyCost to read the costs without boxing.
+     *
+     * @return the list of costs per night
+     */
+    public List<Double> getBreakdownCost() {
+        return new AbstractList<>() {
+            public Double get(int night) {
+                return getNightlyCost(night);
+            }
+
+            public int size() {
+                return getNights();
+            }
+        };
+    }
+
+    /**
+     * A getter that gets the number of nights in the reservation.
+     *
+     * @return the number of nights
+     */
+    public int getNights() {
+        return breakdownCost.length;
+    }
+
+    /**
+     * A getter that gets the cost of one night of the reservation.
+     *
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the cost of the night
+     */
+    public double getNightlyCost(int night) {
+        return Money.toAmount(getNightlyCents(night));
+    }
+
+    /**
+     * A getter that gets the cost of one night of the reservation in cents, before any discount on the total.
+     *
+     * @param night - the index of the night, where 0 is the check-in night
+     * @return the cost of the night in cents
+     */
+    public long getNightlyCents(int night) {
+        return breakdownCost[night];
+    }
+
+    /**
+     * Splits the total price into the nights of the reservation, in proportion to their costs, so that
+     * the nights add up to exactly the total in cents. This is what each night earns the hotel.
+     *
+     * @return the share of the total of each night, in cents
+     */
+    long[] allocateNights() {
+        long[] listed = new long[getNights()];
+        for (int night = 0; night < listed.length; night++) {
+            listed[night] = getNightlyCents(night);
+        }
+        long[] shares = new long[listed.length];
+        Money.allocate(getTotalCents(), listed, shares);
+        return shares;
+    }
+
+    /**
+     * Gets the discount code applied to the reservation.
+     * 
+     * @return the discount code
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+
+    /**
+     * This method calculates the total price for the reservation from the nightly prices.
+     * The discount rule of the code changes the nightly prices first, such as "STAY4_GET1" making the
+     * first night free if the stay is 5 nights or more.
+     */
+    public void calculateTotalPrice() {
+        breakdownCost = new long[checkOutDay - checkInDay];
+        room.getRateCalendar().fillPrices(checkInDay, room.getPriceCents(), breakdownCost);
+        DiscountRule rule = room.getDiscountEngine().find(discountCode);
+        if (rule != null) {
+            rule.applyToNights(checkInDay, breakdownCost);
+        }
+        totalCents = Money.sum(breakdownCost, 0, breakdownCost.length);
+    }
+
+    /**
+     * Applies the discount of the discount code to the total, such as 10% off for "I_WORK_HERE".
+     * The rule is looked up in the room's discount engine; a code with no rule gives no discount.
+     */
+    public void applyDiscount() {
+        DiscountRule rule = room.getDiscountEngine().find(discountCode);
+        if (rule != null) {
+            totalCents = rule.applyToTotal(checkInDay, checkOutDay, totalCents);
+        }
+    }
+}
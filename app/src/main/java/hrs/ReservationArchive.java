@@ -0,0 +1,631 @@
+package hrs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The ReservationArchive class stores the reservations of a hotel outside the Java heap, for keeping
+ * years of finished stays without paying for them in heap and garbage collection. A hotel moves its
+ * past reservations here with Hotel.archiveReservations and reads them back as ArchivedReservation
+ * views, which hold nothing but the archive and a row number.
+ *
+ * The archive is a directory of three files:
+ * <pre>
+ * slots.dat       header, then one 40-byte slot per reservation: booking number, total price in
+ *                 cents, guest name offset, check-in and check-out epoch days, room id, discount code id
+ * guests.dat      the guest names, each as a length and its UTF-8 bytes
+ * dictionary.dat  the room names and types and the discount codes, numbered in the order they were added
+ * </pre>
+ * The slots are memory-mapped in regions of a million slots, so reading a slot is a few loads from the
+ * page cache. Guest names are read from their file when asked for. Only the dictionary, which has one
+ * entry per room and discount code, is kept on the heap.
+ *
+ * Reservations are only ever appended. Reads do not lock: the number of reservations is published after
+ * their slots are written, and readers never look past it.
+ */
+public class ReservationArchive implements Closeable {
+    /**
+     * The first four bytes of the slots file.
+     */
+    private static final int MAGIC = 0x48525352;
+
+    /**
+     * The version of the layout described above.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header of the slots file: magic number, version and number of reservations.
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * The size of one slot.
+     */
+    private static final int SLOT_BYTES = 40;
+
+    /**
+     * The number of slots mapped together.
+     */
+    private static final int REGION_SLOTS = 1 << 20;
+
+    /**
+     * The dictionary entry kind of a room.
+     */
+    private static final byte ROOM_ENTRY = 0;
+
+    /**
+     * The dictionary entry kind of a discount code.
+     */
+    private static final byte CODE_ENTRY = 1;
+
+    /**
+     * The file of slots.
+     */
+    private final FileChannel slotFile;
+
+    /**
+     * The file of guest names.
+     */
+    private final FileChannel guestFile;
+
+    /**
+     * The file of room names and discount codes.
+     */
+    private final FileChannel dictionaryFile;
+
+    /**
+     * The mapped header of the slots file.
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * The mapped regions of slots. The array is replaced, never changed, when a region is added.
+     */
+    private volatile MappedByteBuffer[] regions;
+
+    /**
+     * The number of reservations in the archive. Slots below it are complete and never change.
+     */
+    private volatile int count;
+
+    /**
+     * The first region with slots written since the archive was last forced to disk.
+     */
+    private int unforcedRegion;
+
+    /**
+     * The end of the guest names file, where the next name is written.
+     */
+    private long guestEnd;
+
+    /**
+     * The names of the rooms in the dictionary, by room id. Like the regions, the array is replaced
+     * when an entry is added, before any slot can refer to the entry.
+     */
+    private volatile String[] roomNames;
+
+    /**
+     * The types of the rooms in the dictionary, by room id.
+     */
+    private volatile Room.RoomType[] roomTypes;
+
+    /**
+     * The ids of the rooms in the dictionary, by room name.
+     */
+    private final HashMap<String, Integer> roomIds;
+
+    /**
+     * The discount codes in the dictionary, by code id.
+     */
+    private volatile String[] codes;
+
+    /**
+     * The ids of the discount codes in the dictionary, by code.
+     */
+    private final HashMap<String, Integer> codeIds;
+
+    /**
+     * The hotel the archive belongs to, which supplies the rooms of archived reservations.
+     */
+    private volatile Hotel hotel;
+
+    /**
+     * The rooms of the archived reservations by room id, looked up in the hotel on first use.
+     */
+    private volatile Room[] rooms;
+
+    /**
+     * The lock for looking up rooms, kept apart from appends so that reads never wait for them.
+     */
+    private final Object roomLock = new Object();
+
+    /**
+     * This constructor reads the dictionary and maps the slots of an archive. Use open to open one.
+     *
+     * @param directory - the directory of the archive
+     * @throws IOException if the archive cannot be read
+     */
+    private ReservationArchive(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.slotFile = FileChannel.open(directory.resolve("slots.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.guestFile = FileChannel.open(directory.resolve("guests.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dictionaryFile = FileChannel.open(directory.resolve("dictionary.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = slotFile.size() == 0;
+        this.header = slotFile.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (created) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(8, 0);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(directory + " is not a reservation archive of a known version.");
+        }
+        this.count = (int) header.getLong(8);
+        this.regions = new MappedByteBuffer[0];
+        this.roomNames = new String[0];
+        this.roomTypes = new Room.RoomType[0];
+        this.roomIds = new HashMap<>();
+        this.codes = new String[0];
+        this.codeIds = new HashMap<>();
+        this.rooms = new Room[0];
+        readDictionary();
+        ensureRegions(count);
+        this.unforcedRegion = regions.length;
+        this.guestEnd = count == 0 ? 0 : guestEndAfter(count - 1);
+    }
+
+    /**
+     * Opens the archive in a directory, creating it if needed.
+     *
+     * @param directory - the directory of the archive
+     * @return the open archive
+     * @throws IOException if the archive cannot be read or created
+     */
+    public static ReservationArchive open(Path directory) throws IOException {
+        return new ReservationArchive(directory);
+    }
+
+    /**
+     * A getter that gets the number of reservations in the archive.
+     *
+     * @return the number of reservations
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * A getter that gets a view of an archived reservation.
+     *
+     * @param index - the row of the reservation, from 0 in the order they were archived
+     * @return the view of the reservation
+     * @throws IndexOutOfBoundsException if there is no such row
+     */
+    public ArchivedReservation get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Archive row " + index + " out of " + count + ".");
+        }
+        return new ArchivedReservation(this, index);
+    }
+
+    /**
+     * Appends reservations to the archive. They are readable as soon as this returns, and kept after
+     * a crash once force returns.
+     *
+     * @param archived - the reservations
+     * @param bookingNumbers - the booking number of each reservation, in the same order
+     * @throws IOException if the archive cannot be written
+     */
+    public synchronized void append(List<Reservation> archived, long[] bookingNumbers) throws IOException {
+        int next = count;
+        ensureRegions(next + archived.size());
+        MappedByteBuffer[] mapped = regions;
+        ByteBuffer names = ByteBuffer.allocate(1 << 16);
+        for (int i = 0; i < archived.size(); i++) {
+            Reservation reservation = archived.get(i);
+            byte[] bytes = reservation.getGuestName().getBytes(StandardCharsets.UTF_8);
+            if (names.remaining() < 4 + bytes.length) {
+                names = writeGuests(names, 4 + bytes.length);
+            }
+            long guest = guestEnd + names.position();
+            names.putInt(bytes.length).put(bytes);
+            ByteBuffer region = mapped[next / REGION_SLOTS];
+            int offset = (next % REGION_SLOTS) * SLOT_BYTES;
+            region.putLong(offset, bookingNumbers[i]);
+            region.putLong(offset + 8, reservation.getTotalCents());
+            region.putLong(offset + 16, guest);
+            region.putInt(offset + 24, reservation.getCheckInDay());
+            region.putInt(offset + 28, reservation.getCheckOutDay());
+            region.putInt(offset + 32, roomId(reservation.getRoom()));
+            region.putInt(offset + 36, reservation.getDiscountCode() == null ? -1 : codeId(reservation.getDiscountCode()));
+            next++;
+        }
+        writeGuests(names, 0);
+        count = next;
+    }
+
+    /**
+     * This method drops the rows from the given size on, such as rows appended by a pass whose force
+     * failed. The dropped rows are no longer readable, and the header no longer counts them.
+     *
+     * @param size - the number of rows to keep
+     * @throws IllegalArgumentException if the archive has fewer rows than that
+     */
+    synchronized void truncate(int size) {
+        if (size < 0 || size > count) {
+            throw new IllegalArgumentException("Cannot truncate an archive of " + count + " rows to " + size + ".");
+        }
+        count = size;
+        header.putLong(8, Math.min(header.getLong(8), size));
+    }
+
+    /**
+     * This method forces everything appended so far to disk. The guest names, dictionary and slots are
+     * forced before the header counts them, so a crash never leaves a counted slot that is not on disk.
+     * Reservations appended but not forced are gone after a crash.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    public synchronized void force() throws IOException {
+        guestFile.force(false);
+        dictionaryFile.force(false);
+        MappedByteBuffer[] mapped = regions;
+        for (int region = Math.max(0, unforcedRegion - 1); region < mapped.length; region++) {
+            mapped[region].force();
+        }
+        unforcedRegion = mapped.length;
+        header.putLong(8, count);
+        header.force();
+    }
+
+    /**
+     * This method forces the archive to disk and closes its files. Views already handed out must not be
+     * used afterwards.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            force();
+        } finally {
+            slotFile.close();
+            guestFile.close();
+            dictionaryFile.close();
+        }
+    }
+
+    /**
+     * This method ties the archive to the hotel whose reservations it keeps.
+     *
+     * @param owner - the hotel
+     */
+    void attach(Hotel owner) {
+        synchronized (roomLock) {
+            this.hotel = owner;
+            this.rooms = new Room[0];
+        }
+    }
+
+    /**
+     * A getter that gets the booking number of a row.
+     *
+     * @param index - the row
+     * @return the booking number
+     */
+    long getBookingNumber(int index) {
+        return slot(index).getLong(offset(index));
+    }
+
+    /**
+     * A getter that gets the total price of a row in cents.
+     *
+     * @param index - the row
+     * @return the total price in cents
+     */
+    long getTotalCents(int index) {
+        return slot(index).getLong(offset(index) + 8);
+    }
+
+    /**
+     * A getter that gets the check-in epoch day of a row.
+     *
+     * @param index - the row
+     * @return the check-in epoch day
+     */
+    int getCheckInDay(int index) {
+        return slot(index).getInt(offset(index) + 24);
+    }
+
+    /**
+     * A getter that gets the check-out epoch day of a row.
+     *
+     * @param index - the row
+     * @return the check-out epoch day
+     */
+    int getCheckOutDay(int index) {
+        return slot(index).getInt(offset(index) + 28);
+    }
+
+    /**
+     * A getter that gets the guest name of a row, read from the guest names file.
+     *
+     * @param index - the row
+     * @return the guest name
+     */
+    String getGuestName(int index) {
+        long position = slot(index).getLong(offset(index) + 16);
+        try {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            readFully(guestFile, length, position);
+            ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+            readFully(guestFile, bytes, position + 4);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read guest name of archive row " + index + ".", e);
+        }
+    }
+
+    /**
+     * A getter that gets the discount code of a row.
+     *
+     * @param index - the row
+     * @return the discount code, or null if there is none
+     */
+    String getDiscountCode(int index) {
+        int code = slot(index).getInt(offset(index) + 36);
+        return code < 0 ? null : codes[code];
+    }
+
+    /**
+     * A getter that gets the type of the room of a row.
+     *
+     * @param index - the row
+     * @return the room type
+     */
+    Room.RoomType getRoomType(int index) {
+        return roomTypes[slot(index).getInt(offset(index) + 32)];
+    }
+
+    /**
+     * A getter that gets the room of a row. It is the hotel's room of that name, or, if the hotel no
+     * longer has it, a detached room with the same name and type priced like the hotel's rooms.
+     *
+     * @param index - the row
+     * @return the room
+     */
+    Room getRoom(int index) {
+        int id = slot(index).getInt(offset(index) + 32);
+        Room[] resolved = rooms;
+        if (id < resolved.length && resolved[id] != null) {
+            return resolved[id];
+        }
+        synchronized (roomLock) {
+            String[] names = roomNames;
+            Room.RoomType[] types = roomTypes;
+            resolved = Arrays.copyOf(rooms, Math.max(rooms.length, names.length));
+            if (resolved[id] == null) {
+                Hotel owner = hotel;
+                Room room = owner == null ? null : owner.getRoom(names[id]);
+                if (room == null || room.getType() != types[id]) {
+                    room = owner == null
+                            ? new Room(names[id], 0, types[id])
+                            : new Room(names[id], owner.getBasePrice(), types[id], owner.getRateCalendar(), owner.getDiscountEngine());
+                }
+                resolved[id] = room;
+            }
+            rooms = resolved;
+            return resolved[id];
+        }
+    }
+
+    /**
+     * Gets the mapped region holding a row.
+     *
+     * @param index - the row
+     * @return the region
+     */
+    private ByteBuffer slot(int index) {
+        return regions[index / REGION_SLOTS];
+    }
+
+    /**
+     * Gets the position of a row within its region.
+     *
+     * @param index - the row
+     * @return the byte offset of the row
+     */
+    private static int offset(int index) {
+        return (index % REGION_SLOTS) * SLOT_BYTES;
+    }
+
+    /**
+     * Maps enough regions for the given number of slots.
+     *
+     * @param slots - the number of slots needed
+     * @throws IOException if a region cannot be mapped
+     */
+    private void ensureRegions(int slots) throws IOException {
+        MappedByteBuffer[] mapped = regions;
+        int needed = (slots + REGION_SLOTS - 1) / REGION_SLOTS;
+        if (needed <= mapped.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, needed);
+        for (int region = mapped.length; region < needed; region++) {
+            grown[region] = slotFile.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) region * REGION_SLOTS * SLOT_BYTES, (long) REGION_SLOTS * SLOT_BYTES);
+        }
+        regions = grown;
+    }
+
+    /**
+     * Writes buffered guest names to the end of the guest names file.
+     *
+     * @param names - the buffered names
+     * @param needed - the space the next name needs
+     * @return an empty buffer with room for the next name
+     * @throws IOException if the file cannot be written
+     */
+    private ByteBuffer writeGuests(ByteBuffer names, int needed) throws IOException {
+        names.flip();
+        while (names.hasRemaining()) {
+            guestFile.write(names, guestEnd + names.position());
+        }
+        guestEnd += names.limit();
+        return names.capacity() >= needed ? names.clear() : ByteBuffer.allocate(needed);
+    }
+
+    /**
+     * Finds where the guest names file ends after the name of a row, which is where the next name goes.
+     *
+     * @param index - the row
+     * @return the end of the row's guest name
+     * @throws IOException if the file cannot be read
+     */
+    private long guestEndAfter(int index) throws IOException {
+        long position = slot(index).getLong(offset(index) + 16);
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(guestFile, length, position);
+        return position + 4 + length.getInt(0);
+    }
+
+    /**
+     * Gets the id of a room, adding it to the dictionary if it is not there yet.
+     *
+     * @param room - the room
+     * @return the room id
+     * @throws IOException if the dictionary cannot be written
+     */
+    private int roomId(Room room) throws IOException {
+        Integer id = roomIds.get(room.getName());
+        if (id == null || roomTypes[id] != room.getType()) {
+            id = roomNames.length;
+            writeEntry(ROOM_ENTRY, room.getName(), room.getType());
+            addRoomEntry(room.getName(), room.getType());
+        }
+        return id;
+    }
+
+    /**
+     * Gets the id of a discount code, adding it to the dictionary if it is not there yet.
+     *
+     * @param code - the discount code
+     * @return the code id
+     * @throws IOException if the dictionary cannot be written
+     */
+    private int codeId(String code) throws IOException {
+        Integer id = codeIds.get(code);
+        if (id == null) {
+            id = codes.length;
+            writeEntry(CODE_ENTRY, code, null);
+            addCodeEntry(code);
+        }
+        return id;
+    }
+
+    /**
+     * Appends an entry to the dictionary file.
+     *
+     * @param kind - ROOM_ENTRY or CODE_ENTRY
+     * @param value - the room name or discount code
+     * @param type - the room type, or null for a discount code
+     * @throws IOException if the file cannot be written
+     */
+    private void writeEntry(byte kind, String value, Room.RoomType type) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(6 + bytes.length);
+        entry.put(kind).putInt(bytes.length).put(bytes).put(type == null ? 0 : (byte) type.ordinal()).flip();
+        long position = dictionaryFile.size();
+        while (entry.hasRemaining()) {
+            dictionaryFile.write(entry, position + entry.position());
+        }
+    }
+
+    /**
+     * Adds a room to the dictionary in memory.
+     *
+     * @param name - the room name
+     * @param type - the room type
+     */
+    private void addRoomEntry(String name, Room.RoomType type) {
+        roomIds.put(name, roomNames.length);
+        String[] names = Arrays.copyOf(roomNames, roomNames.length + 1);
+        Room.RoomType[] types = Arrays.copyOf(roomTypes, roomTypes.length + 1);
+        names[names.length - 1] = name;
+        types[types.length - 1] = type;
+        roomTypes = types;
+        roomNames = names;
+    }
+
+    /**
+     * Adds a discount code to the dictionary in memory.
+     *
+     * @param code - the discount code
+     */
+    private void addCodeEntry(String code) {
+        codeIds.put(code, codes.length);
+        String[] added = Arrays.copyOf(codes, codes.length + 1);
+        added[added.length - 1] = code;
+        codes = added;
+    }
+
+    /**
+     * Reads the dictionary file into memory. An entry cut off by a crash is dropped, since no counted
+     * slot can refer to it.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void readDictionary() throws IOException {
+        ByteBuffer all = ByteBuffer.allocate((int) dictionaryFile.size());
+        readFully(dictionaryFile, all, 0);
+        all.flip();
+        int complete = 0;
+        while (all.remaining() >= 5) {
+            byte kind = all.get();
+            int length = all.getInt();
+            if (length < 0 || all.remaining() < length + 1) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            all.get(bytes);
+            byte type = all.get();
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            if (kind == ROOM_ENTRY) {
+                addRoomEntry(value, Room.RoomType.values()[type]);
+            } else {
+                addCodeEntry(value);
+            }
+            complete = all.position();
+        }
+        if (complete < all.limit()) {
+            dictionaryFile.truncate(complete);
+        }
+    }
+
+    /**
+     * Reads from a file until the buffer is full.
+     *
+     * @param channel - the file
+     * @param buffer - the buffer to fill
+     * @param position - where to start reading
+     * @throws IOException if the file cannot be read or ends first
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                throw new IOException("Unexpected end of archive file.");
+            }
+        }
+    }
+}
@@ -0,0 +1,1496 @@
+package hrs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * The ReservationJournal class makes the hotels of an HRS durable. It listens to the HRS and appends
+ * every change (hotels created, renamed and removed, rooms added and removed, base prices, rate calendar
+ * multipliers, discount rules, bookings, cancellations and archiving) to a write-ahead log on disk, and it rebuilds the HRS from that log on startup.
+ *
+ * Changes are encoded into an in-memory buffer by the thread that made them. A single writer thread
+ * takes everything buffered so far, writes it through a FileChannel and forces it to disk, so one
+ * fsync commits all the changes that arrived while the previous one was running (group commit).
+ * When commits are awaited, the thread that made a change waits until that change is on disk.
+ *
+ * The log is split into numbered segments. Once a segment grows past the checkpoint size, the writer
+ * moves on to a new segment and a checkpoint writes an HRSSnapshot of the whole system, after which
+ * the older segments are deleted. Startup loads the latest snapshot and replays only the segments
+ * written since. The snapshot is taken while the system keeps running, so it may already contain some
+ * of the changes in the segments after it; replay skips changes that are already there.
+ *
+ * Every record is stored with its length and a CRC32 of its contents. A record torn by a crash at the
+ * end of the last segment is detected on startup and cut off.
+ *
+ * A booking is journaled with the price of each night and the total in cents, exactly as the guest was
+ * charged, so recovering it prices nothing. Rate calendar and discount rule changes are journaled too,
+ * so that bookings made after recovery are priced as they would have been before. Only the standard
+ * kinds of discount rule can be journaled; registering any other kind with a journaled hotel is refused.
+ *
+ * Reservations moved to a ReservationArchive are journaled as leaving the hotel; the archive itself is
+ * durable on its own and is attached to the recovered hotel again by whoever opened it.
+ */
+public class ReservationJournal implements HRSListener, Closeable {
+    /**
+     * The first four bytes of every journal segment.
+     */
+    private static final int SEGMENT_MAGIC = 0x48525341;
+
+    /**
+     * The version of the record format, written after the magic number.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * The size of the header of a segment: the magic number and the format version.
+     */
+    private static final int FILE_HEADER_BYTES = 8;
+
+    /**
+     * The largest record the journal accepts, which bounds what a damaged length field can claim.
+     */
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    /**
+     * The default size a segment grows to before a checkpoint is taken.
+     */
+    public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+    /**
+     * The record of a new hotel: id, name, base price, next room number.
+     */
+    private static final byte HOTEL_CREATED = 1;
+
+    /**
+     * The record of a renamed hotel: id, new name.
+     */
+    private static final byte HOTEL_RENAMED = 2;
+
+    /**
+     * The record of a removed hotel: id.
+     */
+    private static final byte HOTEL_REMOVED = 3;
+
+    /**
+     * The record of a new room: hotel id, room name, room type, next room number of the hotel.
+     */
+    private static final byte ROOM_ADDED = 4;
+
+    /**
+     * The record of a removed room: hotel id, room name.
+     */
+    private static final byte ROOM_REMOVED = 5;
+
+    /**
+     * The record of a new base price: hotel id, base price.
+     */
+    private static final byte BASE_PRICE = 6;
+
+    /**
+     * The record of a booking: hotel id, booking number, room name, guest name, check-in and check-out
+     * epoch days, discount code, total in cents, then the price of each night in cents.
+     */
+    private static final byte BOOKED = 7;
+
+    /**
+     * The record of a cancellation: hotel id, room name, check-in epoch day.
+     */
+    private static final byte CANCELLED = 8;
+
+    /**
+     * The record of a reservation moved to the hotel's archive: hotel id, room name, check-in epoch day.
+     * It is replayed like a cancellation, since the archive holds the reservation from then on.
+     */
+    private static final byte ARCHIVED = 9;
+
+    /**
+     * The record of a new day of month multiplier: hotel id, day of month, multiplier.
+     */
+    private static final byte DAY_OF_MONTH_MULTIPLIER = 10;
+
+    /**
+     * The record of multipliers loaded for specific nights: hotel id, count, then an epoch day and a
+     * multiplier for each night. A large load is split over several records.
+     */
+    private static final byte MULTIPLIERS_LOADED = 11;
+
+    /**
+     * The record of a night's override being removed: hotel id, epoch day.
+     */
+    private static final byte MULTIPLIER_CLEARED = 12;
+
+    /**
+     * The record of a discount rule being registered: hotel id, code, kind, and the two parameters of
+     * the rule as DiscountEngine.encode gives them.
+     */
+    private static final byte DISCOUNT_REGISTERED = 13;
+
+    /**
+     * The record of a discount rule being removed: hotel id, code.
+     */
+    private static final byte DISCOUNT_REMOVED = 14;
+
+    /**
+     * The most nights a single MULTIPLIERS_LOADED record holds.
+     */
+    private static final int MULTIPLIERS_PER_RECORD = 4096;
+
+    /**
+     * The directory holding the segments and snapshots.
+     */
+    private final Path directory;
+
+    /**
+     * The system being journaled.
+     */
+    private final HRS hrs;
+
+    /**
+     * Whether a change waits until it is on disk before the thread that made it carries on.
+     */
+    private final boolean awaitCommits;
+
+    /**
+     * The size a segment grows to before a checkpoint is taken.
+     */
+    private final long checkpointBytes;
+
+    /**
+     * The ids the journal gave the hotels, which stay the same when a hotel is renamed.
+     */
+    private final ConcurrentHashMap<Hotel, Integer> hotelIds;
+
+    /**
+     * The lock guarding the buffered records, the sequence numbers and the state of the writer.
+     */
+    private final Object lock;
+
+    /**
+     * The lock that lets only one checkpoint run at a time.
+     */
+    private final Object checkpointLock;
+
+    /**
+     * The records appended since the writer last took them.
+     */
+    private RecordBuffer pending;
+
+    /**
+     * The buffer the writer hands back in exchange for the pending records.
+     */
+    private ByteBuffer spare;
+
+    /**
+     * The id to give the next hotel.
+     */
+    private int nextHotelId;
+
+    /**
+     * The number of changes appended so far.
+     */
+    private long appendedSequence;
+
+    /**
+     * The number of changes known to be on disk.
+     */
+    private long durableSequence;
+
+    /**
+     * The number of the segment being written.
+     */
+    private long segment;
+
+    /**
+     * The number of bytes written to the current segment.
+     */
+    private long segmentBytes;
+
+    /**
+     * Whether the writer should move on to a new segment after its next write.
+     */
+    private boolean rotateRequested;
+
+    /**
+     * Whether a checkpoint is running.
+     */
+    private boolean checkpointRunning;
+
+    /**
+     * Whether the journal was closed.
+     */
+    private boolean closed;
+
+    /**
+     * The error that stopped the writer, if any.
+     */
+    private IOException failure;
+
+    /**
+     * The error of the last background checkpoint that failed, kept until the next call to checkpoint
+     * or close reports it.
+     */
+    private Exception checkpointFailure;
+
+    /**
+     * The number of records appended since the journal was opened.
+     */
+    private long recordCount;
+
+    /**
+     * The number of writes forced to disk since the journal was opened.
+     */
+    private long commitCount;
+
+    /**
+     * The channel of the segment being written, used only by the writer thread.
+     */
+    private FileChannel channel;
+
+    /**
+     * The thread that writes and forces the buffered records.
+     */
+    private final Thread writer;
+
+    /**
+     * The thread that takes checkpoints in the background.
+     */
+    private final ExecutorService checkpointer;
+
+    /**
+     * This constructor creates a journal that continues after the given segment. Use open to create one.
+     *
+     * @param directory - the directory of the journal
+     * @param hrs - the system being journaled
+     * @param awaitCommits - whether changes wait until they are on disk
+     * @param checkpointBytes - the size a segment grows to before a checkpoint is taken
+     * @param segment - the number of the first segment to write
+     * @param nextHotelId - the id to give the next hotel
+     * @param hotelIds - the ids of the hotels already in the system
+     * @throws IOException if the first segment cannot be created
+     */
+    private ReservationJournal(Path directory, HRS hrs, boolean awaitCommits, long checkpointBytes, long segment, int nextHotelId, Map<Hotel, Integer> hotelIds) throws IOException {
+        this.directory = directory;
+        this.hrs = hrs;
+        this.awaitCommits = awaitCommits;
+        this.checkpointBytes = checkpointBytes;
+        this.hotelIds = new ConcurrentHashMap<>(hotelIds);
+        this.lock = new Object();
+        this.checkpointLock = new Object();
+        this.pending = new RecordBuffer(1 << 16);
+        this.spare = ByteBuffer.allocate(1 << 16);
+        this.nextHotelId = nextHotelId;
+        this.segment = segment;
+        this.channel = createSegment(segment);
+        this.writer = new Thread(this::writeLoop, "hrs-journal-writer");
+        this.writer.setDaemon(true);
+        this.checkpointer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hrs-journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the journal in a directory with the default settings: changes wait until they are on disk.
+     *
+     * @param directory - the directory of the journal, created if needed
+     * @param hrs - an empty system to recover into and journal from then on
+     * @return the open journal
+     * @throws IOException if the journal cannot be read or written
+     */
+    public static ReservationJournal open(Path directory, HRS hrs) throws IOException {
+        return open(directory, hrs, true, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * Opens the journal in a directory. The latest snapshot and the segments after it are replayed into
+     * the system, then the journal starts listening to it. Open the journal before registering any
+     * other listener, so that the recovery is not reported as new changes.
+     *
+     * @param directory - the directory of the journal, created if needed
+     * @param hrs - an empty system to recover into and journal from then on
+     * @param awaitCommits - whether changes wait until they are on disk; if false, a crash can lose the
+     *                       changes of the last few milliseconds
+     * @param checkpointBytes - the size a segment grows to before a checkpoint is taken
+     * @return the open journal
+     * @throws IOException if the journal cannot be read or written
+     * @throws IllegalStateException if the journal is damaged before its last record
+     */
+    public static ReservationJournal open(Path directory, HRS hrs, boolean awaitCommits, long checkpointBytes) throws IOException {
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (fileName.startsWith("snapshot-") && fileName.endsWith(".dat")) {
+                    snapshots.put(Long.parseLong(fileName.substring(9, fileName.length() - 4)), file);
+                } else if (fileName.startsWith("journal-") && fileName.endsWith(".log")) {
+                    segments.put(Long.parseLong(fileName.substring(8, fileName.length() - 4)), file);
+                }
+            }
+        }
+
+        Replay replay = new Replay(hrs);
+        long first = 0;
+        if (!snapshots.isEmpty()) {
+            first = snapshots.lastKey();
+            replay.restored(HRSSnapshot.open(snapshots.lastEntry().getValue()).restoreInto(hrs));
+        }
+        long last = first;
+        Map<Long, Path> tail = segments.tailMap(first, true);
+        for (Map.Entry<Long, Path> entry : tail.entrySet()) {
+            replay.readFile(entry.getValue(), entry.getKey().equals(segments.lastKey()));
+            last = entry.getKey();
+            if (Files.size(entry.getValue()) <= FILE_HEADER_BYTES) {
+                Files.delete(entry.getValue());
+            }
+        }
+        replay.flush();
+
+        ReservationJournal journal = new ReservationJournal(directory, hrs, awaitCommits, checkpointBytes, last + 1, replay.nextHotelId, replay.ids);
+        hrs.addListener(journal);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Opens the latest snapshot in a journal directory without recovering anything. The snapshot can
+     * serve lookups straight from the file while a system is still being recovered with open; it does
+     * not include the changes in the segments written after it.
+     *
+     * @param directory - the directory of the journal
+     * @return the latest snapshot, or null if the directory has none
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static HRSSnapshot openLatestSnapshot(Path directory) throws IOException {
+        Path latest = null;
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*.dat")) {
+                for (Path file : files) {
+                    if (latest == null || file.getFileName().toString().compareTo(latest.getFileName().toString()) > 0) {
+                        latest = file;
+                    }
+                }
+            }
+        }
+        return latest == null ? null : HRSSnapshot.open(latest);
+    }
+
+    /**
+     * A getter that gets the number of records appended since the journal was opened.
+     *
+     * @return the number of records
+     */
+    public long getRecordCount() {
+        synchronized (lock) {
+            return recordCount;
+        }
+    }
+
+    /**
+     * A getter that gets the number of writes forced to disk since the journal was opened. Each one
+     * commits every record appended while the previous one was running.
+     *
+     * @return the number of commits
+     */
+    public long getCommitCount() {
+        synchronized (lock) {
+            return commitCount;
+        }
+    }
+
+    /**
+     * This method waits until every change appended so far is on disk.
+     *
+     * @throws IllegalStateException if the journal failed or was interrupted
+     */
+    public void sync() {
+        synchronized (lock) {
+            awaitDurable(appendedSequence);
+        }
+    }
+
+    /**
+     * This method journals a new hotel together with its first rooms.
+     *
+     * @param hotel - the new hotel
+     */
+    public void hotelCreated(Hotel hotel) {
+        List<Room> rooms = hotel.getRooms();
+        int nextRoomNumber = hotel.getNextRoomNumber();
+        synchronized (lock) {
+            int id = nextHotelId++;
+            hotelIds.put(hotel, id);
+            writeHotel(pending, id, hotel, nextRoomNumber);
+            for (Room room : rooms) {
+                writeRoom(pending, id, room, nextRoomNumber);
+            }
+            commit(1 + rooms.size());
+        }
+    }
+
+    /**
+     * This method journals the new name of a hotel.
+     *
+     * @param hotel - the renamed hotel
+     * @param oldName - the name the hotel had before
+     */
+    public void hotelRenamed(Hotel hotel, String oldName) {
+        synchronized (lock) {
+            pending.begin(HOTEL_RENAMED);
+            pending.putInt(idOf(hotel));
+            pending.putString(hotel.getName());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals the removal of a hotel.
+     *
+     * @param hotel - the removed hotel
+     */
+    public void hotelRemoved(Hotel hotel) {
+        synchronized (lock) {
+            pending.begin(HOTEL_REMOVED);
+            pending.putInt(idOf(hotel));
+            pending.end();
+            hotelIds.remove(hotel);
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a new room.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the new room
+     */
+    public void roomAdded(Hotel hotel, Room room) {
+        int nextRoomNumber = hotel.getNextRoomNumber();
+        synchronized (lock) {
+            writeRoom(pending, idOf(hotel), room, nextRoomNumber);
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals the removal of a room.
+     *
+     * @param hotel - the hotel of the room
+     * @param room - the removed room
+     */
+    public void roomRemoved(Hotel hotel, Room room) {
+        synchronized (lock) {
+            pending.begin(ROOM_REMOVED);
+            pending.putInt(idOf(hotel));
+            pending.putString(room.getName());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals the new base price of a hotel.
+     *
+     * @param hotel - the hotel with the new base price
+     */
+    public void basePriceChanged(Hotel hotel) {
+        synchronized (lock) {
+            pending.begin(BASE_PRICE);
+            pending.putInt(idOf(hotel));
+            pending.putDouble(hotel.getBasePrice());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a new day of month multiplier of a hotel's rate calendar.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param dayOfMonth - the day of the month
+     * @param multiplier - the new multiplier
+     */
+    public void dayOfMonthMultiplierChanged(Hotel hotel, int dayOfMonth, double multiplier) {
+        synchronized (lock) {
+            pending.begin(DAY_OF_MONTH_MULTIPLIER);
+            pending.putInt(idOf(hotel));
+            pending.putByte((byte) dayOfMonth);
+            pending.putDouble(multiplier);
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals multipliers loaded for specific nights of a hotel's rate calendar.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param multipliers - the multipliers keyed by the date of the night
+     */
+    public void multipliersLoaded(Hotel hotel, Map<LocalDate, Double> multipliers) {
+        synchronized (lock) {
+            int id = idOf(hotel);
+            Iterator<Map.Entry<LocalDate, Double>> entries = multipliers.entrySet().iterator();
+            int left = multipliers.size();
+            int records = 0;
+            while (left > 0) {
+                int count = Math.min(left, MULTIPLIERS_PER_RECORD);
+                pending.begin(MULTIPLIERS_LOADED);
+                pending.putInt(id);
+                pending.putInt(count);
+                for (int i = 0; i < count; i++) {
+                    Map.Entry<LocalDate, Double> entry = entries.next();
+                    pending.putLong(entry.getKey().toEpochDay());
+                    pending.putDouble(entry.getValue());
+                }
+                pending.end();
+                left -= count;
+                records++;
+            }
+            if (records > 0) {
+                commit(records);
+            }
+        }
+    }
+
+    /**
+     * This method journals the removal of a night's override from a hotel's rate calendar.
+     *
+     * @param hotel - the hotel of the rate calendar
+     * @param date - the date of the night
+     */
+    public void multiplierCleared(Hotel hotel, LocalDate date) {
+        synchronized (lock) {
+            pending.begin(MULTIPLIER_CLEARED);
+            pending.putInt(idOf(hotel));
+            pending.putLong(date.toEpochDay());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a discount rule registered with a hotel.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param rule - the rule
+     * @throws IllegalArgumentException if the rule is not of a standard kind, which refuses the registration
+     */
+    public void discountRuleRegistered(Hotel hotel, DiscountRule rule) {
+        int[] encoded = DiscountEngine.encode(rule);
+        synchronized (lock) {
+            pending.begin(DISCOUNT_REGISTERED);
+            pending.putInt(idOf(hotel));
+            pending.putString(rule.getCode());
+            pending.putByte((byte) encoded[0]);
+            pending.putInt(encoded[1]);
+            pending.putInt(encoded[2]);
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a discount rule removed from a hotel.
+     *
+     * @param hotel - the hotel of the discount engine
+     * @param code - the discount code
+     */
+    public void discountRuleRemoved(Hotel hotel, String code) {
+        synchronized (lock) {
+            pending.begin(DISCOUNT_REMOVED);
+            pending.putInt(idOf(hotel));
+            pending.putString(code);
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a booking.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the new reservation
+     * @param bookingNumber - the booking number of the reservation
+     */
+    public void reservationBooked(Hotel hotel, Reservation reservation, long bookingNumber) {
+        synchronized (lock) {
+            writeBooking(pending, idOf(hotel), reservation, bookingNumber);
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals a cancellation. The reservation is identified by its room and check-in date,
+     * since a room cannot have two reservations checking in on the same day.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the cancelled reservation
+     */
+    public void reservationCancelled(Hotel hotel, Reservation reservation) {
+        synchronized (lock) {
+            pending.begin(CANCELLED);
+            pending.putInt(idOf(hotel));
+            pending.putString(reservation.getRoom().getName());
+            pending.putInt(reservation.getCheckInDay());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method journals that a reservation was moved to the hotel's archive, so that it is not
+     * recovered as a live reservation again.
+     *
+     * @param hotel - the hotel of the reservation
+     * @param reservation - the archived reservation
+     */
+    public void reservationArchived(Hotel hotel, Reservation reservation) {
+        synchronized (lock) {
+            pending.begin(ARCHIVED);
+            pending.putInt(idOf(hotel));
+            pending.putString(reservation.getRoom().getName());
+            pending.putInt(reservation.getCheckInDay());
+            pending.end();
+            commit(1);
+        }
+    }
+
+    /**
+     * This method takes a checkpoint now: the writer moves on to a new segment, a snapshot of the whole
+     * system is written, and the segments and snapshots before it are deleted. The system keeps running
+     * while the snapshot is written. If a checkpoint taken in the background failed since the last call,
+     * that failure is reported instead, and the next call tries again.
+     *
+     * @throws IOException if the snapshot cannot be written, or a background checkpoint failed
+     * @throws IllegalStateException if the journal failed or was closed
+     */
+    public void checkpoint() throws IOException {
+        reportCheckpointFailure();
+        takeCheckpoint();
+    }
+
+    /**
+     * Throws the failure of the last background checkpoint, if one failed since it was last reported.
+     *
+     * @throws IOException if a background checkpoint failed
+     */
+    private void reportCheckpointFailure() throws IOException {
+        Exception failed;
+        synchronized (lock) {
+            failed = checkpointFailure;
+            checkpointFailure = null;
+        }
+        if (failed != null) {
+            throw new IOException("A background checkpoint failed.", failed);
+        }
+    }
+
+    /**
+     * Takes a checkpoint: rotates the segment, writes the snapshot and deletes what it replaces.
+     *
+     * @throws IOException if the snapshot cannot be written
+     * @throws IllegalStateException if the journal failed or was closed
+     */
+    private void takeCheckpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long snapshotSegment;
+            List<Hotel> hotels;
+            // Hotels are created and removed under the system's lock, so holding it while the segment
+            // rotates keeps the hotel list in step with the records the old segments hold.
+            synchronized (hrs) {
+                synchronized (lock) {
+                    checkOpen();
+                    snapshotSegment = segment + 1;
+                    rotateRequested = true;
+                    lock.notifyAll();
+                    while (segment < snapshotSegment) {
+                        checkOpen();
+                        waitOnLock();
+                    }
+                }
+                hotels = hrs.getHotels();
+            }
+            writeSnapshot(snapshotSegment, hotels);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    if (fileName.startsWith("snapshot-") && fileName.endsWith(".dat")
+                            && Long.parseLong(fileName.substring(9, fileName.length() - 4)) < snapshotSegment) {
+                        Files.delete(file);
+                    } else if (fileName.startsWith("journal-") && fileName.endsWith(".log")
+                            && Long.parseLong(fileName.substring(8, fileName.length() - 4)) < snapshotSegment) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method stops journaling: it stops listening to the system, writes everything appended so
+     * far to disk and closes the current segment.
+     *
+     * @throws IOException if the last records could not be written, or a background checkpoint failed
+     *                     and was not reported yet
+     */
+    public void close() throws IOException {
+        hrs.removeListener(this);
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        reportCheckpointFailure();
+    }
+
+    /**
+     * Gets the id of a hotel of the system.
+     *
+     * @param hotel - the hotel
+     * @return the id of the hotel
+     * @throws IllegalStateException if the journal does not know the hotel
+     */
+    private int idOf(Hotel hotel) {
+        Integer id = hotelIds.get(hotel);
+        if (id == null) {
+            throw new IllegalStateException("Hotel " + hotel.getName() + " is not journaled.");
+        }
+        return id;
+    }
+
+    /**
+     * Finishes appending records while holding the lock: wakes the writer and, if commits are awaited,
+     * waits until the records are on disk.
+     *
+     * @param records - the number of records appended
+     */
+    private void commit(int records) {
+        checkOpen();
+        long sequence = ++appendedSequence;
+        recordCount += records;
+        lock.notifyAll();
+        if (awaitCommits) {
+            awaitDurable(sequence);
+        }
+    }
+
+    /**
+     * Waits while holding the lock until the change with the given sequence number is on disk.
+     *
+     * @param sequence - the sequence number of the change
+     */
+    private void awaitDurable(long sequence) {
+        while (durableSequence < sequence) {
+            if (failure != null) {
+                throw new IllegalStateException("The journal could not be written.", failure);
+            }
+            waitOnLock();
+        }
+    }
+
+    /**
+     * Waits on the lock, which must be held, until another thread signals a change.
+     */
+    private void waitOnLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal.", e);
+        }
+    }
+
+    /**
+     * Checks, while holding the lock, that records can still be appended.
+     *
+     * @throws IllegalStateException if the journal failed or was closed
+     */
+    private void checkOpen() {
+        if (failure != null) {
+            throw new IllegalStateException("The journal could not be written.", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("The journal is closed.");
+        }
+    }
+
+    /**
+     * The loop of the writer thread: takes the pending records, writes and forces them, and moves on to
+     * a new segment when asked to, until the journal is closed.
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long target;
+                boolean rotate;
+                synchronized (lock) {
+                    while (pending.isEmpty() && !rotateRequested && !closed) {
+                        lock.wait();
+                    }
+                    if (pending.isEmpty() && !rotateRequested) {
+                        break;
+                    }
+                    batch = pending.take(spare);
+                    target = appendedSequence;
+                    rotate = rotateRequested;
+                    rotateRequested = false;
+                }
+                batch.flip();
+                int written = batch.remaining();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                batch.clear();
+                FileChannel next = null;
+                if (rotate) {
+                    channel.close();
+                    next = createSegment(segment + 1);
+                }
+                synchronized (lock) {
+                    spare = batch;
+                    durableSequence = target;
+                    commitCount++;
+                    segmentBytes += written;
+                    if (next != null) {
+                        channel = next;
+                        segment++;
+                        segmentBytes = 0;
+                    } else if (segmentBytes >= checkpointBytes && !checkpointRunning) {
+                        checkpointRunning = true;
+                        checkpointer.execute(this::backgroundCheckpoint);
+                    }
+                    lock.notifyAll();
+                }
+            }
+            channel.close();
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            synchronized (lock) {
+                failure = new IOException("The journal writer was interrupted.", e);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes a checkpoint on the checkpoint thread after a segment grew past the checkpoint size.
+     * A failure is kept for the next call to checkpoint or close to report. The segments stay on disk
+     * until a checkpoint succeeds, so nothing journaled is lost in the meantime.
+     */
+    private void backgroundCheckpoint() {
+        Exception failed = null;
+        try {
+            takeCheckpoint();
+        } catch (IOException | IllegalStateException e) {
+            failed = e;
+        } finally {
+            synchronized (lock) {
+                checkpointRunning = false;
+                // A checkpoint cut short by close has lost nothing, so it is not reported.
+                if (failed != null && !closed) {
+                    checkpointFailure = failed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new, empty segment and writes its header.
+     *
+     * @param number - the number of the segment
+     * @return the channel to append to the segment
+     * @throws IOException if the segment cannot be created
+     */
+    private FileChannel createSegment(long number) throws IOException {
+        FileChannel created = FileChannel.open(directory.resolve(String.format("journal-%016d.log", number)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            created.write(header);
+        }
+        created.force(true);
+        return created;
+    }
+
+    /**
+     * Writes a snapshot of every hotel of the system. The snapshot is written to a temporary file that
+     * replaces nothing until it is complete and on disk.
+     *
+     * @param number - the number of the first segment the snapshot does not cover
+     * @param hotels - the hotels in the system when the segment was started
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(long number, List<Hotel> hotels) throws IOException {
+        Path temporary = directory.resolve(String.format("snapshot-%016d.tmp", number));
+        Path target = directory.resolve(String.format("snapshot-%016d.dat", number));
+        HRSSnapshot.write(temporary, hotels, hotelIds);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encodes the record of a hotel.
+     *
+     * @param buffer - the buffer to append to
+     * @param id - the id of the hotel
+     * @param hotel - the hotel
+     * @param nextRoomNumber - the number the hotel will give its next room
+     */
+    private static void writeHotel(RecordBuffer buffer, int id, Hotel hotel, int nextRoomNumber) {
+        buffer.begin(HOTEL_CREATED);
+        buffer.putInt(id);
+        buffer.putString(hotel.getName());
+        buffer.putDouble(hotel.getBasePrice());
+        buffer.putInt(nextRoomNumber);
+        buffer.end();
+    }
+
+    /**
+     * Encodes the record of a room.
+     *
+     * @param buffer - the buffer to append to
+     * @param id - the id of the hotel of the room
+     * @param room - the room
+     * @param nextRoomNumber - the next room number of the hotel once the room was added, or 0 if the
+     *                         record of the hotel already has it
+     */
+    private static void writeRoom(RecordBuffer buffer, int id, Room room, int nextRoomNumber) {
+        buffer.begin(ROOM_ADDED);
+        buffer.putInt(id);
+        buffer.putString(room.getName());
+        buffer.putByte((byte) room.getType().ordinal());
+        buffer.putInt(nextRoomNumber);
+        buffer.end();
+    }
+
+    /**
+     * Encodes the record of a booking.
+     *
+     * @param buffer - the buffer to append to
+     * @param id - the id of the hotel of the reservation
+     * @param reservation - the reservation
+     * @param bookingNumber - the booking number of the reservation
+     */
+    private static void writeBooking(RecordBuffer buffer, int id, Reservation reservation, long bookingNumber) {
+        buffer.begin(BOOKED);
+        buffer.putInt(id);
+        buffer.putLong(bookingNumber);
+        buffer.putString(reservation.getRoom().getName());
+        buffer.putString(reservation.getGuestName());
+        buffer.putInt(reservation.getCheckInDay());
+        buffer.putInt(reservation.getCheckOutDay());
+        buffer.putString(reservation.getDiscountCode());
+        buffer.putLong(reservation.getTotalCents());
+        for (int night = 0; night < reservation.getNights(); night++) {
+            buffer.putLong(reservation.getNightlyCents(night));
+        }
+        buffer.end();
+    }
+
+    /**
+     * The RecordBuffer class encodes records into a growable buffer. Each record is framed by its length
+     * and the CRC32 of its contents.
+     */
+    private static final class RecordBuffer {
+        /**
+         * The buffer being appended to.
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * The checksum used to frame records.
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * The position of the frame of the record being encoded.
+         */
+        private int start;
+
+        /**
+         * The constructor that creates an empty buffer.
+         *
+         * @param capacity - the initial capacity in bytes
+         */
+        RecordBuffer(int capacity) {
+            this.buffer = ByteBuffer.allocate(capacity);
+        }
+
+        /**
+         * Checks if nothing was appended.
+         *
+         * @return true if the buffer is empty
+         */
+        boolean isEmpty() {
+            return buffer.position() == 0;
+        }
+
+        /**
+         * Takes the appended records and continues with an empty buffer.
+         *
+         * @param replacement - the empty buffer to continue with
+         * @return the buffer holding the appended records
+         */
+        ByteBuffer take(ByteBuffer replacement) {
+            ByteBuffer taken = buffer;
+            buffer = replacement;
+            return taken;
+        }
+
+        /**
+         * Starts a record, leaving room for its frame.
+         *
+         * @param type - the type of the record
+         */
+        void begin(byte type) {
+            ensure(9);
+            start = buffer.position();
+            buffer.position(start + 8);
+            buffer.put(type);
+        }
+
+        /**
+         * Finishes the record being encoded by filling in its frame.
+         *
+         * @throws IllegalArgumentException if the record is too large, in which case it is dropped
+         */
+        void end() {
+            int length = buffer.position() - start - 8;
+            if (length > MAX_RECORD_BYTES) {
+                buffer.position(start);
+                throw new IllegalArgumentException("Journal record of " + length + " bytes is too large.");
+            }
+            ByteBuffer contents = buffer.duplicate();
+            contents.position(start + 8).limit(start + 8 + length);
+            crc.reset();
+            crc.update(contents);
+            buffer.putInt(start, length);
+            buffer.putInt(start + 4, (int) crc.getValue());
+        }
+
+        /**
+         * Appends a byte.
+         *
+         * @param value - the value
+         */
+        void putByte(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        /**
+         * Appends an int.
+         *
+         * @param value - the value
+         */
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Appends a long.
+         *
+         * @param value - the value
+         */
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Appends a double.
+         *
+         * @param value - the value
+         */
+        void putDouble(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Appends a string as its UTF-8 length and bytes, or a length of -1 for null.
+         *
+         * @param value - the value, or null
+         */
+        void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Makes room for more bytes, growing the buffer if needed.
+         *
+         * @param bytes - the number of bytes about to be appended
+         */
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+    }
+
+    /**
+     * The Replay class replays journal segments on top of the hotels restored from a snapshot. Bookings
+     * are gathered per hotel and added to their rooms in bulk when a file is done, since adding them one
+     * at a time would copy a room's reservations for every booking. They are kept by room and check-in
+     * date so that later records can cancel them.
+     */
+    private static final class Replay {
+        /**
+         * The system being rebuilt.
+         */
+        private final HRS hrs;
+
+        /**
+         * The hotels rebuilt so far by id.
+         */
+        private final HashMap<Integer, Hotel> hotels = new HashMap<>();
+
+        /**
+         * The ids of the hotels rebuilt so far.
+         */
+        private final IdentityHashMap<Hotel, Integer> ids = new IdentityHashMap<>();
+
+        /**
+         * The bookings not yet added to their rooms, per hotel, keyed by room then check-in epoch day.
+         */
+        private final IdentityHashMap<Hotel, HashMap<Room, HashMap<Integer, Reservation>>> bookings = new IdentityHashMap<>();
+
+        /**
+         * The booking numbers of the bookings not yet added to their rooms.
+         */
+        private final IdentityHashMap<Reservation, Long> bookingNumbers = new IdentityHashMap<>();
+
+        /**
+         * The id to give the next hotel.
+         */
+        private int nextHotelId;
+
+        /**
+         * The constructor that starts rebuilding into a system.
+         *
+         * @param hrs - the empty system to rebuild
+         */
+        Replay(HRS hrs) {
+            this.hrs = hrs;
+        }
+
+        /**
+         * Takes over the hotels restored from a snapshot, so that the segments can refer to them.
+         *
+         * @param restored - the restored hotels keyed by id
+         */
+        void restored(Map<Integer, Hotel> restored) {
+            for (Map.Entry<Integer, Hotel> entry : restored.entrySet()) {
+                hotels.put(entry.getKey(), entry.getValue());
+                ids.put(entry.getValue(), entry.getKey());
+                nextHotelId = Math.max(nextHotelId, entry.getKey() + 1);
+            }
+        }
+
+        /**
+         * Replays the records of a segment. A damaged record ends the file; at the end of the last
+         * segment it is a write torn by a crash and is cut off, anywhere else it is an error.
+         *
+         * @param file - the file to replay
+         * @param last - whether the file is the last segment of the journal
+         * @throws IOException if the file cannot be read
+         */
+        void readFile(Path file, boolean last) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(2 * MAX_RECORD_BYTES).flip();
+                CRC32 crc = new CRC32();
+                long consumed = 0;
+                boolean damaged = false;
+                if (fill(in, buffer, FILE_HEADER_BYTES)) {
+                    if (buffer.getInt() != SEGMENT_MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                        throw new IOException(file + " is not a journal file of a known version.");
+                    }
+                    consumed = FILE_HEADER_BYTES;
+                    while (fill(in, buffer, 8)) {
+                        int start = buffer.position();
+                        int length = buffer.getInt(start);
+                        if (length <= 0 || length > MAX_RECORD_BYTES) {
+                            damaged = true;
+                            break;
+                        }
+                        if (!fill(in, buffer, 8 + length)) {
+                            break;
+                        }
+                        start = buffer.position();
+                        ByteBuffer record = buffer.slice(start + 8, length);
+                        crc.reset();
+                        crc.update(record.duplicate());
+                        if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+                            damaged = true;
+                            break;
+                        }
+                        apply(record);
+                        buffer.position(start + 8 + length);
+                        consumed += 8 + length;
+                    }
+                }
+                if (damaged || consumed < in.size()) {
+                    if (!last) {
+                        throw new IllegalStateException(file + " is damaged after " + consumed + " bytes.");
+                    }
+                    in.truncate(consumed);
+                    in.force(true);
+                }
+            }
+        }
+
+        /**
+         * Reads from a file until the buffer holds at least the given number of bytes, moving the unread
+         * bytes to the front first.
+         *
+         * @param in - the file being read
+         * @param buffer - the buffer, ready for reading
+         * @param bytes - the number of bytes needed
+         * @return true if the bytes are there, false if the file ended first
+         * @throws IOException if the file cannot be read
+         */
+        private boolean fill(FileChannel in, ByteBuffer buffer, int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (buffer.capacity() < bytes) {
+                throw new IllegalStateException("Journal record of " + bytes + " bytes does not fit the read buffer.");
+            }
+            buffer.compact();
+            try {
+                while (buffer.position() < bytes) {
+                    if (in.read(buffer) < 0) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                buffer.flip();
+            }
+        }
+
+        /**
+         * Applies one record. Records of things that are already there, or no longer there, are skipped.
+         *
+         * @param record - the contents of the record
+         */
+        void apply(ByteBuffer record) {
+            byte type = record.get();
+            int id = record.getInt();
+            Hotel hotel = hotels.get(id);
+            if (type == HOTEL_CREATED) {
+                String name = getString(record);
+                double basePrice = record.getDouble();
+                int nextRoomNumber = record.getInt();
+                if (hotel == null) {
+                    hotel = hrs.restoreHotel(name, basePrice);
+                    hotel.restoreNextRoomNumber(nextRoomNumber);
+                    hotels.put(id, hotel);
+                    ids.put(hotel, id);
+                    nextHotelId = Math.max(nextHotelId, id + 1);
+                }
+                return;
+            }
+            if (hotel == null) {
+                return;
+            }
+            switch (type) {
+                case HOTEL_RENAMED: {
+                    String name = getString(record);
+                    if (!hotel.getName().equals(name)) {
+                        hotel.setName(name);
+                    }
+                    break;
+                }
+                case HOTEL_REMOVED:
+                    flush();
+                    hrs.removeHotel(hotel.getName());
+                    hotels.remove(id);
+                    ids.remove(hotel);
+                    break;
+                case ROOM_ADDED: {
+                    String roomName = getString(record);
+                    Room.RoomType roomType = Room.RoomType.values()[record.get()];
+                    int nextRoomNumber = record.getInt();
+                    if (hotel.getRoom(roomName) == null) {
+                        hotel.restoreRoom(roomName, roomType, nextRoomNumber);
+                    }
+                    break;
+                }
+                case ROOM_REMOVED: {
+                    String roomName = getString(record);
+                    if (hotel.getRoom(roomName) != null) {
+                        flush();
+                        hotel.removeRoom(roomName);
+                    }
+                    break;
+                }
+                case BASE_PRICE:
+                    hotel.restoreBasePrice(record.getDouble());
+                    break;
+                case BOOKED: {
+                    long bookingNumber = record.getLong();
+                    Room room = hotel.getRoom(getString(record));
+                    String guestName = getString(record);
+                    int checkIn = record.getInt();
+                    int checkOut = record.getInt();
+                    String discountCode = getString(record);
+                    long totalCents = record.getLong();
+                    long[] nightlyCents = new long[checkOut - checkIn];
+                    for (int night = 0; night < nightlyCents.length; night++) {
+                        nightlyCents[night] = record.getLong();
+                    }
+                    if (room == null || room.getReservation(LocalDate.ofEpochDay(checkIn)) != null) {
+                        break;
+                    }
+                    HashMap<Integer, Reservation> byCheckIn = bookings.computeIfAbsent(hotel, h -> new HashMap<>()).computeIfAbsent(room, r -> new HashMap<>());
+                    if (!byCheckIn.containsKey(checkIn)) {
+                        Reservation reservation = new Reservation(guestName, checkIn, checkOut, room, discountCode, nightlyCents, totalCents);
+                        byCheckIn.put(checkIn, reservation);
+                        bookingNumbers.put(reservation, bookingNumber);
+                    }
+                    break;
+                }
+                case CANCELLED:
+                case ARCHIVED: {
+                    Room room = hotel.getRoom(getString(record));
+                    int checkIn = record.getInt();
+                    if (room == null) {
+                        break;
+                    }
+                    HashMap<Room, HashMap<Integer, Reservation>> byRoom = bookings.get(hotel);
+                    Reservation gathered = byRoom == null || !byRoom.containsKey(room) ? null : byRoom.get(room).remove(checkIn);
+                    if (gathered != null) {
+                        bookingNumbers.remove(gathered);
+                    } else {
+                        Reservation reservation = room.getReservation(LocalDate.ofEpochDay(checkIn));
+                        if (reservation != null) {
+                            hotel.cancel(reservation);
+                        }
+                    }
+                    break;
+                }
+                case DAY_OF_MONTH_MULTIPLIER:
+                    hotel.getRateCalendar().setDayOfMonthMultiplier(record.get(), record.getDouble());
+                    break;
+                case MULTIPLIERS_LOADED: {
+                    int count = record.getInt();
+                    HashMap<LocalDate, Double> multipliers = new HashMap<>();
+                    for (int i = 0; i < count; i++) {
+                        multipliers.put(LocalDate.ofEpochDay(record.getLong()), record.getDouble());
+                    }
+                    hotel.getRateCalendar().loadMultipliers(multipliers);
+                    break;
+                }
+                case MULTIPLIER_CLEARED:
+                    hotel.getRateCalendar().clearMultiplier(LocalDate.ofEpochDay(record.getLong()));
+                    break;
+                case DISCOUNT_REGISTERED: {
+                    String code = getString(record);
+                    int kind = record.get();
+                    hotel.getDiscountEngine().register(DiscountEngine.decode(code, kind, record.getInt(), record.getInt()));
+                    break;
+                }
+                case DISCOUNT_REMOVED:
+                    hotel.getDiscountEngine().unregister(getString(record));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal record type " + type + ".");
+            }
+        }
+
+        /**
+         * Adds the gathered bookings to their hotels.
+         */
+        void flush() {
+            for (Map.Entry<Hotel, HashMap<Room, HashMap<Integer, Reservation>>> entry : bookings.entrySet()) {
+                List<Reservation> restored = new ArrayList<>();
+                for (HashMap<Integer, Reservation> byCheckIn : entry.getValue().values()) {
+                    restored.addAll(byCheckIn.values());
+                }
+                long[] numbers = new long[restored.size()];
+                for (int i = 0; i < numbers.length; i++) {
+                    numbers[i] = bookingNumbers.get(restored.get(i));
+                }
+                entry.getKey().restoreReservations(restored, numbers);
+            }
+            bookings.clear();
+            bookingNumbers.clear();
+        }
+
+        /**
+         * Reads a string written by RecordBuffer.putString.
+         *
+         * @param record - the record being read
+         * @return the string, or null
+         */
+        private static String getString(ByteBuffer record) {
+            int length = record.getInt();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+            record.position(record.position() + length);
+            return value;
+        }
+    }
+}
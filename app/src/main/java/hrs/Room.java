@@ -0,0 +1,507 @@
+package hrs;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The Room class represents a hotel room with specific attributes and reservations.
+ * It includes methods to manage room details and calculate the total price for a stay.
+ * Changes to the reservations and occupancy of a room are made under the room's own lock, so bookings
+ * for different rooms never wait on each other. The reservations and the occupancy bitmap are updated
+ * in place in structures that can be read concurrently, so a change costs only the logarithm of the
+ * number of reservations, and reads take no lock.
+ */
+public class Room {
+    /**
+     * The number of free nights getFreeNightsAround counts for a side of a stay with no reservation
+     * beyond it, longer than any gap between two reservations.
+     */
+    public static final long OPEN_GAP = 1L << 32;
+
+    /**
+     * The name of the room.
+     */
+    private String name;
+    /**
+     * The price per night of the room, in cents.
+     */
+    private long priceCents;
+     /**
+     * The reservations for the room, keyed and sorted by their check-in epoch day.
+     */
+    private final ConcurrentSkipListMap<Integer, Reservation> reservations;
+    /**
+     * The bitmap of booked nights for the room, matching the reservations.
+     */
+    private final OccupancyCalendar occupancy;
+    /**
+     * The number of changes made to the reservations, for telling whether the cached list is current.
+     */
+    private volatile long version;
+    /**
+     * The reservations as a list, cached for getReservations, or null if none was built yet.
+     */
+    private volatile ReservationList listed;
+    /**
+     * Whether the room has been removed from its hotel and can no longer be booked.
+     */
+    private volatile boolean removed;
+    /**
+     * The type of the room (STANDARD, DELUXE, EXECUTIVE).
+     */
+    private RoomType type;
+    /**
+     * The calendar of nightly price multipliers used to price stays in the room.
+     */
+    private RateCalendar rateCalendar;
+    /**
+     * The discount rules used to price stays in the room.
+     */
+    private DiscountEngine discountEngine;
+
+    /**
+     * This method helps to categorize rooms into standard, deluxe, and executive types.
+     */
+    public enum RoomType {
+        /**
+         * A standard room type
+         */
+        STANDARD, 
+        /**
+         * A deluxe room type
+         */
+        DELUXE, 
+        /**
+         * An executive room type
+         */
+        EXECUTIVE
+    }
+
+    /**
+     * An unmodifiable list of a room's reservations, together with the version of the reservations it
+     * was built from.
+     */
+    private static final class ReservationList {
+        /**
+         * The version of the reservations the list was built from.
+         */
+        private final long version;
+        /**
+         * The reservations, ordered by check-in date.
+         */
+        private final List<Reservation> list;
+
+        /**
+         * The constructor that creates a list of reservations.
+         *
+         * @param version - the version of the reservations the list was built from
+         * @param list - the reservations, ordered by check-in date
+         */
+        private ReservationList(long version, List<Reservation> list) {
+            this.version = version;
+            this.list = list;
+        }
+    }
+
+    /**
+     * The constructor for the Room class. It creates a Room object 
+     * with the given name base price, and type.
+     *
+     * @param name - the name of the room
+     * @param basePrice - the base price of the room
+     * @param type - the type of the room
+     */
+    public Room(String name, double basePrice, RoomType type) {
+        this(name, basePrice, type, new RateCalendar(), new DiscountEngine());
+    }
+
+    /**
+     * The constructor for the Room class that prices stays using the given rate calendar,
+     * which is usually shared by all the rooms of a hotel.
+     *
+     * @param name - the name of the room
+     * @param basePrice - the base price of the room
+     * @param type - the type of the room
+     * @param rateCalendar - the calendar of nightly price multipliers
+     */
+    public Room(String name, double basePrice, RoomType type, RateCalendar rateCalendar) {
+        this(name, basePrice, type, rateCalendar, new DiscountEngine());
+    }
+
+    /**
+     * The constructor for the Room class that prices stays using the given rate calendar and discount
+     * rules, which are usually shared by all the rooms of a hotel.
+     *
+     * @param name - the name of the room
+     * @param basePrice - the base price of the room
+     * @param type - the type of the room
+     * @param rateCalendar - the calendar of nightly price multipliers
+     * @param discountEngine - the discount rules
+     */
+    public Room(String name, double basePrice, RoomType type, RateCalendar rateCalendar, DiscountEngine discountEngine) {
+        this.name = name;
+        this.type = type;
+        this.rateCalendar = rateCalendar;
+        this.discountEngine = discountEngine;
+        setPrice(basePrice);
+        this.reservations = new ConcurrentSkipListMap<>();
+        this.occupancy = new OccupancyCalendar();
+    }
+
+    /**
+     * A getter that gets the calendar of nightly price multipliers of the room.
+     *
+     * @return the rate calendar
+     */
+    public RateCalendar getRateCalendar() {
+        return rateCalendar;
+    }
+
+    /**
+     * A getter that gets the discount rules used to price stays in the room.
+     *
+     * @return the discount engine
+     */
+    public DiscountEngine getDiscountEngine() {
+        return discountEngine;
+    }
+
+    /**
+     * A getter that gets the type of the room.
+     * 
+     * @return the room type
+     */
+    public RoomType getType() {
+        return type;
+    }
+
+
+    /**
+     * A getter that gets the name of the room.
+     * 
+     * @return the name of the room
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * A setter that sets a new name for the room.
+     *
+     * @param name - the new name of the room
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * A getter that gets the price per night of the room.
+     * 
+     * @return the price per night for the room
+     */
+    public double getPrice() {
+        return Money.toAmount(priceCents);
+    }
+
+    /**
+     * A getter that gets the price per night of the room in cents, as it is used to price stays.
+     *
+     * @return the price per night in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    /**
+     * A setter that sets a new price per night for the room, based on the type of room.
+     * The price is rounded to the nearest cent.
+     *
+     * @param basePrice - the new price per night
+     */
+    public void setPrice(double basePrice) {
+        this.priceCents = getPriceCents(basePrice, type);
+    }
+
+    /**
+     * Gets the price per night in cents of a room of the given type, based on the hotel's base price.
+     *
+     * @param basePrice - the base price of the hotel
+     * @param type - the type of room
+     * @return the price per night in cents
+     */
+    public static long getPriceCents(double basePrice, RoomType type) {
+        long baseCents = Money.toCents(basePrice);
+        switch (type) {
+            case DELUXE:
+                return Money.applyRate(baseCents, 12_000); // 120%
+            case EXECUTIVE:
+                return Money.applyRate(baseCents, 13_500); // 135%
+            default:
+                return baseCents;
+        }
+    }
+
+    /**
+     * A getter that gets the list of reservations for the room, ordered by check-in date.
+     * The list is an unmodifiable snapshot that later bookings do not change. It is built on the first
+     * call after a change and reused until the next one.
+     *
+     * @return the list of reservations
+     */
+    public List<Reservation> getReservations() {
+        long current = version;
+        ReservationList cached = listed;
+        if (cached != null && cached.version == current) {
+            return cached.list;
+        }
+        List<Reservation> list = Collections.unmodifiableList(new ArrayList<>(reservations.values()));
+        listed = new ReservationList(current, list);
+        return list;
+    }
+
+    /**
+     * Checks if the room has any reservations.
+     *
+     * @return true if the room has at least one reservation, false otherwise
+     */
+    public boolean hasReservations() {
+        return !reservations.isEmpty();
+    }
+
+    /**
+     * A getter that gets the reservation checking in on a given date. A room can only have one.
+     *
+     * @param checkInDate - the check-in date
+     * @return the reservation checking in on the date, or null if there is none
+     */
+    public Reservation getReservation(LocalDate checkInDate) {
+        return reservations.get((int) checkInDate.toEpochDay());
+    }
+
+     /**
+     * This method adds a reservation to the room.
+     *
+     * @param reservation - the reservation to add
+     */
+    public synchronized void addReservation(Reservation reservation) {
+        occupancy.occupy(reservation.getCheckInDay(), reservation.getCheckOutDay());
+        reservations.put(reservation.getCheckInDay(), reservation);
+        version++;
+    }
+
+     /**
+     * This method removes a reservation from the room.
+     *
+     * @param reservation - the reservation to remove
+     */
+    public synchronized void removeReservation(Reservation reservation) {
+        if (reservations.remove(reservation.getCheckInDay(), reservation)) {
+            occupancy.release(reservation.getCheckInDay(), reservation.getCheckOutDay());
+            version++;
+        }
+    }
+
+    /**
+     * This method removes many reservations from the room at once, under a single hold of the room's lock.
+     *
+     * @param removed - the reservations to remove
+     */
+    public synchronized void removeReservations(List<Reservation> removed) {
+        for (Reservation reservation : removed) {
+            if (reservations.remove(reservation.getCheckInDay(), reservation)) {
+                occupancy.release(reservation.getCheckInDay(), reservation.getCheckOutDay());
+            }
+        }
+        version++;
+    }
+
+    /**
+     * A getter that gets the estimated heap footprint of the room's occupancy bitmap.
+     *
+     * @return the estimated number of bytes used by the occupancy bitmap
+     */
+    public long getOccupancyFootprintBytes() {
+        return occupancy.getFootprintBytes();
+    }
+
+    /** Checks if the room is available on a specified date.
+     * If room has no reservations on said date, then it is available.
+     *
+     * @param date the date to check
+     * @return true if the room is available, false otherwise
+     */
+    public boolean isAvailable(LocalDate date) {
+        return !occupancy.isOccupied(date.toEpochDay());
+    }
+
+    /**
+     * Checks if the room is free for every night from check-in up to, but not including, check-out.
+     * The nights are tested against the occupancy bitmap a word at a time.
+     *
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @return true if the room is available for the whole stay, false otherwise
+     */
+    public boolean isAvailable(LocalDate checkIn, LocalDate checkOut) {
+        return isAvailable(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Checks if the room is free for every night from the check-in epoch day up to, but not including,
+     * the check-out epoch day.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return true if the room is available for the whole stay, false otherwise
+     */
+    public boolean isAvailable(long checkInDay, long checkOutDay) {
+        return occupancy.isFree(checkInDay, checkOutDay);
+    }
+
+    /**
+     * Measures how well a stay fits the room's calendar: the number of free nights the room would
+     * have left right before and right after the stay. The neighbouring reservations are found with
+     * a floor and a ceiling lookup in the room's reservations, so the cost grows only with the
+     * logarithm of the number of reservations. A side with no reservation beyond it counts as
+     * OPEN_GAP nights.
+     *
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the free nights left around the stay, or -1 if the room is not free for the stay or was removed
+     */
+    public long getFreeNightsAround(long checkInDay, long checkOutDay) {
+        if (removed || !occupancy.isFree(checkInDay, checkOutDay)) {
+            return -1;
+        }
+        Map.Entry<Integer, Reservation> before = reservations.lowerEntry((int) checkInDay);
+        Map.Entry<Integer, Reservation> after = reservations.ceilingEntry((int) checkInDay);
+        long gapBefore = before == null ? OPEN_GAP : checkInDay - before.getValue().getCheckOutDay();
+        long gapAfter = after == null ? OPEN_GAP : after.getKey() - checkOutDay;
+        return gapBefore + gapAfter;
+    }
+
+    /**
+     * Lists the free stretches of the room's calendar that touch the given days. A stretch runs from the
+     * check-out of one reservation to the check-in of the next; one with no reservation before it starts
+     * at Long.MIN_VALUE, and one with no reservation after it ends at Long.MAX_VALUE.
+     *
+     * @param fromDay - the first epoch day
+     * @param toDay - the last epoch day
+     * @return the start and end epoch day of each stretch in turn, ordered by start, or none if the room was removed
+     */
+    long[] getFreeGaps(long fromDay, long toDay) {
+        if (removed) {
+            return new long[0];
+        }
+        int from = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, fromDay));
+        Map.Entry<Integer, Reservation> before = reservations.lowerEntry(from);
+        long start = before == null ? Long.MIN_VALUE : before.getValue().getCheckOutDay();
+        long[] gaps = new long[8];
+        int size = 0;
+        Iterator<Reservation> following = reservations.tailMap(from, true).values().iterator();
+        while (start <= toDay) {
+            Reservation next = following.hasNext() ? following.next() : null;
+            long end = next == null ? Long.MAX_VALUE : next.getCheckInDay();
+            if (end > start) {
+                if (size == gaps.length) {
+                    gaps = Arrays.copyOf(gaps, size * 2);
+                }
+                gaps[size++] = start;
+                gaps[size++] = end;
+            }
+            if (next == null) {
+                break;
+            }
+            start = next.getCheckOutDay();
+        }
+        return Arrays.copyOf(gaps, size);
+    }
+
+    /**
+     * Adds the reservation to the room only if the room is still free for its whole stay.
+     * The check and the update happen under the room's lock, so two overlapping reservations
+     * for the same room can never both succeed.
+     *
+     * @param reservation - the reservation to add
+     * @return true if the reservation was added, false if the room is taken or was removed
+     */
+    public synchronized boolean tryReserve(Reservation reservation) {
+        if (removed || !occupancy.isFree(reservation.getCheckInDay(), reservation.getCheckOutDay())) {
+            return false;
+        }
+        addReservation(reservation);
+        return true;
+    }
+
+    /**
+     * Adds many reservations to the room at once, such as when reloading saved bookings.
+     * All of them are checked before any is added, so if any of them overlaps another or an existing
+     * reservation, none of them are added.
+     *
+     * @param restored - the reservations to add
+     * @throws IllegalStateException if a reservation overlaps another, or the room was removed
+     */
+    public synchronized void restoreReservations(List<Reservation> restored) {
+        if (removed) {
+            throw new IllegalStateException("Cannot restore reservations into a removed room.");
+        }
+        ArrayList<Reservation> sorted = new ArrayList<>(restored);
+        sorted.sort(Comparator.comparingInt(Reservation::getCheckInDay));
+        int previousCheckOut = Integer.MIN_VALUE;
+        for (Reservation reservation : sorted) {
+            if (reservation.getCheckInDay() < previousCheckOut || !occupancy.isFree(reservation.getCheckInDay(), reservation.getCheckOutDay())) {
+                throw new IllegalStateException("Reservation for " + reservation.getGuestName() + " on " + reservation.getCheckInDate() + " overlaps another reservation of room " + name + ".");
+            }
+            previousCheckOut = reservation.getCheckOutDay();
+        }
+        for (Reservation reservation : sorted) {
+            occupancy.occupy(reservation.getCheckInDay(), reservation.getCheckOutDay());
+            reservations.put(reservation.getCheckInDay(), reservation);
+        }
+        version++;
+    }
+
+    /**
+     * Marks the room as removed if it has no reservations, so that no booking can land on it afterwards.
+     *
+     * @return true if the room was marked as removed, false if it has reservations
+     */
+    public synchronized boolean markRemoved() {
+        if (hasReservations()) {
+            return false;
+        }
+        removed = true;
+        return true;
+    }
+
+    /**
+     * A method that calculates the total price for a stay from check-in to check-out dates, applying the rate calendar.
+     * 
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @param basePrice - the base price of the room
+     * @return the total price for the stay
+     */
+
+    public double calculateTotalPrice(LocalDate checkIn, LocalDate checkOut, double basePrice) {
+        return basePrice * rateCalendar.sumMultipliers(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * A method that gets the price multiplier for a specific date from the rate calendar.
+     * 
+     * @param date - the date to get the multiplier for
+     * @return the price multiplier
+     */
+    public double getMultiplierForDate(LocalDate date) {
+        return rateCalendar.getMultiplier(date.toEpochDay());
+    }
+    
+}
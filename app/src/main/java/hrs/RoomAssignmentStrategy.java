@@ -0,0 +1,60 @@
+package hrs;
+
+import java.util.Collection;
+
+/**
+ * The RoomAssignmentStrategy interface decides which free room of a type a booking gets.
+ * A hotel asks its strategy for a room, tries to reserve it, and asks again if another booking took
+ * the room first, so a strategy only needs to pick among the rooms that are free when it is asked.
+ * The hotel also tells its strategy about its rooms and every change to their reservations, so a
+ * strategy can keep its own index of the rooms instead of checking each one on every booking. A
+ * strategy that keeps such an index serves a single hotel.
+ */
+public interface RoomAssignmentStrategy {
+    /**
+     * This method picks a room that is free for the whole stay.
+     *
+     * @param roomType - the requested room type
+     * @param rooms - the rooms of the requested type, in the order they were added to the hotel
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the room to book, or null if none of the rooms is free
+     */
+    Room choose(Room.RoomType roomType, Collection<Room> rooms, long checkInDay, long checkOutDay);
+
+    /**
+     * This method is told when a room picked by the strategy has been booked. The default does nothing.
+     *
+     * @param room - the room that was booked
+     */
+    default void assigned(Room room) {
+    }
+
+    /**
+     * This method is told about every room of the hotel, in the order the rooms were added: the rooms
+     * the hotel has when the strategy is set, and each room added after that. The default does nothing.
+     *
+     * @param room - the room
+     */
+    default void roomAdded(Room room) {
+    }
+
+    /**
+     * This method is told when a room has been removed from the hotel. The default does nothing.
+     *
+     * @param room - the removed room
+     */
+    default void roomRemoved(Room room) {
+    }
+
+    /**
+     * This method is told after a reservation was added to or taken from a room, whether through the
+     * strategy or not. The default does nothing.
+     *
+     * @param room - the room
+     * @param checkInDay - the check-in epoch day of the reservation
+     * @param checkOutDay - the check-out epoch day of the reservation
+     */
+    default void roomChanged(Room room, long checkInDay, long checkOutDay) {
+    }
+}
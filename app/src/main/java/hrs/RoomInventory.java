@@ -0,0 +1,147 @@
+package hrs;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The RoomInventory class counts how many rooms of each type are booked on every night of a hotel,
+ * so the hotel can tell that a type is sold out for a stay without looking at any room.
+ *
+ * Nights are grouped into segments of 384, allocated only for periods that have bookings, like the
+ * EarningsLedger. Each segment keeps a max segment tree per room type over its nights: booking or
+ * releasing a stay updates one leaf per night, and the most rooms booked on any night of a stay is
+ * found in a logarithmic number of steps.
+ *
+ * A hotel counts a stay only after its room is reserved and stops counting it before the room is
+ * released, so the counts never exceed the rooms actually booked. A stay that the counts say is sold
+ * out really is.
+ */
+public class RoomInventory {
+    /**
+     * The number of nights covered by one segment.
+     */
+    private static final int DAYS_PER_SEGMENT = 384;
+
+    /**
+     * The number of leaves of a segment tree, the smallest power of two covering a segment.
+     */
+    private static final int LEAVES = 512;
+
+    /**
+     * The allocated segments, keyed by segment number (epoch day divided by the segment length).
+     */
+    private final ConcurrentHashMap<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * The Segment class holds the booked counts of 384 consecutive nights.
+     */
+    private static final class Segment {
+        /**
+         * One max segment tree per room type, indexed by the type's ordinal. The node at index i has
+         * children 2i and 2i + 1, and the count of night d is the leaf at LEAVES + d.
+         */
+        private final int[][] trees = new int[Room.RoomType.values().length][2 * LEAVES];
+
+        /**
+         * Adds to the booked count of a range of nights in the segment.
+         *
+         * @param type - the room type
+         * @param from - the first night within the segment
+         * @param to - the night after the last one, within the segment or equal to its length
+         * @param delta - 1 to book the nights, -1 to release them
+         */
+        synchronized void add(Room.RoomType type, int from, int to, int delta) {
+            int[] tree = trees[type.ordinal()];
+            for (int night = from; night < to; night++) {
+                int node = LEAVES + night;
+                tree[node] += delta;
+                for (node >>>= 1; node > 0; node >>>= 1) {
+                    tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+                }
+            }
+        }
+
+        /**
+         * Gets the most rooms of a type booked on any night of a range in the segment.
+         *
+         * @param type - the room type
+         * @param from - the first night within the segment
+         * @param to - the night after the last one, within the segment or equal to its length
+         * @return the highest booked count in the range
+         */
+        synchronized int max(Room.RoomType type, int from, int to) {
+            int[] tree = trees[type.ordinal()];
+            int max = 0;
+            for (int low = from + LEAVES, high = to + LEAVES; low < high; low >>>= 1, high >>>= 1) {
+                if ((low & 1) == 1) {
+                    max = Math.max(max, tree[low++]);
+                }
+                if ((high & 1) == 1) {
+                    max = Math.max(max, tree[--high]);
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * This method counts a reservation's room as booked on each of its nights.
+     *
+     * @param reservation - the reservation whose room was reserved
+     */
+    public void book(Reservation reservation) {
+        add(reservation.getRoom().getType(), reservation.getCheckInDay(), reservation.getCheckOutDay(), 1);
+    }
+
+    /**
+     * This method stops counting a reservation's room as booked on its nights.
+     *
+     * @param reservation - the reservation whose room is about to be released
+     */
+    public void release(Reservation reservation) {
+        add(reservation.getRoom().getType(), reservation.getCheckInDay(), reservation.getCheckOutDay(), -1);
+    }
+
+    /**
+     * A getter that gets the most rooms of a type booked on any night of a stay.
+     *
+     * @param type - the room type
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the highest number of rooms of the type booked on a night of the stay
+     */
+    public int getMaxBooked(Room.RoomType type, long checkInDay, long checkOutDay) {
+        int max = 0;
+        long day = checkInDay;
+        while (day < checkOutDay) {
+            long number = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            long segmentStart = number * DAYS_PER_SEGMENT;
+            long end = Math.min(checkOutDay, segmentStart + DAYS_PER_SEGMENT);
+            Segment segment = segments.get(number);
+            if (segment != null) {
+                max = Math.max(max, segment.max(type, (int) (day - segmentStart), (int) (end - segmentStart)));
+            }
+            day = end;
+        }
+        return max;
+    }
+
+    /**
+     * Adds to the booked count of a type on every night of a stay.
+     *
+     * @param type - the room type
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @param delta - 1 to book the nights, -1 to release them
+     */
+    private void add(Room.RoomType type, long checkInDay, long checkOutDay, int delta) {
+        long day = checkInDay;
+        while (day < checkOutDay) {
+            long number = Math.floorDiv(day, DAYS_PER_SEGMENT);
+            long segmentStart = number * DAYS_PER_SEGMENT;
+            long end = Math.min(checkOutDay, segmentStart + DAYS_PER_SEGMENT);
+            segments.computeIfAbsent(number, key -> new Segment())
+                    .add(type, (int) (day - segmentStart), (int) (end - segmentStart), delta);
+            day = end;
+        }
+    }
+}
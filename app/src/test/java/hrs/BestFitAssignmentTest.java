@@ -0,0 +1,92 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The BestFitAssignmentTest class tests the rooms the BestFitAssignment strategy picks against a scan
+ * of every room.
+ */
+class BestFitAssignmentTest {
+    /**
+     * The first day of the period the test books in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 6, 2);
+
+    /**
+     * Books and cancels stays at random, adding and removing rooms now and then, and checks that every
+     * booking gets the room a scan of Room.getFreeNightsAround picks: the fewest free nights left
+     * around the stay, ties going to the room added first.
+     */
+    @Test
+    void picksMatchAScanOfTheRooms() {
+        Hotel hotel = new HRS().createHotel("Best", 5, 4, 2);
+        hotel.setRoomAssignmentStrategy(new BestFitAssignment());
+        Random random = new Random(31);
+        List<Reservation> live = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            int action = random.nextInt(20);
+            if (action == 0 && hotel.getRooms().size() < 30) {
+                hotel.addRoom(Room.RoomType.values()[random.nextInt(3)]);
+                continue;
+            }
+            if (action == 1) {
+                for (Room room : hotel.getRooms()) {
+                    if (room.getReservations().isEmpty()) {
+                        hotel.removeRoom(room.getName());
+                        break;
+                    }
+                }
+                continue;
+            }
+            if (!live.isEmpty() && action < 7) {
+                Reservation cancelled = live.remove(random.nextInt(live.size()));
+                hotel.removeReservation(cancelled.getGuestName(), cancelled.getCheckInDate());
+                continue;
+            }
+            LocalDate checkIn = START.plusDays(random.nextInt(150));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(9));
+            if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                continue;
+            }
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            Room expected = scanBestFit(hotel.getRoomsOfType(type), checkIn.toEpochDay(), checkOut.toEpochDay());
+            Reservation reservation = hotel.simulateBooking("Guest " + i, checkIn, checkOut, type, null);
+            if (expected == null) {
+                assertNull(reservation, type + " from " + checkIn + " to " + checkOut);
+            } else {
+                assertSame(expected, reservation.getRoom(), type + " from " + checkIn + " to " + checkOut);
+                live.add(reservation);
+            }
+        }
+    }
+
+    /**
+     * Picks the room a stay fits most tightly by asking every room.
+     *
+     * @param rooms - the rooms, in the order they were added
+     * @param checkInDay - the check-in epoch day
+     * @param checkOutDay - the check-out epoch day
+     * @return the best fitting free room, or null if none is free
+     */
+    private static Room scanBestFit(Collection<Room> rooms, long checkInDay, long checkOutDay) {
+        Room best = null;
+        long fewest = Long.MAX_VALUE;
+        for (Room room : rooms) {
+            long freeNights = room.getFreeNightsAround(checkInDay, checkOutDay);
+            if (freeNights >= 0 && freeNights < fewest) {
+                best = room;
+                fewest = freeNights;
+            }
+        }
+        return best;
+    }
+}
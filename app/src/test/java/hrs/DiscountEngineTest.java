@@ -0,0 +1,144 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The DiscountEngineTest class tests the standard discount rules and registering and removing rules
+ * while reservations are being priced.
+ */
+class DiscountEngineTest {
+    /**
+     * A payday of the standard "PAYDAY" code.
+     */
+    private static final LocalDate PAYDAY = LocalDate.of(2030, 1, 15);
+
+    /**
+     * Prices stays with each standard code and checks the totals against the nightly prices.
+     */
+    @Test
+    void standardCodesDiscountAsDocumented() {
+        DiscountEngine engine = new DiscountEngine();
+        Room room = new Room("Test01", 1299.0, Room.RoomType.STANDARD, new RateCalendar(), engine);
+        assertEquals(List.of("I_WORK_HERE", "PAYDAY", "STAY4_GET1"), engine.getCodes());
+
+        long[] fiveNights = nightlyCents(room, PAYDAY, 5);
+        assertEquals(Money.sum(fiveNights, 1, 5), price(room, PAYDAY, 5, "STAY4_GET1"));
+        assertEquals(Money.sum(nightlyCents(room, PAYDAY, 4), 0, 4), price(room, PAYDAY, 4, "STAY4_GET1"));
+        assertEquals(Money.discount(Money.sum(fiveNights, 0, 5), 1_000), price(room, PAYDAY, 5, "I_WORK_HERE"));
+
+        assertEquals(Money.discount(Money.sum(nightlyCents(room, PAYDAY, 3), 0, 3), 700), price(room, PAYDAY, 3, "PAYDAY"));
+        assertEquals(Money.sum(nightlyCents(room, PAYDAY.minusDays(1), 3), 0, 3), price(room, PAYDAY.minusDays(1), 3, "PAYDAY"));
+        assertEquals(Money.sum(nightlyCents(room, PAYDAY, 15), 0, 15), price(room, PAYDAY, 15, "PAYDAY"));
+        assertEquals(Money.sum(fiveNights, 0, 5), price(room, PAYDAY, 5, "NO_SUCH_CODE"));
+        assertEquals(Money.sum(fiveNights, 0, 5), price(room, PAYDAY, 5, null));
+    }
+
+    /**
+     * Replaces and removes a rule, and checks that reservations already priced keep their totals while
+     * later ones get the new rule or none.
+     */
+    @Test
+    void ruleChangesApplyToLaterBookingsOnly() {
+        DiscountEngine engine = new DiscountEngine();
+        Room room = new Room("Test01", 1299.0, Room.RoomType.DELUXE, new RateCalendar(), engine);
+        long full = Money.sum(nightlyCents(room, PAYDAY, 4), 0, 4);
+        Reservation before = new Reservation("Before", PAYDAY, PAYDAY.plusDays(4), room, "I_WORK_HERE");
+        long version = engine.getVersion();
+
+        engine.register(new PercentageDiscount("I_WORK_HERE", 2_500));
+        assertTrue(engine.getVersion() > version);
+        Reservation replaced = new Reservation("Replaced", PAYDAY, PAYDAY.plusDays(4), room, "I_WORK_HERE");
+        assertTrue(engine.unregister("I_WORK_HERE"));
+        assertFalse(engine.unregister("I_WORK_HERE"));
+        Reservation removed = new Reservation("Removed", PAYDAY, PAYDAY.plusDays(4), room, "I_WORK_HERE");
+
+        assertEquals(Money.discount(full, 1_000), before.getTotalCents());
+        assertEquals(Money.discount(full, 2_500), replaced.getTotalCents());
+        assertEquals(full, removed.getTotalCents());
+        assertNull(engine.find("I_WORK_HERE"));
+        assertEquals(List.of("PAYDAY", "STAY4_GET1"), engine.getCodes());
+    }
+
+    /**
+     * Checks that rules with an empty code or parameters out of range are rejected.
+     */
+    @Test
+    void invalidRulesAreRejected() {
+        DiscountEngine engine = new DiscountEngine();
+        assertThrows(IllegalArgumentException.class, () -> engine.register(() -> ""));
+        assertThrows(IllegalArgumentException.class, () -> new PercentageDiscount("ZERO", 0));
+        assertThrows(IllegalArgumentException.class, () -> new PercentageDiscount("TOO_MUCH", Money.ONE + 1));
+        assertThrows(IllegalArgumentException.class, () -> new FreeNightDiscount("ALL_FREE", 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PaydayDiscount("NO_DAY", 700, 32));
+        assertFalse(engine.unregister(null));
+    }
+
+    /**
+     * Encodes each standard kind of rule the way the journal and snapshots store it, and checks that it
+     * decodes to a rule with the same parameters.
+     */
+    @Test
+    void standardRulesSurviveEncoding() {
+        PaydayDiscount payday = assertInstanceOf(PaydayDiscount.class, roundTrip(new PaydayDiscount("ENDS", 450, 1, 15, 31)));
+        assertEquals(450, payday.getBasisPoints());
+        assertArrayEquals(new int[] {1, 15, 31}, payday.getPaydays());
+        PercentageDiscount percentage = assertInstanceOf(PercentageDiscount.class, roundTrip(new PercentageDiscount("TENTH", 1_000)));
+        assertFalse(percentage instanceof PaydayDiscount);
+        assertEquals(1_000, percentage.getBasisPoints());
+        FreeNightDiscount freeNight = assertInstanceOf(FreeNightDiscount.class, roundTrip(new FreeNightDiscount("WEEK", 7, 2)));
+        assertEquals(7, freeNight.getMinimumNights());
+        assertEquals(2, freeNight.getFreeNights());
+        assertThrows(IllegalArgumentException.class, () -> DiscountEngine.encode(() -> "CUSTOM"));
+    }
+
+    /**
+     * Encodes and decodes a rule.
+     *
+     * @param rule - the rule
+     * @return the decoded rule
+     */
+    private static DiscountRule roundTrip(DiscountRule rule) {
+        int[] encoded = DiscountEngine.encode(rule);
+        DiscountRule decoded = DiscountEngine.decode(rule.getCode(), encoded[0], encoded[1], encoded[2]);
+        assertEquals(rule.getCode(), decoded.getCode());
+        return decoded;
+    }
+
+    /**
+     * Prices the nights of a stay in a room without any discount.
+     *
+     * @param room - the room
+     * @param checkIn - the check-in date
+     * @param nights - the number of nights
+     * @return the price of each night in cents
+     */
+    private static long[] nightlyCents(Room room, LocalDate checkIn, int nights) {
+        long[] prices = new long[nights];
+        room.getRateCalendar().fillPrices(checkIn.toEpochDay(), room.getPriceCents(), prices);
+        return prices;
+    }
+
+    /**
+     * Prices a stay in a room with a discount code.
+     *
+     * @param room - the room
+     * @param checkIn - the check-in date
+     * @param nights - the number of nights
+     * @param code - the discount code, or null
+     * @return the total in cents
+     */
+    private static long price(Room room, LocalDate checkIn, int nights, String code) {
+        return new Reservation("Guest", checkIn, checkIn.plusDays(nights), room, code).getTotalCents();
+    }
+}
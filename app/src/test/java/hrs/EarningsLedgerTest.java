@@ -0,0 +1,78 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The EarningsLedgerTest class tests the range totals of the EarningsLedger class.
+ */
+class EarningsLedgerTest {
+    /**
+     * The number of days the test posts stays in, spanning several ledger segments.
+     */
+    private static final int DAYS = 2000;
+
+    /**
+     * Posts random stays, and checks the totals of random ranges, per room type and over
+     * all types, against summing every day.
+     */
+    @Test
+    void totalsMatchABruteForceSum() {
+        EarningsLedger ledger = new EarningsLedger();
+        long firstDay = LocalDate.of(2030, 1, 1).toEpochDay();
+        long[][] days = new long[Room.RoomType.values().length][DAYS];
+        Random random = new Random(5);
+        for (int i = 0; i < 5000; i++) {
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            int first = random.nextInt(DAYS - 20);
+            long[] shares = new long[1 + random.nextInt(20)];
+            for (int night = 0; night < shares.length; night++) {
+                shares[night] = random.nextInt(50000);
+                days[type.ordinal()][first + night] += shares[night];
+            }
+            ledger.record(type, firstDay + first, shares);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int from = random.nextInt(DAYS);
+            int to = from + random.nextInt(DAYS - from);
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            long ofType = 0;
+            long all = 0;
+            for (int day = from; day <= to; day++) {
+                ofType += days[type.ordinal()][day];
+                for (long[] row : days) {
+                    all += row[day];
+                }
+            }
+            LocalDate fromDate = LocalDate.ofEpochDay(firstDay + from);
+            LocalDate toDate = LocalDate.ofEpochDay(firstDay + to);
+            assertEquals(all, ledger.getEarningsCents(fromDate, toDate));
+            assertEquals(ofType, ledger.getEarningsCents(fromDate, toDate, type));
+        }
+    }
+
+    /**
+     * Records and cancels reservations, and checks that the ledger comes back to exactly zero.
+     */
+    @Test
+    void cancellingEveryReservationLeavesNothing() {
+        Hotel hotel = new HRS().createHotel("Ledger", 2, 1, 1);
+        LocalDate start = LocalDate.of(2030, 5, 2);
+        Reservation first = hotel.simulateBooking("First", start, start.plusDays(40), Room.RoomType.DELUXE, "PAYDAY");
+        Reservation second = hotel.simulateBooking("Second", start.plusDays(3), start.plusDays(9), Room.RoomType.STANDARD, null);
+
+        EarningsLedger ledger = new EarningsLedger();
+        ledger.record(first);
+        ledger.record(second);
+        assertEquals(first.getTotalCents() + second.getTotalCents(), ledger.getEarningsCents(start, start.plusDays(60)));
+
+        ledger.remove(first);
+        ledger.remove(second);
+        assertEquals(0, ledger.getEarningsCents(start.minusDays(400), start.plusDays(400)));
+    }
+}
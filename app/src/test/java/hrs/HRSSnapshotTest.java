@@ -0,0 +1,110 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The HRSSnapshotTest class tests that the lookups a snapshot answers straight from the mapped file
+ * match the system it was written from.
+ */
+class HRSSnapshotTest {
+    /**
+     * The first day of the period the test books in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 5, 2);
+
+    /**
+     * The directory the snapshot is written to.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a snapshot of hotels with random bookings, rates and discounts, and checks every mapped
+     * lookup against the hotels.
+     *
+     * @throws IOException if the snapshot cannot be written or read
+     */
+    @Test
+    void mappedReadsMatchTheSystem() throws IOException {
+        HRS hrs = new HRS();
+        Hotel first = hrs.createHotel("First", 3, 2, 1);
+        Hotel second = hrs.createHotel("Second", 2, 2, 0);
+        second.setBasePrice(2100.0);
+        first.getRateCalendar().setDayOfMonthMultiplier(4, 1.6);
+        first.getRateCalendar().setMultiplier(START.plusDays(20), 3.0);
+        first.getRateCalendar().setMultiplier(START.plusDays(7), 0.5);
+        second.getDiscountEngine().register(new FreeNightDiscount("LONG", 4, 2));
+        second.getDiscountEngine().unregister("I_WORK_HERE");
+        Random random = new Random(23);
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Hotel hotel = random.nextBoolean() ? first : second;
+            LocalDate checkIn = START.plusDays(random.nextInt(90));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(6));
+            if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                continue;
+            }
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            Reservation reservation = hotel.simulateBooking("Guest " + i, checkIn, checkOut, type, random.nextBoolean() ? null : "LONG");
+            if (reservation != null) {
+                booked.add(reservation);
+            }
+        }
+        Path file = directory.resolve("snapshot.dat");
+        HRSSnapshot.write(file, hrs);
+
+        HRSSnapshot snapshot = HRSSnapshot.open(file);
+        assertEquals(2, snapshot.getHotelCount());
+        assertEquals(booked.size(), snapshot.getReservationCount());
+        assertEquals(-1, snapshot.findHotel("Third"));
+        for (Hotel hotel : List.of(first, second)) {
+            int index = snapshot.findHotel(hotel.getName());
+            assertEquals(hotel.getBasePrice(), snapshot.getBasePrice(index));
+            assertEquals(hotel.getRooms().size(), snapshot.getRoomCount(index));
+            assertEquals(hotel.getDiscountEngine().getCodes(), snapshot.getDiscountCodes(index));
+            assertEquals(DiscountEngine.encode(hotel.getDiscountEngine().find("PAYDAY"))[2],
+                    DiscountEngine.encode(snapshot.findDiscountRule(index, "PAYDAY"))[2]);
+            assertNull(snapshot.findDiscountRule(index, "MISSING"));
+            for (LocalDate night = START; night.isBefore(START.plusDays(60)); night = night.plusDays(1)) {
+                assertEquals(hotel.getRateCalendar().getMultiplier(night), snapshot.getMultiplier(index, night), 1e-9, night.toString());
+            }
+            for (Room room : hotel.getRooms()) {
+                int roomIndex = snapshot.findRoom(index, room.getName());
+                assertEquals(room.getType(), snapshot.getRoomType(roomIndex));
+                for (int i = 0; i < 50; i++) {
+                    LocalDate checkIn = START.plusDays(random.nextInt(100));
+                    LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+                    assertEquals(room.isAvailable(checkIn, checkOut), snapshot.isRoomAvailable(roomIndex, checkIn, checkOut),
+                            room.getName() + " from " + checkIn + " to " + checkOut);
+                }
+            }
+        }
+        FreeNightDiscount restored = assertInstanceOf(FreeNightDiscount.class, snapshot.findDiscountRule(snapshot.findHotel("Second"), "LONG"));
+        assertEquals(4, restored.getMinimumNights());
+        assertEquals(2, restored.getFreeNights());
+
+        for (Reservation reservation : booked) {
+            Hotel hotel = first.getRooms().contains(reservation.getRoom()) ? first : second;
+            int index = snapshot.findReservation(snapshot.findHotel(hotel.getName()), reservation.getGuestName(), reservation.getCheckInDate());
+            assertEquals(hotel.getBookingNumbers().get(reservation), snapshot.getBookingNumber(index));
+            assertEquals(reservation.getCheckOutDate(), snapshot.getCheckOutDate(index));
+            assertEquals(reservation.getDiscountCode(), snapshot.getDiscountCode(index));
+            assertEquals(reservation.getTotalCents(), snapshot.getTotalCents(index));
+            for (int night = 0; night < reservation.getNights(); night++) {
+                assertEquals(reservation.getNightlyCents(night), snapshot.getNightlyCents(index, night));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The HRSTest class tests creating and removing the hotels of an HRS, and searching them for free rooms.
+ */
+class HRSTest {
+    /**
+     * The first day of the period the tests book in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 4, 2);
+
+    /**
+     * Removes a hotel and checks that it takes no more bookings, and that a hotel with a reservation
+     * cannot be removed.
+     */
+    @Test
+    void removedHotelTakesNoBookings() {
+        HRS hrs = new HRS();
+        Hotel kept = hrs.createHotel("Kept", 1, 0, 0);
+        Hotel removed = hrs.createHotel("Removed", 1, 0, 0);
+        assertNotNull(kept.simulateBooking("Guest", START, START.plusDays(2), Room.RoomType.STANDARD, null));
+
+        assertThrows(IllegalStateException.class, () -> hrs.removeHotel("Kept"));
+        hrs.removeHotel("Removed");
+
+        assertNotNull(hrs.findHotelByName("Kept"));
+        assertNull(hrs.findHotelByName("Removed"));
+        assertThrows(IllegalStateException.class,
+                () -> removed.simulateBooking("Guest", START, START.plusDays(2), Room.RoomType.STANDARD, null));
+        assertFalse(removed.hasReservations());
+        assertEquals(1, hrs.getHotels().size());
+    }
+
+    /**
+     * Removes a hotel while another thread books in it, many times over, and checks that no booking
+     * is ever announced after the hotel was removed.
+     *
+     * @throws Exception if the booking thread fails
+     */
+    @Test
+    void bookingRacingRemovalNeverLandsInARemovedHotel() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        for (int round = 0; round < 200; round++) {
+            HRS hrs = new HRS();
+            Hotel hotel = hrs.createHotel("Race", 2, 0, 0);
+            AtomicBoolean removed = new AtomicBoolean();
+            AtomicBoolean bookedAfterRemoval = new AtomicBoolean();
+            hrs.addListener(new HRSListener() {
+                public void hotelRemoved(Hotel hotel) {
+                    removed.set(true);
+                }
+
+                public void reservationBooked(Hotel hotel, Reservation reservation, long bookingNumber) {
+                    if (removed.get()) {
+                        bookedAfterRemoval.set(true);
+                    }
+                }
+            });
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> booking = pool.submit(() -> {
+                start.await();
+                try {
+                    hotel.simulateBooking("Guest", START, START.plusDays(1), Room.RoomType.STANDARD, null);
+                } catch (IllegalStateException e) {
+                    // The hotel was removed first.
+                }
+                return null;
+            });
+            start.countDown();
+            try {
+                hrs.removeHotel("Race");
+            } catch (IllegalStateException e) {
+                // The booking landed first.
+            }
+            booking.get();
+
+            assertFalse(bookedAfterRemoval.get());
+            assertEquals(removed.get(), !hotel.hasReservations() && hrs.findHotelByName("Race") == null);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Fills many hotels with random bookings at a few base prices, so that prices tie, then pages
+     * through searches of random stays and checks every page against ranking a scan of the rooms.
+     */
+    @Test
+    void searchPagesMatchARankedScan() {
+        HRS hrs = new HRS();
+        Random random = new Random(41);
+        double[] basePrices = {1100.0, 1299.0, 1500.0};
+        for (int i = 0; i < 45; i++) {
+            Hotel hotel = hrs.createHotel(String.format("Search %02d", random.nextInt(100)) + "-" + i,
+                    1 + random.nextInt(3), random.nextInt(3), random.nextInt(2));
+            hotel.setBasePrice(basePrices[random.nextInt(basePrices.length)]);
+            for (int j = 0; j < 40; j++) {
+                LocalDate checkIn = START.plusDays(random.nextInt(30));
+                LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                    continue;
+                }
+                hotel.simulateBooking("Guest " + j, checkIn, checkOut, Room.RoomType.values()[random.nextInt(3)], null);
+            }
+        }
+
+        for (int search = 0; search < 40; search++) {
+            LocalDate checkIn = START.plusDays(random.nextInt(32));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+            Room.RoomType type = random.nextInt(4) == 0 ? null : Room.RoomType.values()[random.nextInt(3)];
+            String code = random.nextBoolean() ? null : "I_WORK_HERE";
+            List<String[]> expected = scanAvailability(hrs, checkIn, checkOut, type, code);
+            int pageSize = 1 + random.nextInt(9);
+            int pages = (expected.size() + pageSize - 1) / pageSize;
+            for (int page = 0; page <= pages; page++) {
+                AvailabilityPage results = hrs.searchAvailability(checkIn, checkOut, type, code, page, pageSize);
+                assertEquals(expected.size(), results.getTotalMatches());
+                assertEquals(pages, results.getPageCount());
+                assertEquals(page + 1 < pages, results.hasNextPage());
+                List<String[]> slice = expected.subList(Math.min(expected.size(), page * pageSize), Math.min(expected.size(), (page + 1) * pageSize));
+                assertEquals(slice.size(), results.getResults().size());
+                for (int i = 0; i < slice.size(); i++) {
+                    HotelAvailability found = results.getResults().get(i);
+                    assertEquals(slice.get(i)[0], found.getHotel().getName(), "page " + page + " result " + i);
+                    assertEquals(slice.get(i)[1], Long.toString(found.getLowestQuote().getTotalCents()));
+                    assertEquals(slice.get(i)[2], Integer.toString(found.getAvailableRooms()));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> hrs.searchAvailability(START, START.plusDays(1), null, null, -1, 5));
+        assertThrows(IllegalArgumentException.class, () -> hrs.searchAvailability(START, START.plusDays(1), null, null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> hrs.searchAvailability(START, START, null, null, 0, 5));
+    }
+
+    /**
+     * Finds the hotels with a free room for a stay by asking every room, and ranks them by their lowest
+     * price, then by most free rooms, then by name.
+     *
+     * @param hrs - the system
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @param type - the room type, or null for any type
+     * @param code - the discount code, or null
+     * @return the name, lowest total in cents and free room count of each matching hotel, ranked
+     */
+    private static List<String[]> scanAvailability(HRS hrs, LocalDate checkIn, LocalDate checkOut, Room.RoomType type, String code) {
+        List<Object[]> matches = new ArrayList<>();
+        for (Hotel hotel : hrs.getHotels()) {
+            if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                continue;
+            }
+            long lowest = Long.MAX_VALUE;
+            int free = 0;
+            for (Room room : hotel.getRooms()) {
+                if ((type == null || room.getType() == type) && room.isAvailable(checkIn, checkOut)) {
+                    free++;
+                    lowest = Math.min(lowest, new Reservation("Scan", checkIn, checkOut, room, code).getTotalCents());
+                }
+            }
+            if (free > 0) {
+                matches.add(new Object[] {hotel.getName(), lowest, free});
+            }
+        }
+        matches.sort(Comparator.comparingLong((Object[] match) -> (Long) match[1])
+                .thenComparing((Object[] match) -> -(Integer) match[2])
+                .thenComparing((Object[] match) -> (String) match[0]));
+        List<String[]> ranked = new ArrayList<>();
+        for (Object[] match : matches) {
+            ranked.add(new String[] {(String) match[0], match[1].toString(), match[2].toString()});
+        }
+        return ranked;
+    }
+}
@@ -0,0 +1,229 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The HotelTest class tests booking, cancelling, looking up reservations and the sold-out check of the Hotel class.
+ */
+class HotelTest {
+    /**
+     * The first day of the period the tests book in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 3, 2);
+
+    /**
+     * Books the only room of a hotel for the same stay from many threads at once, and checks that
+     * exactly one of them gets it.
+     *
+     * @throws Exception if a booking thread fails
+     */
+    @Test
+    void concurrentBookingsOfTheSameRoomBookItOnce() throws Exception {
+        Hotel hotel = new HRS().createHotel("Solo", 1, 0, 0);
+        LocalDate checkOut = START.plusDays(3);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Reservation>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String guest = "Guest " + i;
+            results.add(pool.submit(() -> {
+                start.await();
+                return hotel.simulateBooking(guest, START, checkOut, Room.RoomType.STANDARD, null);
+            }));
+        }
+        start.countDown();
+        int booked = 0;
+        for (Future<Reservation> result : results) {
+            if (result.get() != null) {
+                booked++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, booked);
+        assertEquals(1, hotel.getReservations().size());
+        assertFalse(hotel.getRoom("Solo01").isAvailable(START, checkOut));
+        assertTrue(hotel.isSoldOut(Room.RoomType.STANDARD, START, checkOut));
+    }
+
+    /**
+     * Books and cancels stays at random, and checks the sold-out check against counting the booked
+     * rooms of each night.
+     */
+    @Test
+    void isSoldOutMatchesARoomScan() {
+        Hotel hotel = new HRS().createHotel("Scan", 4, 3, 2);
+        Random random = new Random(11);
+        List<Reservation> live = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            if (!live.isEmpty() && random.nextInt(4) == 0) {
+                Reservation cancelled = live.remove(random.nextInt(live.size()));
+                hotel.removeReservation(cancelled.getGuestName(), cancelled.getCheckInDate());
+                continue;
+            }
+            LocalDate checkIn = START.plusDays(random.nextInt(120));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(6));
+            if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                continue;
+            }
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            Reservation reservation = hotel.simulateBooking("Guest " + i, checkIn, checkOut, type, null);
+            if (reservation != null) {
+                live.add(reservation);
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt(130));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(8));
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            assertEquals(scanSoldOut(hotel, type, checkIn, checkOut), hotel.isSoldOut(type, checkIn, checkOut),
+                    type + " from " + checkIn + " to " + checkOut);
+        }
+    }
+
+    /**
+     * Cancels a reservation and checks that its room can be booked for the same stay again.
+     */
+    @Test
+    void cancellingFreesTheRoom() {
+        Hotel hotel = new HRS().createHotel("Again", 1, 0, 0);
+        LocalDate checkOut = START.plusDays(2);
+        assertNotNull(hotel.simulateBooking("First", START, checkOut, Room.RoomType.STANDARD, null));
+        assertNull(hotel.simulateBooking("Second", START, checkOut, Room.RoomType.STANDARD, null));
+
+        hotel.removeReservation("First", START);
+
+        assertNotNull(hotel.simulateBooking("Second", START, checkOut, Room.RoomType.STANDARD, null));
+        assertEquals(1, hotel.getReservations().size());
+    }
+
+    /**
+     * Sends a batch whose last request has an invalid date range, and checks that nothing was booked,
+     * not even for a moment.
+     */
+    @Test
+    void batchWithAnInvalidRequestBooksNothing() {
+        HRS hrs = new HRS();
+        Hotel hotel = hrs.createHotel("Batch", 3, 0, 0);
+        AtomicInteger booked = new AtomicInteger();
+        hrs.addListener(new HRSListener() {
+            public void reservationBooked(Hotel hotel, Reservation reservation, long bookingNumber) {
+                booked.incrementAndGet();
+            }
+        });
+        List<BookingRequest> requests = List.of(
+                new BookingRequest("A", START, START.plusDays(2), Room.RoomType.STANDARD, null),
+                new BookingRequest("B", START, START.plusDays(2), Room.RoomType.STANDARD, null),
+                new BookingRequest("C", START.plusDays(2), START, Room.RoomType.STANDARD, null));
+
+        List<BookingResult> results = hotel.bookBatch(requests);
+
+        assertEquals(0, booked.get());
+        assertEquals(0, hotel.getReservations().size());
+        for (BookingResult result : results) {
+            assertFalse(result.isBooked());
+        }
+        assertTrue(results.get(2).getMessage().startsWith("Invalid date range"));
+    }
+
+    /**
+     * Sends a batch that cannot all be booked while a listener refuses to cancel one of its
+     * reservations, and checks that the others are still cancelled and the refused one is reported
+     * as booked.
+     */
+    @Test
+    void batchRollbackKeepsGoingWhenACancellationIsRefused() {
+        HRS hrs = new HRS();
+        Hotel hotel = hrs.createHotel("Refused", 2, 0, 0);
+        hrs.addListener(new HRSListener() {
+            public void reservationCancelled(Hotel hotel, Reservation reservation) {
+                if (reservation.getGuestName().equals("A")) {
+                    throw new IllegalStateException("journal closed");
+                }
+            }
+        });
+        List<BookingRequest> requests = List.of(
+                new BookingRequest("A", START, START.plusDays(2), Room.RoomType.STANDARD, null),
+                new BookingRequest("B", START, START.plusDays(2), Room.RoomType.STANDARD, null),
+                new BookingRequest("C", START, START.plusDays(2), Room.RoomType.STANDARD, null));
+
+        List<BookingResult> results = hotel.bookBatch(requests);
+
+        assertTrue(results.get(0).isBooked());
+        assertTrue(results.get(0).getMessage().contains("could not be cancelled"));
+        assertFalse(results.get(1).isBooked());
+        assertFalse(results.get(2).isBooked());
+        assertEquals(List.of(results.get(0).getReservation()), hotel.getReservations());
+        assertNull(hotel.findReservation("B", START));
+    }
+
+    /**
+     * Books several stays for one guest, two of them on the same day, and checks that the guest's
+     * history is ordered by check-in date and then booking order, and that a lookup finds the earliest
+     * booking of the day until it is cancelled.
+     */
+    @Test
+    void guestReservationsAreFoundByDateInBookingOrder() {
+        Hotel hotel = new HRS().createHotel("Guests", 3, 0, 0);
+        Reservation late = hotel.simulateBooking("Group", START.plusDays(10), START.plusDays(12), Room.RoomType.STANDARD, null);
+        Reservation first = hotel.simulateBooking("Group", START, START.plusDays(2), Room.RoomType.STANDARD, null);
+        Reservation second = hotel.simulateBooking("Group", START, START.plusDays(3), Room.RoomType.STANDARD, null);
+        assertNotNull(hotel.simulateBooking("Other", START, START.plusDays(2), Room.RoomType.STANDARD, null));
+
+        assertEquals(List.of(first, second, late), hotel.getGuestReservations("Group"));
+        assertSame(first, hotel.findReservation("Group", START));
+
+        hotel.removeReservation("Group", START);
+        assertSame(second, hotel.findReservation("Group", START));
+        hotel.removeReservation("Group", START);
+        assertNull(hotel.findReservation("Group", START));
+        assertEquals(List.of(late), hotel.getGuestReservations("Group"));
+
+        hotel.removeReservation("Group", START.plusDays(10));
+        assertEquals(new ArrayList<Reservation>(), hotel.getGuestReservations("Group"));
+        assertNull(hotel.findReservation("Group", START.plusDays(10)));
+    }
+
+    /**
+     * Checks whether every room of a type is booked on some night of a stay by looking at each room.
+     *
+     * @param hotel - the hotel
+     * @param type - the room type
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @return true if some night has every room of the type booked
+     */
+    private static boolean scanSoldOut(Hotel hotel, Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            int booked = 0;
+            for (Room room : hotel.getRoomsOfType(type)) {
+                if (!room.isAvailable(night)) {
+                    booked++;
+                }
+            }
+            if (booked == hotel.getRoomsOfType(type).size()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
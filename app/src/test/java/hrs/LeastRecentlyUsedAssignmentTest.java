@@ -0,0 +1,57 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The LeastRecentlyUsedAssignmentTest class tests the order in which the LeastRecentlyUsedAssignment
+ * strategy hands out rooms.
+ */
+class LeastRecentlyUsedAssignmentTest {
+    /**
+     * The first day of the period the test books in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 7, 2);
+
+    /**
+     * Books rooms one after another and checks that each booking gets the free room booked least
+     * recently, with rooms never booked first in the order they were added, and that a room added
+     * later goes ahead of every room already booked.
+     */
+    @Test
+    void roomsAreHandedOutLeastRecentlyUsedFirst() {
+        Hotel hotel = new HRS().createHotel("Rota", 3, 0, 0);
+        hotel.setRoomAssignmentStrategy(new LeastRecentlyUsedAssignment());
+
+        assertEquals("Rota01", book(hotel, "A", 0, 2));
+        assertEquals("Rota02", book(hotel, "B", 2, 4));
+        assertEquals("Rota03", book(hotel, "C", 4, 6));
+        assertEquals("Rota01", book(hotel, "D", 6, 8));
+        // Rota02 is next in line but busy on these nights, so Rota03 is used and Rota02 keeps its place.
+        assertEquals("Rota03", book(hotel, "E", 3, 4));
+        assertEquals("Rota02", book(hotel, "F", 10, 12));
+
+        hotel.addRoom(Room.RoomType.STANDARD);
+        assertEquals("Rota04", book(hotel, "G", 10, 12));
+        assertEquals("Rota01", book(hotel, "H", 10, 12));
+        assertEquals("Rota03", book(hotel, "I", 10, 12));
+        assertNull(hotel.simulateBooking("J", START.plusDays(10), START.plusDays(12), Room.RoomType.STANDARD, null));
+    }
+
+    /**
+     * Books a standard room and returns the name of the room it got.
+     *
+     * @param hotel - the hotel
+     * @param guestName - the name of the guest
+     * @param checkIn - the check-in day, as days after the start
+     * @param checkOut - the check-out day, as days after the start
+     * @return the name of the booked room
+     */
+    private static String book(Hotel hotel, String guestName, int checkIn, int checkOut) {
+        return hotel.simulateBooking(guestName, START.plusDays(checkIn), START.plusDays(checkOut), Room.RoomType.STANDARD, null).getRoom().getName();
+    }
+}
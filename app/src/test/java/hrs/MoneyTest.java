@@ -0,0 +1,86 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The MoneyTest class tests the rounding and allocation of the fixed-point arithmetic in Money.
+ */
+class MoneyTest {
+    /**
+     * Checks that rates and discounts round half away from zero, the way BigDecimal's HALF_UP does,
+     * for amounts and rates picked at random, halves included.
+     */
+    @Test
+    void ratesRoundHalfAwayFromZero() {
+        assertEquals(1, Money.applyRate(1, 5_000));
+        assertEquals(-1, Money.applyRate(-1, 5_000));
+        assertEquals(2, Money.applyRate(3, 5_000));
+        assertEquals(1, Money.applyRate(149, 100));
+        assertEquals(905, Money.discount(1_005, 1_000));
+        assertEquals(0, Money.discount(12_345, Money.ONE));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            long cents = random.nextInt(2_000_001) - 1_000_000;
+            int basisPoints = random.nextInt(40_000);
+            long expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(basisPoints))
+                    .divide(BigDecimal.valueOf(Money.ONE), 0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, Money.applyRate(cents, basisPoints), cents + " at " + basisPoints);
+        }
+    }
+
+    /**
+     * Checks the conversions between amounts, cents and basis points.
+     */
+    @Test
+    void conversionsRoundToTheNearestUnit() {
+        assertEquals(1_234, Money.toCents(12.34));
+        assertEquals(129_900, Money.toCents(1299.0));
+        assertEquals(12.34, Money.toAmount(1_234));
+        assertEquals(12_000, Money.toBasisPoints(1.2));
+        assertEquals(3, Money.toBasisPoints(0.00025));
+        assertEquals(6, Money.sum(new long[] {1, 2, 3, 4}, 0, 3));
+    }
+
+    /**
+     * Splits random totals by random weights and checks that the parts add up to exactly the total and
+     * that each part is within a cent of its exact proportional share.
+     */
+    @Test
+    void allocationAddsUpAndStaysWithinACent() {
+        Random random = new Random(9);
+        for (int i = 0; i < 20_000; i++) {
+            long[] weights = new long[1 + random.nextInt(30)];
+            long weight = 0;
+            for (int j = 0; j < weights.length; j++) {
+                weights[j] = random.nextInt(4) == 0 ? 0 : random.nextInt(100_000);
+                weight += weights[j];
+            }
+            long total = random.nextInt(10_000_000);
+            long[] parts = new long[weights.length];
+            Money.allocate(total, weights, parts);
+
+            assertEquals(total, Money.sum(parts, 0, parts.length));
+            if (weight > 0) {
+                for (int j = 0; j < parts.length; j++) {
+                    long error = Math.abs(parts[j] * weight - total * weights[j]);
+                    assertTrue(error <= weight, "part " + j + " of " + total + " is " + parts[j]);
+                }
+            }
+        }
+
+        long[] parts = new long[3];
+        Money.allocate(1_000, new long[] {0, 0, 0}, parts);
+        assertArrayEquals(new long[] {0, 0, 1_000}, parts);
+        Money.allocate(100, new long[] {1, 1, 1}, parts);
+        assertArrayEquals(new long[] {33, 34, 33}, parts);
+    }
+}
@@ -0,0 +1,120 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The QuoteCacheTest class tests that cached quotes are served until the base price, the rate calendar
+ * or the discount rule they were priced from changes, and are priced again afterwards.
+ */
+class QuoteCacheTest {
+    /**
+     * The check-in date of the quoted stays.
+     */
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 8, 3);
+
+    /**
+     * The check-out date of the quoted stays.
+     */
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(4);
+
+    /**
+     * Looks up the same stay twice and checks that the second lookup is served from the cache.
+     */
+    @Test
+    void repeatedLookupsAreHits() {
+        Hotel hotel = new HRS().createHotel("Quotes", 2, 2, 2);
+        QuoteCache cache = hotel.getQuoteCache();
+
+        Quote first = cache.get(Room.RoomType.DELUXE, CHECK_IN, CHECK_OUT, null);
+        Quote second = cache.get(Room.RoomType.DELUXE, CHECK_IN, CHECK_OUT, null);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getInvalidations());
+        assertEquals(price(hotel, Room.RoomType.DELUXE, null), first.getTotalCents());
+    }
+
+    /**
+     * Changes the base price and checks that every cached quote is priced again at the new price.
+     */
+    @Test
+    void basePriceChangeInvalidatesQuotes() {
+        Hotel hotel = new HRS().createHotel("Quotes", 2, 2, 2);
+        QuoteCache cache = hotel.getQuoteCache();
+        Quote standard = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, null);
+        Quote executive = cache.get(Room.RoomType.EXECUTIVE, CHECK_IN, CHECK_OUT, "I_WORK_HERE");
+
+        hotel.setBasePrice(2_000.0);
+
+        Quote repricedStandard = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, null);
+        Quote repricedExecutive = cache.get(Room.RoomType.EXECUTIVE, CHECK_IN, CHECK_OUT, "I_WORK_HERE");
+        assertNotSame(standard, repricedStandard);
+        assertNotSame(executive, repricedExecutive);
+        assertEquals(2, cache.getInvalidations());
+        assertEquals(price(hotel, Room.RoomType.STANDARD, null), repricedStandard.getTotalCents());
+        assertEquals(price(hotel, Room.RoomType.EXECUTIVE, "I_WORK_HERE"), repricedExecutive.getTotalCents());
+        assertNotEquals(standard.getTotalCents(), repricedStandard.getTotalCents());
+    }
+
+    /**
+     * Changes a multiplier of a night of the stay and checks that the quote is priced again with it.
+     */
+    @Test
+    void calendarChangeInvalidatesQuotes() {
+        Hotel hotel = new HRS().createHotel("Quotes", 2, 2, 2);
+        QuoteCache cache = hotel.getQuoteCache();
+        Quote before = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, null);
+
+        hotel.getRateCalendar().setMultiplier(CHECK_IN.plusDays(1), 3.0);
+
+        Quote after = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, null);
+        assertNotSame(before, after);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(price(hotel, Room.RoomType.STANDARD, null), after.getTotalCents());
+        assertNotEquals(before.getTotalCents(), after.getTotalCents());
+
+        hotel.getRateCalendar().setDayOfMonthMultiplier(CHECK_IN.getDayOfMonth(), 0.5);
+        assertEquals(price(hotel, Room.RoomType.STANDARD, null), cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, null).getTotalCents());
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    /**
+     * Replaces the rule of one code and checks that only the quotes with that code are priced again.
+     */
+    @Test
+    void discountChangeInvalidatesOnlyItsCode() {
+        Hotel hotel = new HRS().createHotel("Quotes", 2, 2, 2);
+        QuoteCache cache = hotel.getQuoteCache();
+        Quote changed = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, "I_WORK_HERE");
+        Quote kept = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, "STAY4_GET1");
+
+        hotel.getDiscountEngine().register(new PercentageDiscount("I_WORK_HERE", 5_000));
+
+        assertSame(kept, cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, "STAY4_GET1"));
+        Quote repriced = cache.get(Room.RoomType.STANDARD, CHECK_IN, CHECK_OUT, "I_WORK_HERE");
+        assertNotSame(changed, repriced);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(price(hotel, Room.RoomType.STANDARD, "I_WORK_HERE"), repriced.getTotalCents());
+    }
+
+    /**
+     * Prices the quoted stay from scratch, the way a reservation is priced without a quote.
+     *
+     * @param hotel - the hotel
+     * @param type - the room type
+     * @param code - the discount code, or null
+     * @return the total in cents
+     */
+    private static long price(Hotel hotel, Room.RoomType type, String code) {
+        Room room = hotel.getRoomsOfType(type).iterator().next();
+        return new Reservation("Guest", CHECK_IN, CHECK_OUT, room, code).getTotalCents();
+    }
+}
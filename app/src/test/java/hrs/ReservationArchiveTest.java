@@ -0,0 +1,213 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The ReservationArchiveTest class tests moving reservations to a hotel's archive, and cancelling
+ * around it.
+ */
+class ReservationArchiveTest {
+    /**
+     * The first day of the period the tests book in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 2, 2);
+
+    /**
+     * The directory the archive is written to.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Archives past stays and checks that they leave the hotel and free their rooms but keep their
+     * earnings, that they can no longer be cancelled, and that the live ones still can.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Test
+    void archivedReservationsLeaveTheHotelButKeepTheirEarnings() throws IOException {
+        Hotel hotel = new HRS().createHotel("Archive", 2, 1, 1);
+        hotel.setArchive(ReservationArchive.open(directory));
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LocalDate checkIn = START.plusDays(3L * i);
+            booked.add(hotel.simulateBooking("Guest " + i, checkIn, checkIn.plusDays(2), Room.RoomType.STANDARD, i % 2 == 0 ? "PAYDAY" : null));
+        }
+        LocalDate to = START.plusDays(60);
+        long earnings = hotel.calculateEarningsCents(START, to);
+
+        int archived = hotel.archiveReservations(START.plusDays(14));
+
+        assertEquals(5, archived);
+        assertEquals(5, hotel.getReservations().size());
+        assertEquals(5, hotel.getArchivedReservations().size());
+        assertEquals(earnings, hotel.calculateEarningsCents(START, to));
+        Reservation old = booked.get(0);
+        assertEquals(old.getGuestName(), hotel.getArchivedReservations().get(0).getGuestName());
+        assertEquals(old.getTotalCents(), hotel.getArchivedReservations().get(0).getTotalCents());
+        assertTrue(old.getRoom().isAvailable(old.getCheckInDate(), old.getCheckOutDate()));
+        assertThrows(IllegalArgumentException.class, () -> hotel.removeReservation(old.getGuestName(), old.getCheckInDate()));
+
+        Reservation recent = booked.get(9);
+        hotel.removeReservation(recent.getGuestName(), recent.getCheckInDate());
+        assertEquals(4, hotel.getReservations().size());
+        assertEquals(earnings - recent.getTotalCents(), hotel.calculateEarningsCents(START, to));
+        hotel.getArchive().close();
+    }
+
+    /**
+     * Cancels a reservation before archiving and checks that it does not reach the archive.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Test
+    void cancelledReservationsAreNotArchived() throws IOException {
+        Hotel hotel = new HRS().createHotel("Cancelled", 1, 0, 0);
+        hotel.setArchive(ReservationArchive.open(directory));
+        assertNotNull(hotel.simulateBooking("Kept", START, START.plusDays(2), Room.RoomType.STANDARD, null));
+        assertNotNull(hotel.simulateBooking("Dropped", START.plusDays(4), START.plusDays(6), Room.RoomType.STANDARD, null));
+        hotel.removeReservation("Dropped", START.plusDays(4));
+
+        assertEquals(1, hotel.archiveReservations(START.plusDays(10)));
+
+        assertEquals(0, hotel.getReservations().size());
+        assertEquals(1, hotel.getArchivedReservations().size());
+        assertEquals("Kept", hotel.getArchivedReservations().get(0).getGuestName());
+        hotel.getArchive().close();
+    }
+
+    /**
+     * Reopens an archive and checks that a hotel given it reads back the reservations written to it.
+     *
+     * @throws IOException if the archive cannot be written or read
+     */
+    @Test
+    void reopenedArchiveKeepsItsReservations() throws IOException {
+        Hotel hotel = new HRS().createHotel("Reopened", 1, 0, 0);
+        hotel.setArchive(ReservationArchive.open(directory));
+        Reservation reservation = hotel.simulateBooking("Guest", START, START.plusDays(3), Room.RoomType.STANDARD, "PAYDAY");
+        hotel.archiveReservations(START.plusDays(5));
+        hotel.getArchive().close();
+
+        Hotel reopened = new HRS().createHotel("Reopened", 1, 0, 0);
+        reopened.setArchive(ReservationArchive.open(directory));
+
+        assertEquals(1, reopened.getArchivedReservations().size());
+        ArchivedReservation archived = reopened.getArchivedReservations().get(0);
+        assertEquals("Guest", archived.getGuestName());
+        assertEquals(reservation.getCheckInDate(), archived.getCheckInDate());
+        assertEquals(reservation.getTotalCents(), archived.getTotalCents());
+        assertEquals(reservation.getTotalCents(), reopened.calculateEarningsCents(START, START.plusDays(10)));
+        reopened.getArchive().close();
+    }
+
+    /**
+     * Archives while a listener refuses the third reservation, and checks that the first two are
+     * archived, the rest stay live and booked, and the archive holds only the first two.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Test
+    void refusedArchiveRecordKeepsTheRestLive() throws IOException {
+        HRS hrs = new HRS();
+        Hotel hotel = hrs.createHotel("Refused", 1, 0, 0);
+        hotel.setArchive(ReservationArchive.open(directory));
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LocalDate checkIn = START.plusDays(3L * i);
+            booked.add(hotel.simulateBooking("Guest " + i, checkIn, checkIn.plusDays(2), Room.RoomType.STANDARD, null));
+        }
+        hrs.addListener(new HRSListener() {
+            public void reservationArchived(Hotel hotel, Reservation reservation) {
+                if (reservation.getGuestName().equals("Guest 2")) {
+                    throw new IllegalStateException("journal closed");
+                }
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> hotel.archiveReservations(START.plusDays(30)));
+
+        assertEquals(2, hotel.getArchivedReservations().size());
+        assertEquals("Guest 1", hotel.getArchivedReservations().get(1).getGuestName());
+        assertEquals(booked.subList(2, 5), hotel.getReservations());
+        for (int i = 0; i < 5; i++) {
+            Reservation reservation = booked.get(i);
+            boolean live = i >= 2;
+            assertEquals(live, !reservation.getRoom().isAvailable(reservation.getCheckInDate(), reservation.getCheckOutDate()));
+            assertEquals(live, hotel.findReservation(reservation.getGuestName(), reservation.getCheckInDate()) != null);
+            assertEquals(live, hotel.isSoldOut(Room.RoomType.STANDARD, reservation.getCheckInDate(), reservation.getCheckOutDate()));
+        }
+        hotel.getArchive().close();
+    }
+
+    /**
+     * Archives over and over while other threads book, and checks that every booking ends up either
+     * live or archived exactly once, and that the hotel's booked counts match its rooms.
+     *
+     * @throws Exception if the archive cannot be written or a booking thread fails
+     */
+    @Test
+    void bookingsDuringArchivingAreNeitherLostNorDoubled() throws Exception {
+        Hotel hotel = new HRS().createHotel("Busy", 10, 0, 0);
+        hotel.setArchive(ReservationArchive.open(directory));
+        AtomicInteger booked = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> bookers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            bookers.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    LocalDate checkIn = START.plusDays(i % 100);
+                    if (!hotel.isValidDateRange(checkIn, checkIn.plusDays(1))) {
+                        continue;
+                    }
+                    if (hotel.simulateBooking("Guest " + thread + "-" + i, checkIn, checkIn.plusDays(1), Room.RoomType.STANDARD, null) != null) {
+                        booked.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int day = 0; day < 100; day += 5) {
+            hotel.archiveReservations(START.plusDays(day));
+        }
+        for (Future<?> booker : bookers) {
+            booker.get();
+        }
+        pool.shutdown();
+        hotel.archiveReservations(START.plusDays(50));
+
+        assertEquals(booked.get(), hotel.getReservations().size() + hotel.getArchivedReservations().size());
+        for (Reservation reservation : hotel.getReservations()) {
+            assertSame(reservation, hotel.findReservation(reservation.getGuestName(), reservation.getCheckInDate()));
+            assertFalse(reservation.getCheckOutDate().isBefore(START.plusDays(51)));
+        }
+        for (LocalDate night = START; night.isBefore(START.plusDays(100)); night = night.plusDays(1)) {
+            int taken = 0;
+            for (Room room : hotel.getRooms()) {
+                if (!room.isAvailable(night)) {
+                    taken++;
+                }
+            }
+            assertEquals(taken == 10, hotel.isSoldOut(Room.RoomType.STANDARD, night, night.plusDays(1)), night.toString());
+        }
+        hotel.getArchive().close();
+    }
+}
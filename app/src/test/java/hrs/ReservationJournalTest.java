@@ -0,0 +1,248 @@
+package hrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The ReservationJournalTest class tests that a system recovered from its journal matches the system
+ * that wrote it, down to the price of every night and the rates and discounts of every hotel.
+ */
+class ReservationJournalTest {
+    /**
+     * The first day of the period the test books in.
+     */
+    private static final LocalDate START = LocalDate.of(2030, 1, 2);
+
+    /**
+     * The directory the journal is written to.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Journals changes before and after a checkpoint, then recovers the system from the snapshot and
+     * the segments written after it, and checks that it matches the original.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    void replayAfterCheckpointRestoresTheSystem() throws IOException {
+        HRS hrs = new HRS();
+        ReservationJournal journal = ReservationJournal.open(directory, hrs);
+        Random random = new Random(17);
+        for (int i = 0; i < 4; i++) {
+            hrs.createHotel("Hotel " + i, 3, 2, 1);
+        }
+        hrs.findHotelByName("Hotel 1").setBasePrice(1800.0);
+        hrs.findHotelByName("Hotel 0").getRateCalendar().setDayOfMonthMultiplier(3, 1.75);
+        hrs.findHotelByName("Hotel 0").getRateCalendar().setMultiplier(START.plusDays(10), 2.5);
+        hrs.findHotelByName("Hotel 1").getDiscountEngine().register(new PercentageDiscount("SPRING", 2_500));
+        List<Reservation> live = book(hrs, random, 300, "Before");
+        cancel(hrs, random, live, 50);
+
+        journal.checkpoint();
+        assertEquals(1, countFiles("snapshot-"));
+
+        hrs.createHotel("Late", 2, 0, 0);
+        hrs.findHotelByName("Hotel 2").setName("Renamed");
+        hrs.findHotelByName("Hotel 3").addRoom(Room.RoomType.EXECUTIVE);
+        Map<LocalDate, Double> summer = new HashMap<>();
+        for (int day = 0; day < 30; day++) {
+            summer.put(START.plusDays(100 + day), 1.4 + day / 100.0);
+        }
+        hrs.findHotelByName("Hotel 0").getRateCalendar().loadMultipliers(summer);
+        hrs.findHotelByName("Hotel 0").getRateCalendar().clearMultiplier(START.plusDays(10));
+        hrs.findHotelByName("Hotel 0").getRateCalendar().setDayOfMonthMultiplier(3, 0.95);
+        hrs.findHotelByName("Hotel 1").getDiscountEngine().unregister("PAYDAY");
+        hrs.findHotelByName("Renamed").getDiscountEngine().register(new FreeNightDiscount("SPRING", 3, 1));
+        hrs.findHotelByName("Renamed").getDiscountEngine().register(new PaydayDiscount("MONTH_END", 500, 28, 29, 30, 31));
+        live.addAll(book(hrs, random, 200, "After"));
+        cancel(hrs, random, live, 50);
+        String written = describe(hrs);
+        journal.close();
+
+        HRS recovered = new HRS();
+        ReservationJournal reopened = ReservationJournal.open(directory, recovered);
+        assertEquals(written, describe(recovered));
+        reopened.close();
+    }
+
+    /**
+     * Changes the rates of a hotel after its stays were booked, then recovers it and checks that the stays
+     * keep the nightly prices they were charged while a new booking gets the new rates.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    void recoveredStaysKeepTheirNightlyPrices() throws IOException {
+        HRS hrs = new HRS();
+        ReservationJournal journal = ReservationJournal.open(directory, hrs);
+        Hotel hotel = hrs.createHotel("Rates", 2, 0, 0);
+        Reservation booked = hotel.simulateBooking("Early", START, START.plusDays(4), Room.RoomType.STANDARD, "STAY4_GET1");
+        journal.checkpoint();
+        Reservation later = hotel.simulateBooking("Later", START.plusDays(4), START.plusDays(10), Room.RoomType.STANDARD, "STAY4_GET1");
+        Map<LocalDate, Double> doubled = new HashMap<>();
+        for (LocalDate night = START; night.isBefore(START.plusDays(10)); night = night.plusDays(1)) {
+            doubled.put(night, 2.0);
+        }
+        hotel.getRateCalendar().loadMultipliers(doubled);
+        hotel.getDiscountEngine().register(new FreeNightDiscount("STAY4_GET1", 2, 1));
+        Reservation repriced = hotel.simulateBooking("Repriced", START, START.plusDays(3), Room.RoomType.STANDARD, "STAY4_GET1");
+        journal.close();
+
+        HRS recovered = new HRS();
+        ReservationJournal reopened = ReservationJournal.open(directory, recovered);
+        Hotel restored = recovered.findHotelByName("Rates");
+        for (Reservation original : List.of(booked, later, repriced)) {
+            Reservation copy = restored.findReservation(original.getGuestName(), original.getCheckInDate());
+            assertEquals(original.getTotalCents(), copy.getTotalCents());
+            for (int night = 0; night < original.getNights(); night++) {
+                assertEquals(original.getNightlyCents(night), copy.getNightlyCents(night), original.getGuestName() + " night " + night);
+            }
+        }
+        for (LocalDate night = START; night.isBefore(START.plusDays(10)); night = night.plusDays(1)) {
+            assertEquals(hotel.calculateEarningsCents(night, night.plusDays(1)), restored.calculateEarningsCents(night, night.plusDays(1)), night.toString());
+        }
+        assertEquals(hotel.quote(Room.RoomType.STANDARD, START.plusDays(5), START.plusDays(8), "STAY4_GET1").getTotalCents(),
+                restored.quote(Room.RoomType.STANDARD, START.plusDays(5), START.plusDays(8), "STAY4_GET1").getTotalCents());
+        reopened.close();
+    }
+
+    /**
+     * Registers a discount rule of a kind the journal cannot store, and checks that it is refused.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    void ruleThatCannotBeJournaledIsRefused() throws IOException {
+        HRS hrs = new HRS();
+        ReservationJournal journal = ReservationJournal.open(directory, hrs);
+        Hotel hotel = hrs.createHotel("Custom", 1, 0, 0);
+        DiscountRule custom = new DiscountRule() {
+            public String getCode() {
+                return "CUSTOM";
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> hotel.getDiscountEngine().register(custom));
+        assertNull(hotel.getDiscountEngine().find("CUSTOM"));
+        journal.close();
+    }
+
+    /**
+     * Books stays at random in the hotels of a system.
+     *
+     * @param hrs - the system
+     * @param random - the source of the stays
+     * @param count - the number of bookings to try
+     * @param prefix - the start of the guest names
+     * @return the reservations that were booked
+     */
+    private static List<Reservation> book(HRS hrs, Random random, int count, String prefix) {
+        List<Hotel> hotels = hrs.getHotels();
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Hotel hotel = hotels.get(random.nextInt(hotels.size()));
+            LocalDate checkIn = START.plusDays(random.nextInt(200));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+            if (!hotel.isValidDateRange(checkIn, checkOut)) {
+                continue;
+            }
+            Room.RoomType type = Room.RoomType.values()[random.nextInt(3)];
+            String[] codes = {null, "PAYDAY", "SPRING", "STAY4_GET1", "MONTH_END"};
+            Reservation reservation = hotel.simulateBooking(prefix + " " + i, checkIn, checkOut, type, codes[random.nextInt(codes.length)]);
+            if (reservation != null) {
+                booked.add(reservation);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Cancels reservations at random.
+     *
+     * @param hrs - the system
+     * @param random - the source of the choices
+     * @param live - the reservations that can be cancelled; the cancelled ones are taken out
+     * @param count - the number of reservations to cancel
+     */
+    private static void cancel(HRS hrs, Random random, List<Reservation> live, int count) {
+        for (int i = 0; i < count && !live.isEmpty(); i++) {
+            Reservation reservation = live.remove(random.nextInt(live.size()));
+            for (Hotel hotel : hrs.getHotels()) {
+                if (hotel.getRoom(reservation.getRoom().getName()) == reservation.getRoom()) {
+                    hotel.removeReservation(reservation.getGuestName(), reservation.getCheckInDate());
+                }
+            }
+        }
+    }
+
+    /**
+     * Describes the hotels, rooms, reservations with their booking numbers, and earnings of a system.
+     *
+     * @param hrs - the system
+     * @return the description
+     */
+    private static String describe(HRS hrs) {
+        StringBuilder description = new StringBuilder();
+        List<Hotel> hotels = new ArrayList<>(hrs.getHotels());
+        hotels.sort(Comparator.comparing(Hotel::getName));
+        for (Hotel hotel : hotels) {
+            description.append(hotel.getName()).append(' ').append(hotel.getBasePrice()).append('\n');
+            description.append(" rates ").append(Arrays.toString(hotel.getRateCalendar().getDayOfMonthMultipliers()))
+                    .append(' ').append(hotel.getRateCalendar().getOverrides()).append('\n');
+            for (DiscountRule rule : hotel.getDiscountEngine().getRules()) {
+                description.append(" discount ").append(rule.getCode()).append(' ').append(Arrays.toString(DiscountEngine.encode(rule))).append('\n');
+            }
+            for (Room room : hotel.getRooms()) {
+                description.append(' ').append(room.getName()).append(' ').append(room.getType()).append('\n');
+            }
+            Map<Reservation, Long> numbers = hotel.getBookingNumbers();
+            for (Reservation reservation : hotel.getReservations()) {
+                description.append("  #").append(numbers.get(reservation)).append(' ').append(reservation.getGuestName())
+                        .append(' ').append(reservation.getRoom().getName()).append(' ').append(reservation.getCheckInDate())
+                        .append(' ').append(reservation.getCheckOutDate()).append(' ').append(reservation.getDiscountCode())
+                        .append(' ').append(reservation.getTotalCents());
+                for (int night = 0; night < reservation.getNights(); night++) {
+                    description.append(' ').append(reservation.getNightlyCents(night));
+                }
+                description.append('\n');
+            }
+            for (LocalDate night = START; night.isBefore(START.plusDays(210)); night = night.plusDays(1)) {
+                description.append(' ').append(hotel.calculateEarningsCents(night, night.plusDays(1)));
+            }
+            description.append(" earnings ").append(hotel.calculateEarningsCents(START, START.plusDays(400))).append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Counts the files in the journal directory whose names start with a prefix.
+     *
+     * @param prefix - the start of the file names
+     * @return the number of files
+     * @throws IOException if the directory cannot be listed
+     */
+    private long countFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
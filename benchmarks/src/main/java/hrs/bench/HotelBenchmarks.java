@@ -0,0 +1,97 @@
+package hrs.bench;
+
+import hrs.Reservation;
+import hrs.Room;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The HotelBenchmarks class measures the booking, availability, pricing and earnings hot paths of a
+ * hotel against the synthetic hotels of HotelState. Each benchmark reports throughput and sampled
+ * latency; run with "-prof gc" to also get the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotelBenchmarks {
+
+    /**
+     * Books a random stay in a standard room and cancels it again, so the hotel stays the same size.
+     * Each thread books under its own guest name, so threads never cancel each other's bookings.
+     *
+     * @param state - the hotel being benchmarked
+     * @param stays - the random stays of this thread
+     * @return the reservation, or null if the hotel was full
+     */
+    @Benchmark
+    public Reservation simulateBooking(HotelState state, Stays stays) {
+        stays.next();
+        Reservation reservation = state.hotel.simulateBooking(stays.guestName(), stays.checkIn(), stays.checkOut(), Room.RoomType.STANDARD, null);
+        if (reservation != null) {
+            state.hotel.removeReservation(stays.guestName(), stays.checkIn());
+        }
+        return reservation;
+    }
+
+    /**
+     * Checks if a random room is free for a random stay.
+     *
+     * @param state - the hotel being benchmarked
+     * @param stays - the random stays of this thread
+     * @return true if the room is free
+     */
+    @Benchmark
+    public boolean hotelIsRoomAvailable(HotelState state, Stays stays) {
+        stays.next();
+        return state.hotel.isRoomAvailable(state.roomArray[stays.roomIndex()], stays.checkIn(), stays.checkOut());
+    }
+
+    /**
+     * Checks if a random room is free on a random night.
+     *
+     * @param state - the hotel being benchmarked
+     * @param stays - the random stays of this thread
+     * @return true if the room is free
+     */
+    @Benchmark
+    public boolean roomIsAvailable(HotelState state, Stays stays) {
+        stays.next();
+        return state.roomArray[stays.roomIndex()].isAvailable(stays.checkIn());
+    }
+
+    /**
+     * Prices a random stay in a random room again. The reservations are made when the stays are
+     * generated, so this measures the pricing path and not the making of a reservation.
+     * PricingBenchmarks compares the pricing loop with the one it replaced.
+     *
+     * @param stays - the random stays of this thread
+     * @return the total price in cents
+     */
+    @Benchmark
+    public long calculateTotalPrice(Stays stays) {
+        stays.next();
+        Reservation reservation = stays.reservation();
+        reservation.calculateTotalPrice();
+        return reservation.getTotalCents();
+    }
+
+    /**
+     * Calculates the earnings of the hotel for the month in the middle of the booking horizon, which
+     * has booked nights whatever the parameters are.
+     *
+     * @param state - the hotel being benchmarked
+     * @return the earnings
+     */
+    @Benchmark
+    public double calculateEarnings(HotelState state) {
+        return state.hotel.calculateEarnings(state.earningsMonth);
+    }
+}
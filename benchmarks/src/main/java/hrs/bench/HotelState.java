@@ -0,0 +1,99 @@
+package hrs.bench;
+
+import hrs.Hotel;
+import hrs.Reservation;
+import hrs.Room;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The HotelState class builds a synthetic hotel shared by all benchmark threads.
+ * Every room gets an equal share of the reservations, laid out back to back with random gaps so that
+ * the booked nights make up the requested fraction of the booking horizon. Stays are 1 to 4 nights.
+ *
+ * The largest combinations need a large heap (10,000,000 reservations take several gigabytes).
+ */
+@State(Scope.Benchmark)
+public class HotelState {
+    /**
+     * The first night of the booking horizon.
+     */
+    public static final long FIRST_DAY = LocalDate.of(2020, 1, 2).toEpochDay();
+
+    /**
+     * The number of rooms in the hotel.
+     */
+    @Param({"50", "5000", "50000"})
+    public int rooms;
+
+    /**
+     * The number of reservations made before measuring.
+     */
+    @Param({"1000", "100000", "10000000"})
+    public int reservations;
+
+    /**
+     * The fraction of room nights in the booking horizon that are booked.
+     */
+    @Param({"0.3", "0.9"})
+    public double occupancy;
+
+    /**
+     * The hotel being benchmarked.
+     */
+    public Hotel hotel;
+
+    /**
+     * The rooms of the hotel, for random access.
+     */
+    public Room[] roomArray;
+
+    /**
+     * The number of days in the booking horizon.
+     */
+    public long horizonDays;
+
+    /**
+     * The month in the middle of the booking horizon, whose earnings are measured.
+     */
+    public YearMonth earningsMonth;
+
+    /**
+     * Builds the hotel and loads its reservations.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int deluxe = rooms / 4;
+        int executive = rooms / 7;
+        hotel = new Hotel("Bench", rooms - deluxe - executive, deluxe, executive, null);
+        roomArray = hotel.getRooms().toArray(new Room[0]);
+
+        double nightsPerRoom = 2.5 * reservations / rooms;
+        horizonDays = Math.max(28, (long) Math.ceil(nightsPerRoom / occupancy));
+        earningsMonth = YearMonth.from(LocalDate.ofEpochDay(FIRST_DAY + horizonDays / 2));
+        double meanGap = 2.5 * (1 - occupancy) / occupancy;
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Reservation> loaded = new ArrayList<>(reservations);
+        for (int r = 0; r < rooms; r++) {
+            int count = reservations / rooms + (r < reservations % rooms ? 1 : 0);
+            long day = FIRST_DAY;
+            for (int i = 0; i < count; i++) {
+                day += (long) (random.nextDouble() * 2 * meanGap);
+                int nights = 1 + random.nextInt(4);
+                LocalDate checkIn = LocalDate.ofEpochDay(day);
+                loaded.add(new Reservation("guest" + loaded.size(), checkIn, checkIn.plusDays(nights), roomArray[r], null));
+                day += nights;
+            }
+        }
+        hotel.restoreReservations(loaded);
+    }
+}
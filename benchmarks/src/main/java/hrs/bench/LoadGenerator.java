@@ -0,0 +1,520 @@
+package hrs.bench;
+
+import hrs.HRS;
+import hrs.Hotel;
+import hrs.Reservation;
+import hrs.ReservationJournal;
+import hrs.Room;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LoadGenerator class drives booking and cancellation load through an HRS without any user interface.
+ * It either generates a synthetic stream or replays a recorded one, spread over several threads at a target
+ * rate, and reports latency percentiles and sustained bookings per second.
+ *
+ * Latency is measured from the time an operation was scheduled to start, so a stall that delays later
+ * operations shows up in their latency instead of being hidden.
+ *
+ * A recorded stream is a text file with one operation per line:
+ * <pre>
+ * BOOK,hotel name,guest name,check-in,check-out,room type[,discount code]
+ * CANCEL,hotel name,guest name,check-in
+ * </pre>
+ * Each line is played by a thread picked from its hotel and guest name, so a booking and its
+ * cancellation are always played by the same thread, in the order they were recorded.
+ *
+ * With --journal, every change is journaled to the given directory, so the report includes the cost of
+ * durability. With --commit await (the default) each operation waits until it is on disk; with
+ * --commit async it only waits to be buffered. Hotels already in the journal are reused.
+ *
+ * Usage: LoadGenerator [--hotels N] [--rooms N] [--threads N] [--rate OPS_PER_SECOND] [--duration SECONDS]
+ * [--cancel-ratio FRACTION] [--seed N] [--replay FILE] [--journal DIRECTORY] [--commit await|async]
+ */
+public class LoadGenerator {
+    /**
+     * The discount codes used by the synthetic stream, where null means no code.
+     */
+    private static final String[] DISCOUNT_CODES = {null, null, null, "I_WORK_HERE", "PAYDAY", "STAY4_GET1"};
+
+    /**
+     * The number of hotels to create.
+     */
+    private int hotelCount = 100;
+
+    /**
+     * The number of rooms in each hotel, at most 50.
+     */
+    private int roomsPerHotel = 50;
+
+    /**
+     * The number of threads sending operations.
+     */
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The target number of operations per second over all threads, or 0 for as fast as possible.
+     */
+    private double rate = 0;
+
+    /**
+     * The number of seconds the synthetic stream runs for.
+     */
+    private double durationSeconds = 10;
+
+    /**
+     * The fraction of synthetic operations that cancel an earlier booking.
+     */
+    private double cancelRatio = 0.2;
+
+    /**
+     * The seed of the synthetic stream.
+     */
+    private long seed = 1;
+
+    /**
+     * The recorded stream to replay, or null to generate a synthetic one.
+     */
+    private String replayFile;
+
+    /**
+     * The directory to journal to, or null to run without a journal.
+     */
+    private String journalDirectory;
+
+    /**
+     * Whether operations wait until their journal records are on disk.
+     */
+    private boolean awaitCommits = true;
+
+    /**
+     * The hotels the operations are sent to.
+     */
+    private Hotel[] hotels;
+
+    /**
+     * The number of successful bookings.
+     */
+    private AtomicLong booked = new AtomicLong();
+
+    /**
+     * The number of bookings that found no free room.
+     */
+    private AtomicLong rejected = new AtomicLong();
+
+    /**
+     * The number of successful cancellations.
+     */
+    private AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * The number of operations that failed with an error.
+     */
+    private AtomicLong errors = new AtomicLong();
+
+    /**
+     * Runs the load generator.
+     *
+     * @param args - the command line options
+     * @throws Exception if the recorded stream cannot be read or a thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        LoadGenerator generator = new LoadGenerator();
+        generator.parse(args);
+        generator.run();
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param args - the command line options
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--hotels":
+                    hotelCount = Integer.parseInt(value);
+                    break;
+                case "--rooms":
+                    roomsPerHotel = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threadCount = Integer.parseInt(value);
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(value);
+                    break;
+                case "--duration":
+                    durationSeconds = Double.parseDouble(value);
+                    break;
+                case "--cancel-ratio":
+                    cancelRatio = Double.parseDouble(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--replay":
+                    replayFile = value;
+                    break;
+                case "--journal":
+                    journalDirectory = value;
+                    break;
+                case "--commit":
+                    awaitCommits = !value.equals("async");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Builds the hotels, runs the stream on all threads and prints the report.
+     *
+     * @throws Exception if the recorded stream cannot be read or a thread is interrupted
+     */
+    private void run() throws Exception {
+        List<String[]> recorded = replayFile == null ? null : readStream(replayFile);
+        List<List<String[]>> partitions = recorded == null ? null : partition(recorded);
+        HRS hrs = new HRS();
+        ReservationJournal journal = null;
+        if (journalDirectory != null) {
+            long opening = System.nanoTime();
+            journal = ReservationJournal.open(Paths.get(journalDirectory), hrs, awaitCommits, ReservationJournal.DEFAULT_CHECKPOINT_BYTES);
+            System.out.printf("journal: recovered %d hotels in %.3fs%n", hrs.getHotels().size(), (System.nanoTime() - opening) / 1e9);
+        }
+        List<String> names = new ArrayList<>();
+        if (recorded != null) {
+            LinkedHashSet<String> referenced = new LinkedHashSet<>();
+            for (String[] operation : recorded) {
+                referenced.add(operation[1]);
+            }
+            names.addAll(referenced);
+        } else {
+            for (int i = 0; i < hotelCount; i++) {
+                names.add(String.format("Hotel%05d", i));
+            }
+        }
+        int deluxe = roomsPerHotel / 4;
+        int executive = roomsPerHotel / 7;
+        hotels = new Hotel[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Hotel recovered = hrs.findHotelByName(names.get(i));
+            hotels[i] = recovered != null ? recovered : hrs.createHotel(names.get(i), roomsPerHotel - deluxe - executive, deluxe, executive);
+        }
+        long recordsBefore = journal == null ? 0 : journal.getRecordCount();
+        long commitsBefore = journal == null ? 0 : journal.getCommitCount();
+
+        long[][] latencies = new long[threadCount][];
+        Thread[] threads = new Thread[threadCount];
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        long intervalNanos = rate > 0 ? (long) (1e9 * threadCount / rate) : 0;
+        long durationNanos = (long) (durationSeconds * 1e9);
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                latencies[thread] = recorded != null
+                    ? replay(partitions.get(thread), hrs, intervalNanos)
+                    : generate(thread, intervalNanos, durationNanos);
+            }, "load-" + t);
+            threads[t].start();
+        }
+        ready.await();
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - began;
+        report(latencies, elapsed);
+        if (journal != null) {
+            journal.sync();
+            elapsed = System.nanoTime() - began;
+            long records = journal.getRecordCount() - recordsBefore;
+            long commits = journal.getCommitCount() - commitsBefore;
+            System.out.printf("journal: %d records in %d commits (%.1f per commit), %.0f records/s%n",
+                records, commits, commits == 0 ? 0.0 : (double) records / commits, records / (elapsed / 1e9));
+            journal.close();
+        }
+    }
+
+    /**
+     * Sends the synthetic stream of one thread until the duration is over.
+     *
+     * @param thread - the index of the thread
+     * @param intervalNanos - the time between operations of this thread, or 0 for no pacing
+     * @param durationNanos - how long to run for
+     * @return the latency of every operation in nanoseconds
+     */
+    private long[] generate(int thread, long intervalNanos, long durationNanos) {
+        SplittableRandom random = new SplittableRandom(seed * 1_000_003 + thread);
+        LatencyLog log = new LatencyLog();
+        List<Reservation> mine = new ArrayList<>();
+        List<Hotel> mineHotels = new ArrayList<>();
+        Room.RoomType[] types = Room.RoomType.values();
+        long firstDay = LocalDate.now().plusDays(1).toEpochDay();
+        long began = System.nanoTime();
+        long scheduled = began;
+        long guest = 0;
+        while (scheduled - began < durationNanos) {
+            scheduled = pace(scheduled, intervalNanos);
+            if (!mine.isEmpty() && random.nextDouble() < cancelRatio) {
+                int index = mine.size() - 1 - random.nextInt(Math.min(mine.size(), 16));
+                Reservation reservation = mine.remove(index);
+                cancel(mineHotels.remove(index), reservation.getGuestName(), reservation.getCheckInDate());
+            } else {
+                Hotel hotel = hotels[random.nextInt(hotels.length)];
+                LocalDate checkIn;
+                LocalDate checkOut;
+                do {
+                    checkIn = LocalDate.ofEpochDay(firstDay + random.nextInt(365));
+                    checkOut = checkIn.plusDays(1 + random.nextInt(6));
+                } while (!hotel.isValidDateRange(checkIn, checkOut));
+                String guestName = "guest-" + thread + "-" + guest++;
+                Reservation reservation = book(hotel, guestName, checkIn, checkOut, types[random.nextInt(types.length)], DISCOUNT_CODES[random.nextInt(DISCOUNT_CODES.length)]);
+                if (reservation != null) {
+                    mine.add(reservation);
+                    mineHotels.add(hotel);
+                }
+            }
+            log.record(System.nanoTime() - scheduled);
+            if (intervalNanos == 0) {
+                scheduled = System.nanoTime();
+            }
+        }
+        return log.toArray();
+    }
+
+    /**
+     * Splits a recorded stream into one list per thread. Every operation on the same hotel and guest
+     * goes to the same thread, keeping the order of the stream, so a cancellation never runs before the
+     * booking it refers to.
+     *
+     * @param recorded - the recorded operations
+     * @return the operations of each thread
+     */
+    private List<List<String[]>> partition(List<String[]> recorded) {
+        List<List<String[]>> partitions = new ArrayList<>(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (String[] operation : recorded) {
+            int hash = 31 * operation[1].hashCode() + operation[2].hashCode();
+            partitions.get(Math.floorMod(hash, threadCount)).add(operation);
+        }
+        return partitions;
+    }
+
+    /**
+     * Sends the operations of a recorded stream that belong to one thread.
+     *
+     * @param operations - the recorded operations of the thread, in order
+     * @param hrs - the system holding the hotels named in the stream
+     * @param intervalNanos - the time between operations of this thread, or 0 for no pacing
+     * @return the latency of every operation in nanoseconds
+     */
+    private long[] replay(List<String[]> operations, HRS hrs, long intervalNanos) {
+        LatencyLog log = new LatencyLog();
+        long scheduled = System.nanoTime();
+        for (String[] operation : operations) {
+            scheduled = pace(scheduled, intervalNanos);
+            Hotel hotel = hrs.findHotelByName(operation[1]);
+            if (hotel == null) {
+                errors.incrementAndGet();
+            } else if (operation[0].equals("BOOK")) {
+                String discountCode = operation.length > 6 ? operation[6] : null;
+                book(hotel, operation[2], LocalDate.parse(operation[3]), LocalDate.parse(operation[4]), Room.RoomType.valueOf(operation[5]), discountCode);
+            } else {
+                cancel(hotel, operation[2], LocalDate.parse(operation[3]));
+            }
+            log.record(System.nanoTime() - scheduled);
+            if (intervalNanos == 0) {
+                scheduled = System.nanoTime();
+            }
+        }
+        return log.toArray();
+    }
+
+    /**
+     * Waits until the next operation is due.
+     *
+     * @param previous - the time the previous operation was scheduled for
+     * @param intervalNanos - the time between operations, or 0 for no pacing
+     * @return the time the next operation is scheduled for
+     */
+    private static long pace(long previous, long intervalNanos) {
+        if (intervalNanos == 0) {
+            return System.nanoTime();
+        }
+        long next = previous + intervalNanos;
+        long wait;
+        while ((wait = next - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return next;
+    }
+
+    /**
+     * Books a stay and counts the outcome.
+     *
+     * @param hotel - the hotel to book in
+     * @param guestName - the name of the guest
+     * @param checkIn - the check-in date
+     * @param checkOut - the check-out date
+     * @param roomType - the type of room
+     * @param discountCode - the discount code, or null
+     * @return the reservation, or null if it was not booked
+     */
+    private Reservation book(Hotel hotel, String guestName, LocalDate checkIn, LocalDate checkOut, Room.RoomType roomType, String discountCode) {
+        try {
+            Reservation reservation = hotel.simulateBooking(guestName, checkIn, checkOut, roomType, discountCode);
+            (reservation != null ? booked : rejected).incrementAndGet();
+            return reservation;
+        } catch (IllegalArgumentException e) {
+            errors.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Cancels a booking and counts the outcome.
+     *
+     * @param hotel - the hotel of the booking
+     * @param guestName - the name of the guest
+     * @param checkIn - the check-in date
+     */
+    private void cancel(Hotel hotel, String guestName, LocalDate checkIn) {
+        try {
+            hotel.removeReservation(guestName, checkIn);
+            cancelled.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads a recorded stream, skipping blank lines and lines starting with #.
+     *
+     * @param file - the path of the recorded stream
+     * @return the operations, each split into its fields
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String[]> readStream(String file) throws IOException {
+        List<String[]> operations = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            boolean valid = (fields[0].equals("BOOK") && (fields.length == 6 || fields.length == 7))
+                || (fields[0].equals("CANCEL") && fields.length == 4);
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid operation: " + line);
+            }
+            operations.add(fields);
+        }
+        return operations;
+    }
+
+    /**
+     * Prints the latency percentiles and throughput of the run.
+     *
+     * @param latencies - the latencies recorded by each thread
+     * @param elapsedNanos - how long the run took
+     */
+    private void report(long[][] latencies, long elapsedNanos) {
+        int total = 0;
+        for (long[] log : latencies) {
+            total += log.length;
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (long[] log : latencies) {
+            System.arraycopy(log, 0, all, position, log.length);
+            position += log.length;
+        }
+        Arrays.sort(all);
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf("hotels=%d threads=%d elapsed=%.2fs operations=%d%n", hotels.length, threadCount, seconds, total);
+        System.out.printf("booked=%d rejected=%d cancelled=%d errors=%d%n", booked.get(), rejected.get(), cancelled.get(), errors.get());
+        System.out.printf("throughput: %.0f ops/s, %.0f bookings/s%n", total / seconds, booked.get() / seconds);
+        if (total > 0) {
+            System.out.printf("latency: p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, percentile(all, 0.999) / 1e3, all[total - 1] / 1e3);
+        }
+    }
+
+    /**
+     * Gets a percentile of sorted values.
+     *
+     * @param sorted - the values in ascending order
+     * @param fraction - the percentile as a fraction, such as 0.99
+     * @return the value at that percentile
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * The LatencyLog class collects the latencies of one thread in a growable primitive array.
+     */
+    private static class LatencyLog {
+        /**
+         * The recorded latencies.
+         */
+        private long[] values = new long[1 << 16];
+
+        /**
+         * The number of recorded latencies.
+         */
+        private int size;
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos - the latency in nanoseconds
+         */
+        private void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        /**
+         * Gets the recorded latencies.
+         *
+         * @return a copy of the recorded latencies
+         */
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package hrs.bench;
+
+import hrs.RateCalendar;
+import hrs.Room;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The PricingBenchmarks class compares pricing the nights of a stay through RateCalendar.fillPrices
+ * with the loop Reservation.calculateTotalPrice used before, which made a LocalDate per night and boxed
+ * every nightly rate into a List of Double. Both price the same stays against the same calendar, so the
+ * difference is the cost of the pricing loop itself; run with "-prof gc" to compare the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmarks {
+    /**
+     * The number of different check-in days the stays start on, a power of two.
+     */
+    private static final int CHECK_IN_DAYS = 1024;
+
+    /**
+     * The number of nights in each stay.
+     */
+    @Param({"3", "30", "365"})
+    public int nights;
+
+    /**
+     * The room being priced.
+     */
+    private Room room;
+
+    /**
+     * The rate calendar of the room.
+     */
+    private RateCalendar calendar;
+
+    /**
+     * The check-in day of the next stay, as an offset from the first day of the horizon.
+     */
+    private int offset;
+
+    /**
+     * Builds the room and warms its rate calendar for every night the stays can cover.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = new RateCalendar();
+        room = new Room("Bench01", 1299.0, Room.RoomType.DELUXE, calendar);
+        calendar.fillPrices(HotelState.FIRST_DAY, room.getPriceCents(), new long[CHECK_IN_DAYS + nights]);
+    }
+
+    /**
+     * Prices a stay into a new array of nightly cents, the way Reservation.calculateTotalPrice does now.
+     *
+     * @return the nightly prices in cents
+     */
+    @Benchmark
+    public long[] fillPrices() {
+        offset = (offset + 1) & (CHECK_IN_DAYS - 1);
+        long[] prices = new long[nights];
+        calendar.fillPrices(HotelState.FIRST_DAY + offset, room.getPriceCents(), prices);
+        return prices;
+    }
+
+    /**
+     * Prices a stay with a copy of the loop Reservation.calculateTotalPrice used before the nightly
+     * breakdown became a primitive array.
+     *
+     * @param blackhole - the sink for the nightly prices
+     * @return the total price
+     */
+    @Benchmark
+    public double previousLoop(Blackhole blackhole) {
+        offset = (offset + 1) & (CHECK_IN_DAYS - 1);
+        LocalDate checkInDate = LocalDate.ofEpochDay(HotelState.FIRST_DAY + offset);
+        double nightlyRate = room.getPrice();
+        List<Double> breakdownCost = new ArrayList<>();
+        double totalPrice = 0;
+        for (int i = 0; i < nights; i++) {
+            LocalDate currentDate = checkInDate.plusDays(i);
+            double dailyRate = nightlyRate * room.getMultiplierForDate(currentDate);
+            breakdownCost.add(dailyRate);
+            totalPrice += dailyRate;
+        }
+        blackhole.consume(breakdownCost);
+        return totalPrice;
+    }
+}
@@ -0,0 +1,131 @@
+package hrs.bench;
+
+import hrs.Reservation;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The Stays class holds a ring of random stays inside the booking horizon for one benchmark thread.
+ * Stays are generated up front so that measuring does not include the cost of the random generator,
+ * and they all pass Hotel.isValidDateRange.
+ */
+@State(Scope.Thread)
+public class Stays {
+    /**
+     * The number of stays in the ring, a power of two.
+     */
+    private static final int SIZE = 4096;
+
+    /**
+     * The name the thread books under, different for every thread.
+     */
+    private String guestName;
+
+    /**
+     * The check-in dates of the stays.
+     */
+    private LocalDate[] checkIns;
+
+    /**
+     * The check-out dates of the stays.
+     */
+    private LocalDate[] checkOuts;
+
+    /**
+     * The indexes of random rooms to go with the stays.
+     */
+    private int[] roomIndexes;
+
+    /**
+     * The reservations of the stays in their random rooms, for pricing again.
+     */
+    private Reservation[] reservations;
+
+    /**
+     * The position of the current stay in the ring.
+     */
+    private int position;
+
+    /**
+     * Generates the stays for the hotel being benchmarked.
+     *
+     * @param state - the hotel being benchmarked
+     */
+    @Setup(Level.Trial)
+    public void setUp(HotelState state) {
+        SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+        guestName = "bench-" + Thread.currentThread().getId();
+        checkIns = new LocalDate[SIZE];
+        checkOuts = new LocalDate[SIZE];
+        roomIndexes = new int[SIZE];
+        reservations = new Reservation[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            LocalDate checkIn;
+            LocalDate checkOut;
+            do {
+                checkIn = LocalDate.ofEpochDay(HotelState.FIRST_DAY + random.nextLong(state.horizonDays));
+                checkOut = checkIn.plusDays(1 + random.nextInt(4));
+            } while (checkIn.getDayOfMonth() == 31 || checkOut.getDayOfMonth() == 1);
+            checkIns[i] = checkIn;
+            checkOuts[i] = checkOut;
+            roomIndexes[i] = random.nextInt(state.rooms);
+            reservations[i] = new Reservation("bench", checkIn, checkOut, state.roomArray[roomIndexes[i]], null);
+        }
+    }
+
+    /**
+     * Moves to the next stay in the ring.
+     */
+    public void next() {
+        position = (position + 1) & (SIZE - 1);
+    }
+
+    /**
+     * A getter that gets the name the thread books under.
+     *
+     * @return the guest name
+     */
+    public String guestName() {
+        return guestName;
+    }
+
+    /**
+     * A getter that gets the check-in date of the current stay.
+     *
+     * @return the check-in date
+     */
+    public LocalDate checkIn() {
+        return checkIns[position];
+    }
+
+    /**
+     * A getter that gets the check-out date of the current stay.
+     *
+     * @return the check-out date
+     */
+    public LocalDate checkOut() {
+        return checkOuts[position];
+    }
+
+    /**
+     * A getter that gets the index of the random room that goes with the current stay.
+     *
+     * @return the room index
+     */
+    public int roomIndex() {
+        return roomIndexes[position];
+    }
+
+    /**
+     * A getter that gets a reservation of the current stay in its random room. It is not booked in the hotel.
+     *
+     * @return the reservation
+     */
+    public Reservation reservation() {
+        return reservations[position];
+    }
+}